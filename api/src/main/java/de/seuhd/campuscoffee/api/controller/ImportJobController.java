@@ -0,0 +1,82 @@
+package de.seuhd.campuscoffee.api.controller;
+
+import de.seuhd.campuscoffee.api.dtos.ImportJobDto;
+import de.seuhd.campuscoffee.api.mapper.ImportJobDtoMapper;
+import de.seuhd.campuscoffee.domain.ports.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Controller for asynchronous OpenStreetMap import jobs.
+ * Imports run on a separate worker pool, so request threads are only used for submitting and polling jobs.
+ */
+@Controller
+@RequestMapping("/api/pos/import/jobs")
+@RequiredArgsConstructor
+public class ImportJobController {
+    private final ImportJobService importJobService;
+    private final ImportJobDtoMapper importJobDtoMapper;
+
+    /**
+     * Submits a job that imports POS from the given OpenStreetMap nodes.
+     *
+     * @param nodeIds the IDs of the OpenStreetMap nodes to import
+     * @return 202 Accepted with the initial job state and the job URI in the Location header
+     */
+    @PostMapping("")
+    public ResponseEntity<ImportJobDto> submit(
+            @RequestBody List<Long> nodeIds) {
+        return accepted(importJobDtoMapper.fromDomain(importJobService.submitOsmImport(nodeIds)));
+    }
+
+    /**
+     * Submits a job that imports POS from a local OpenStreetMap extract in the configured extract directory.
+     *
+     * @param name the file name of the extract (e.g., {@code heidelberg.osm.pbf})
+     * @return 202 Accepted with the initial job state and the job URI in the Location header
+     */
+    @PostMapping("/extracts/{name}")
+    public ResponseEntity<ImportJobDto> submitExtract(
+            @PathVariable String name) {
+        return accepted(importJobDtoMapper.fromDomain(importJobService.submitOsmExtractImport(name)));
+    }
+
+    /**
+     * Submits a job that applies the pending OpenStreetMap replication diffs in the configured replication directory,
+     * starting after the persisted checkpoint.
+     *
+     * @return 202 Accepted with the initial job state and the job URI in the Location header
+     */
+    @PostMapping("/replication")
+    public ResponseEntity<ImportJobDto> submitReplication() {
+        return accepted(importJobDtoMapper.fromDomain(importJobService.submitOsmReplication()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobDto> getById(
+            @PathVariable UUID id) {
+        return ResponseEntity.ok(
+                importJobDtoMapper.fromDomain(importJobService.getJob(id))
+        );
+    }
+
+    /**
+     * Builds the response for a submitted job; the Location header points to the job, independent of the
+     * endpoint it has been submitted to.
+     */
+    private static ResponseEntity<ImportJobDto> accepted(ImportJobDto job) {
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/pos/import/jobs/{id}")
+                        .buildAndExpand(job.id())
+                        .toUri())
+                .body(job);
+    }
+}
@@ -1,16 +1,44 @@
 package de.seuhd.campuscoffee.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.seuhd.campuscoffee.api.dtos.PosBatchResultDto;
+import de.seuhd.campuscoffee.api.dtos.PosBulkLoadResultDto;
 import de.seuhd.campuscoffee.api.dtos.PosDto;
 import de.seuhd.campuscoffee.api.mapper.PosDtoMapper;
+import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosType;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
 import de.seuhd.campuscoffee.domain.ports.PosService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Controller for handling POS-related API requests.
@@ -21,21 +49,149 @@ import java.util.List;
 public class PosController {
     private final PosService posService;
     private final PosDtoMapper posDtoMapper;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Returns one page of POS ordered by ID (keyset pagination), optionally filtered by campus, type, city,
+     * and postal code. The filters are evaluated by the database using indexes.
+     * If there are more POS, the response contains a {@code Link} header with {@code rel="next"}
+     * pointing to the next page.
+     * The response carries an ETag derived from the version of the whole POS collection;
+     * conditional requests for an unchanged collection are answered with 304 without reading any POS.
+     * The Last-Modified header is only a hint and is not used to validate conditional requests.
+     *
+     * @param after the ID after which the page starts (exclusive); omit to start with the first POS
+     * @param limit the maximum number of POS on the page
+     * @param campus only return POS on this campus; optional
+     * @param type only return POS of this type; optional
+     * @param city only return POS in this city; optional
+     * @param postalCode only return POS with this postal code; optional
+     * @param fields the fields to include in the response (e.g., {@code fields=name,campus}); omit for all fields
+     * @param request the web request used to evaluate conditional request headers
+     * @return the POS on the requested page, or null if the client's copy is still up to date
+     */
     @GetMapping("")
-    public ResponseEntity<List<PosDto>> getAll() {
+    public ResponseEntity<List<PosDto>> getAll(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + PosService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) CampusType campus,
+            @RequestParam(required = false) PosType type,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Integer postalCode,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        PosCollectionVersion version = posService.getCollectionVersion();
+        // If-Modified-Since is not validated, since the latest update timestamp may miss writes that committed late
+        if (request.checkNotModified(getETag(version))) {
+            return null; // 304 Not Modified, headers already set
+        }
+        PosFilter filter = PosFilter.builder()
+                .campus(campus)
+                .type(type)
+                .city(city)
+                .postalCode(postalCode)
+                .build();
+        CursorPage<Pos> page = posService.getPage(after, limit, filter, toPosFields(fields));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (version.lastModified() != null) {
+            response.lastModified(toEpochMilli(version.lastModified()));
+        }
+        if (page.nextCursor() != null) {
+            response.header(HttpHeaders.LINK, getNextPageLink("after", page.nextCursor(), page.items().size()));
+        }
+        return response.body(
+                page.items().stream()
+                        .map(posDtoMapper::fromDomain)
+                        .toList()
+        );
+    }
+
+    /**
+     * Searches POS by name and description (full-text search); results are ordered by descending relevance.
+     * If there are more results, the response contains a {@code Link} header with {@code rel="next"}
+     * pointing to the next page.
+     *
+     * @param q the search terms; every term must match the beginning of a word in the name or description
+     * @param offset the number of results to skip
+     * @param limit the maximum number of POS on the page
+     * @return the POS on the requested page of results
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<PosDto>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "" + PosService.DEFAULT_PAGE_SIZE) int limit) {
+        CursorPage<Pos> page = posService.search(q, offset, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(HttpHeaders.LINK, getNextPageLink("offset", page.nextCursor(), page.items().size()));
+        }
+        return response.body(
+                page.items().stream()
+                        .map(posDtoMapper::fromDomain)
+                        .toList()
+        );
+    }
+
+    /**
+     * Returns the POS closest to a location, ordered by ascending distance (answered from a spatial index).
+     * POS without a known location are not included.
+     *
+     * @param lat the latitude of the location in degrees
+     * @param lon the longitude of the location in degrees
+     * @param radius the maximum distance from the location in meters
+     * @param limit the maximum number of POS to return
+     * @return the nearest POS, closest first
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<PosDto>> getNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(defaultValue = "10") int limit) {
         return ResponseEntity.ok(
-                posService.getAll().stream()
+                posService.getNearby(lat, lon, radius, limit).stream()
                         .map(posDtoMapper::fromDomain)
                         .toList()
         );
     }
 
+    /**
+     * Exports all POS as newline-delimited JSON (one POS object per line), ordered by ID.
+     * The POS are streamed from the database while the response is written, so neither the
+     * full result list nor the full response body is ever held in memory.
+     *
+     * @return the streaming response body
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this::writeNdjson);
+    }
+
+    /**
+     * Returns a single POS.
+     * The response carries an ETag derived from the POS' version and a Last-Modified header;
+     * conditional requests for an unchanged POS are answered with 304 without reading the POS.
+     * The ETag can be sent back in the {@code If-Match} header of an update.
+     *
+     * @param id the ID of the POS
+     * @param fields the fields to include in the response (e.g., {@code fields=name,campus}); omit for all fields
+     * @param request the web request used to evaluate conditional request headers
+     * @return the POS, or null if the client's copy is still up to date
+     */
     @GetMapping("/{id}")
     public ResponseEntity<PosDto> getById(
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        PosVersion version = posService.getVersion(id);
+        if (request.checkNotModified(getETag(id, version.version()), toEpochMilli(version.lastModified()))) {
+            return null; // 304 Not Modified, headers already set
+        }
         return ResponseEntity.ok(
-                posDtoMapper.fromDomain(posService.getById(id))
+                posDtoMapper.fromDomain(posService.getById(id, toPosFields(fields)))
         );
     }
 
@@ -45,9 +201,80 @@ public class PosController {
         PosDto created = upsert(posDto);
         return ResponseEntity
                 .created(getLocation(created.id()))
+                .eTag(getETag(created))
                 .body(created);
     }
 
+    /**
+     * Creates or updates many POS at once (items with ID are updated, items without ID are created).
+     * The request body is a JSON array of POS that is parsed incrementally and upserted in batches of
+     * {@link PosService#MAX_BATCH_SIZE}, so arbitrarily large request bodies are never fully held in memory.
+     * Failing items do not abort the request; the response reports the outcome of every item.
+     *
+     * @param body the request body containing a JSON array of POS
+     * @return the outcome of every item, in request order
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PosBatchResultDto>> upsertBatch(
+            InputStream body) throws IOException {
+        List<PosBatchResultDto> results = new ArrayList<>();
+        List<Pos> batch = new ArrayList<>(PosService.MAX_BATCH_SIZE);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("The request body must be a JSON array of POS.");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                batch.add(posDtoMapper.toDomain(objectMapper.readValue(parser, PosDto.class)));
+                if (batch.size() == PosService.MAX_BATCH_SIZE) {
+                    upsertBatch(batch, results);
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("The request body must be a JSON array of POS objects.");
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed POS in request body after item " + results.size()
+                    + ": " + e.getOriginalMessage(), e);
+        }
+        upsertBatch(batch, results);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Imports many POS from OpenStreetMap nodes at once.
+     * The nodes are fetched with few multi-node requests; failing nodes do not abort the import.
+     *
+     * @param nodeIds the IDs of the OpenStreetMap nodes to import (at most {@link PosService#MAX_BATCH_SIZE})
+     * @return the outcome of every node, in request order
+     */
+    @PostMapping("/import/osm")
+    public ResponseEntity<List<PosBatchResultDto>> importFromOsm(
+            @RequestBody List<Long> nodeIds) {
+        return ResponseEntity.ok(
+                posService.importFromOsmNodes(nodeIds).stream()
+                        .map(result -> posDtoMapper.fromDomain(result, 0).toBuilder()
+                                .osmNodeId(nodeIds.get(result.index()))
+                                .build())
+                        .toList()
+        );
+    }
+
+    /**
+     * Loads POS from a CSV or NDJSON file in the configured bulk-load directory, e.g., for seeding a new environment.
+     * The file is copied into the database and merged in a single transaction; failing rows do not abort the load.
+     *
+     * @param name the file name (e.g., {@code pos.csv}); rows with an ID update the POS with that ID
+     * @return the number of created, updated, unchanged, and failed rows, with the line and reason of failed rows
+     */
+    @PostMapping("/import/bulk/{name}")
+    public ResponseEntity<PosBulkLoadResultDto> bulkLoad(
+            @PathVariable String name) {
+        return ResponseEntity.ok(
+                posDtoMapper.fromDomain(posService.bulkLoad(name))
+        );
+    }
+
     @PostMapping("/import/osm/{nodeId}")
     public ResponseEntity<PosDto> create(
             @PathVariable Long nodeId) {
@@ -56,17 +283,39 @@ public class PosController {
         );
         return ResponseEntity
                 .created(getLocation(created.id()))
+                .eTag(getETag(created))
                 .body(created);
     }
 
+    /**
+     * Updates a POS using optimistic concurrency control: if the request has an {@code If-Match} header with the
+     * ETag of the POS (or the body contains a version), the update is only applied if the POS has not been updated
+     * since; otherwise, the request fails with 412 and the client has to read the POS again.
+     * No lock is held, so concurrent writers never block each other. {@code If-Match: *} (or neither header nor
+     * version) updates the POS regardless of its version.
+     *
+     * @param id the ID of the POS
+     * @param ifMatch the ETag of the version the update is based on; takes precedence over the version in the body
+     * @param posDto the new state of the POS
+     * @return the updated POS with the ETag of its new version
+     */
     @PutMapping("/{id}")
     public ResponseEntity<PosDto> update(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody PosDto posDto) {
         if (!id.equals(posDto.id())) {
             throw new IllegalArgumentException("POS ID in path and body do not match.");
         }
-        return ResponseEntity.ok(upsert(posDto));
+        if (ifMatch != null) {
+            posDto = posDto.toBuilder()
+                    .version(parseETag(id, ifMatch))
+                    .build();
+        }
+        PosDto updated = upsert(posDto);
+        return ResponseEntity.ok()
+                .eTag(getETag(updated))
+                .body(updated);
     }
 
     /**
@@ -83,6 +332,130 @@ public class PosController {
         );
     }
 
+    /**
+     * Upserts one batch of a batch request and clears it afterward.
+     *
+     * @param batch the POS to upsert; cleared after the upsert
+     * @param results the results of the previous batches, to which the results of this batch are appended
+     */
+    private void upsertBatch(List<Pos> batch, List<PosBatchResultDto> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int offset = results.size();
+        posService.upsertAll(batch).stream()
+                .map(result -> posDtoMapper.fromDomain(result, offset))
+                .forEach(results::add);
+        batch.clear();
+    }
+
+    /**
+     * Writes all POS to the output stream, one JSON object per line.
+     * Runs on the async request thread; the POS stream is opened and closed on that thread.
+     *
+     * @param outputStream the response output stream
+     * @throws IOException if writing to the client fails
+     */
+    private void writeNdjson(OutputStream outputStream) throws IOException {
+        try (Stream<Pos> posStream = posService.streamAll();
+             JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Pos pos : (Iterable<Pos>) posStream::iterator) {
+                generator.writeObject(posDtoMapper.fromDomain(pos));
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Builds a strong ETag for a single POS from its ID and version.
+     * @param id the ID of the POS
+     * @param version the version of the POS
+     * @return the quoted ETag value
+     */
+    private static String getETag(Long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Builds the ETag of a POS that has just been written.
+     * @param posDto the written POS
+     * @return the quoted ETag value
+     */
+    private static String getETag(PosDto posDto) {
+        return getETag(posDto.id(), Objects.requireNonNull(posDto.version()));
+    }
+
+    /**
+     * Extracts the version from an ETag sent in an {@code If-Match} header (see {@link #getETag(Long, long)}).
+     * @param id the ID of the POS to update
+     * @param eTag the header value
+     * @return the version the ETag refers to, or null for {@code *} (any version)
+     */
+    private static Long parseETag(Long id, String eTag) {
+        String value = eTag.strip();
+        if (value.equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        if (!value.startsWith(prefix) || !value.endsWith("\"") || value.length() <= prefix.length() + 1) {
+            // weak ETags and ETags of other resources can never match (If-Match uses the strong comparison)
+            throw new IllegalArgumentException("If-Match must contain a single strong ETag of POS " + id + ".");
+        }
+        try {
+            return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match must contain a single strong ETag of POS " + id + ".", e);
+        }
+    }
+
+    /**
+     * Builds a strong ETag for the POS collection from its change and deletion counters.
+     * The latest update timestamp is not part of it, since it is only sent as a weak Last-Modified hint.
+     * @param version the version of the POS collection
+     * @return the quoted ETag value
+     */
+    private static String getETag(PosCollectionVersion version) {
+        return "\"" + version.changes() + "-" + version.deletions() + "\"";
+    }
+
+    /**
+     * Converts a UTC timestamp to milliseconds since the epoch as used for the Last-Modified header.
+     * @param timestamp the UTC timestamp; may be null
+     * @return milliseconds since the epoch, or -1 (no Last-Modified header) if the timestamp is null
+     */
+    private static long toEpochMilli(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return -1L;
+        }
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Builds the RFC 8288 link header value pointing to the next page of the current request.
+     * @param cursorParam the name of the query parameter that takes the cursor
+     * @param nextCursor the cursor of the next page
+     * @param limit the (effective) page size
+     * @return the link header value
+     */
+    private String getNextPageLink(String cursorParam, Long nextCursor, int limit) {
+        String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(cursorParam, nextCursor)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        return "<" + uri + ">; rel=\"next\"";
+    }
+
+    /**
+     * Resolves the requested sparse fieldset; all fields are returned if none are requested.
+     * @param fields the property names of the requested fields; may be null
+     * @return the requested fields
+     */
+    private static Set<PosField> toPosFields(Set<String> fields) {
+        return fields == null || fields.isEmpty() ? PosField.all() : PosField.fromPropertyNames(fields);
+    }
+
     /**
      * Builds the location URI for a newly created resource.
      * @param resourceId the ID of the created resource
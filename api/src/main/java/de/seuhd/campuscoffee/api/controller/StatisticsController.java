@@ -0,0 +1,58 @@
+package de.seuhd.campuscoffee.api.controller;
+
+import de.seuhd.campuscoffee.api.dtos.CacheStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.ConnectionPoolStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.OsmClientStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.OsmNodeCacheStatisticsDto;
+import de.seuhd.campuscoffee.api.mapper.StatisticsDtoMapper;
+import de.seuhd.campuscoffee.domain.ports.ConnectionPoolService;
+import de.seuhd.campuscoffee.domain.ports.OsmClientService;
+import de.seuhd.campuscoffee.domain.ports.OsmNodeCacheService;
+import de.seuhd.campuscoffee.domain.ports.PosCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * Controller exposing runtime statistics (e.g., cache counters) for monitoring.
+ */
+@Controller
+@RequestMapping("/api/statistics")
+@RequiredArgsConstructor
+public class StatisticsController {
+    private final PosCacheService posCacheService;
+    private final OsmNodeCacheService osmNodeCacheService;
+    private final OsmClientService osmClientService;
+    private final ConnectionPoolService connectionPoolService;
+    private final StatisticsDtoMapper statisticsDtoMapper;
+
+    @GetMapping("/pos-cache")
+    public ResponseEntity<CacheStatisticsDto> getPosCacheStatistics() {
+        return ResponseEntity.ok(
+                statisticsDtoMapper.fromDomain(posCacheService.getStatistics())
+        );
+    }
+
+    @GetMapping("/osm-node-cache")
+    public ResponseEntity<OsmNodeCacheStatisticsDto> getOsmNodeCacheStatistics() {
+        return ResponseEntity.ok(
+                statisticsDtoMapper.fromDomain(osmNodeCacheService.getStatistics())
+        );
+    }
+
+    @GetMapping("/osm-client")
+    public ResponseEntity<OsmClientStatisticsDto> getOsmClientStatistics() {
+        return ResponseEntity.ok(
+                statisticsDtoMapper.fromDomain(osmClientService.getStatistics())
+        );
+    }
+
+    @GetMapping("/connection-pool")
+    public ResponseEntity<ConnectionPoolStatisticsDto> getConnectionPoolStatistics() {
+        return ResponseEntity.ok(
+                statisticsDtoMapper.fromDomain(connectionPoolService.getStatistics())
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import lombok.Builder;
+
+/**
+ * DTO record for the counters of a cache.
+ */
+@Builder
+public record CacheStatisticsDto(
+        long hits, // includes cached "not found" results
+        long notFoundHits,
+        long misses,
+        long loads, // lower than misses if concurrent misses were coalesced
+        long evictions,
+        int size
+) {}
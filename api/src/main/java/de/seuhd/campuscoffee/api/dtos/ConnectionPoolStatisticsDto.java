@@ -0,0 +1,21 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import lombok.Builder;
+
+/**
+ * DTO record for the state of the database connection pool and the hold and wait times of its connections.
+ */
+@Builder
+public record ConnectionPoolStatisticsDto(
+        int activeConnections,
+        int idleConnections,
+        int maxConnections,
+        int pendingThreads, // threads currently waiting for a connection
+        long checkouts,
+        double holdTimeMeanMillis,
+        long holdTimeP99Millis, // upper bound of a power-of-two bucket
+        long holdTimeMaxMillis,
+        double waitTimeMeanMillis,
+        double waitTimeMaxMillis,
+        long timeouts
+) {}
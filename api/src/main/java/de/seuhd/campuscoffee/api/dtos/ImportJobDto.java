@@ -0,0 +1,40 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import de.seuhd.campuscoffee.domain.model.ImportJobStatus;
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO record for the state of an asynchronous OpenStreetMap import job.
+ */
+@Builder
+public record ImportJobDto(
+        @NonNull UUID id,
+        @NonNull ImportJobStatus status,
+        int totalNodes, // grows while an extract is read, until the job has finished
+        int processedNodes,
+        int importedNodes,
+        int failedNodes,
+        @NonNull List<Failure> failures, // capped; failedNodes contains the total number
+        double nodesPerSecond,
+        @NonNull LocalDateTime submittedAt,
+        @Nullable LocalDateTime startedAt, // is null while the job is queued
+        @Nullable LocalDateTime finishedAt, // is null until the job has finished
+        @Nullable String error // is only set if the job was aborted
+) {
+    /**
+     * DTO record for a node that could not be imported.
+     */
+    @Builder
+    public record Failure(
+            @NonNull Long nodeId,
+            @NonNull BatchOutcome outcome,
+            @Nullable String message
+    ) {}
+}
@@ -0,0 +1,21 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import de.seuhd.campuscoffee.domain.model.CircuitState;
+import lombok.Builder;
+
+/**
+ * DTO record for the circuit breaker state and the counters of the resilience layer in front of the OSM API.
+ */
+@Builder
+public record OsmClientStatisticsDto(
+        CircuitState circuitState,
+        long calls,
+        long attempts, // including retries
+        long retries,
+        long transientFailures, // server errors, 429 responses, and network errors
+        long requests, // HTTP requests; the circuit breaker and the rate limiter count requests, not attempts
+        long circuitRejections,
+        long rateLimitDelays,
+        long rateLimitRejections,
+        double availableTokens
+) {}
@@ -0,0 +1,18 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import lombok.Builder;
+
+/**
+ * DTO record for the counters and the size of the persistent OSM node cache.
+ */
+@Builder
+public record OsmNodeCacheStatisticsDto(
+        long hits, // served without any request to the OSM API
+        long revalidations,
+        long notModified, // revalidated entries that were still current
+        long misses,
+        double hitRate,
+        long bytesSaved,
+        int size,
+        long diskBytes
+) {}
@@ -0,0 +1,19 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * DTO record for the outcome of a single item of a batch request.
+ */
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL) // excludes null fields from JSON
+public record PosBatchResultDto(
+        int index, // position of the item in the request body
+        int statusCode, // HTTP status code the item would have received as a single request
+        @Nullable Long osmNodeId, // is only set for OpenStreetMap imports
+        @Nullable Long id, // is null if the item was not persisted
+        @Nullable String errorCode, // is null if the item was persisted
+        @Nullable String message // is null if the item was persisted
+) {}
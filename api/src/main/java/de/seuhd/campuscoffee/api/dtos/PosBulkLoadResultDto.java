@@ -0,0 +1,32 @@
+package de.seuhd.campuscoffee.api.dtos;
+
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * DTO record for the summary of a bulk load of a POS file.
+ */
+@Builder
+public record PosBulkLoadResultDto(
+        long rows, // excludes blank lines and the CSV header
+        long created,
+        long updated,
+        long unchanged,
+        long failed,
+        @NonNull List<Failure> failures, // capped and ordered by line; failed contains the total number
+        long durationMillis
+) {
+    /**
+     * DTO record for a row that could not be loaded.
+     */
+    @Builder
+    public record Failure(
+            long line, // the line of the file in which the row starts, counted from 1
+            @NonNull BatchOutcome outcome,
+            @Nullable String message
+    ) {}
+}
@@ -1,5 +1,6 @@
 package de.seuhd.campuscoffee.api.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import de.seuhd.campuscoffee.domain.model.CampusType;
 import de.seuhd.campuscoffee.domain.model.PosType;
 import lombok.Builder;
@@ -10,7 +11,9 @@ import java.time.LocalDateTime;
 
 /**
  * DTO record for POS metadata.
+ * Null fields are omitted, so that responses with sparse fieldsets only contain the requested fields.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Builder(toBuilder = true)
 public record PosDto(
         @Nullable Long id, // id is null when creating a new task
@@ -23,5 +26,8 @@ public record PosDto(
         @NonNull String street,
         @NonNull String houseNumber,
         @NonNull Integer postalCode,
-        @NonNull String city
+        @NonNull String city,
+        @Nullable Double latitude,
+        @Nullable Double longitude,
+        @Nullable Long version // when updating, the version the update is based on (see If-Match)
 ) {}
@@ -5,10 +5,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 
@@ -30,7 +32,8 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler({
             PosNotFoundException.class,
-            OsmNodeNotFoundException.class
+            OsmNodeNotFoundException.class,
+            ImportJobNotFoundException.class
     })
     public ResponseEntity<ErrorResponse> handleNotFoundException(
             RuntimeException exception,
@@ -49,7 +52,8 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with ErrorResponse and HTTP 409
      */
     @ExceptionHandler({
-            DuplicatePosNameException.class
+            DuplicatePosNameException.class,
+            DuplicateOsmNodeException.class
     })
     public ResponseEntity<ErrorResponse> handleDuplicateException(
             RuntimeException exception,
@@ -59,6 +63,25 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(exception, HttpStatus.CONFLICT, request);
     }
 
+    /**
+     * Handles updates based on an outdated version of a resource (lost update prevented).
+     * Returns HTTP 412 (Precondition Failed) - the client has to read the resource again before updating it.
+     *
+     * @param exception the version conflict exception that was thrown
+     * @param request the web request
+     * @return ResponseEntity with ErrorResponse and HTTP 412
+     */
+    @ExceptionHandler({
+            PosVersionConflictException.class
+    })
+    public ResponseEntity<ErrorResponse> handleVersionConflictException(
+            RuntimeException exception,
+            WebRequest request
+    ) {
+        log.warn("Version conflict: {}", exception.getMessage());
+        return buildErrorResponse(exception, HttpStatus.PRECONDITION_FAILED, request);
+    }
+
     /**
      * Handles validation and bad request exceptions.
      * Returns HTTP 400 (Bad Request).
@@ -69,16 +92,57 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler({
             IllegalArgumentException.class,
-            OsmNodeMissingFieldsException.class
+            OsmNodeMissingFieldsException.class,
+            MethodArgumentTypeMismatchException.class, // e.g., unknown enum constant in a filter parameter
+            MissingServletRequestParameterException.class
     })
     public ResponseEntity<ErrorResponse> handleBadRequestException(
-            RuntimeException exception,
+            Exception exception,
             WebRequest request
     ) {
         log.warn("Bad request: {}", exception.getMessage());
         return buildErrorResponse(exception, HttpStatus.BAD_REQUEST, request);
     }
 
+    /**
+     * Handles requests that are rejected because of temporary overload (backpressure).
+     * Returns HTTP 503 (Service Unavailable) - clients should retry later.
+     *
+     * @param exception the exception that was thrown
+     * @param request the web request
+     * @return ResponseEntity with ErrorResponse and HTTP 503
+     */
+    @ExceptionHandler({
+            ImportJobRejectedException.class,
+            OsmApiUnavailableException.class
+    })
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            RuntimeException exception,
+            WebRequest request
+    ) {
+        log.warn("Service unavailable: {}", exception.getMessage());
+        return buildErrorResponse(exception, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    /**
+     * Handles failures of the OpenStreetMap API that persisted after retrying.
+     * Returns HTTP 502 (Bad Gateway) - the upstream service answered with an error or could not be reached.
+     *
+     * @param exception the exception that was thrown
+     * @param request the web request
+     * @return ResponseEntity with ErrorResponse and HTTP 502
+     */
+    @ExceptionHandler({
+            OsmApiException.class
+    })
+    public ResponseEntity<ErrorResponse> handleBadGatewayException(
+            RuntimeException exception,
+            WebRequest request
+    ) {
+        log.warn("Upstream failure: {}", exception.getMessage());
+        return buildErrorResponse(exception, HttpStatus.BAD_GATEWAY, request);
+    }
+
     /**
      * Fallback handler for unexpected exceptions.
      * Returns HTTP 500 (Internal Server Error).
@@ -1,9 +1,17 @@
 package de.seuhd.campuscoffee.api.mapper;
 
+import de.seuhd.campuscoffee.api.dtos.PosBatchResultDto;
+import de.seuhd.campuscoffee.api.dtos.PosBulkLoadResultDto;
 import de.seuhd.campuscoffee.api.dtos.PosDto;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadFailure;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.http.HttpStatus;
 
 /**
  * MapStruct mapper for converting between domain model objects and DTOs.
@@ -16,5 +24,41 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 @ConditionalOnMissingBean // prevent IntelliJ warning about duplicate beans
 public interface PosDtoMapper {
     PosDto fromDomain(Pos source);
+    // the OpenStreetMap metadata is only set by imports (and kept by updates through the API)
+    @Mapping(target = "osmNodeId", ignore = true)
+    @Mapping(target = "osmVersion", ignore = true)
     Pos toDomain(PosDto source);
+    PosBulkLoadResultDto fromDomain(PosBulkLoadResult source);
+    PosBulkLoadResultDto.Failure fromDomain(PosBulkLoadFailure source);
+
+    /**
+     * Converts the result of a batch item, using the HTTP status codes of the corresponding single requests.
+     *
+     * @param source the batch item result
+     * @param offset the position of the batch in the request body, added to the index of the item
+     * @return the batch result DTO
+     */
+    default PosBatchResultDto fromDomain(PosBatchResult source, int offset) {
+        return PosBatchResultDto.builder()
+                .index(offset + source.index())
+                .statusCode(toHttpStatus(source.outcome()).value())
+                .id(source.pos() == null ? null : source.pos().id())
+                .errorCode(source.outcome().isSuccess() ? null : source.outcome().name())
+                .message(source.message())
+                .build();
+    }
+
+    /**
+     * Maps batch outcomes to HTTP status codes consistent with the GlobalExceptionHandler.
+     */
+    default HttpStatus toHttpStatus(BatchOutcome outcome) {
+        return switch (outcome) {
+            case CREATED -> HttpStatus.CREATED;
+            case UPDATED, UNCHANGED -> HttpStatus.OK;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case DUPLICATE_NAME, DUPLICATE_OSM_NODE -> HttpStatus.CONFLICT;
+            case VERSION_CONFLICT -> HttpStatus.PRECONDITION_FAILED;
+            case INVALID -> HttpStatus.BAD_REQUEST;
+        };
+    }
 }
@@ -0,0 +1,27 @@
+package de.seuhd.campuscoffee.api.mapper;
+
+import de.seuhd.campuscoffee.api.dtos.CacheStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.ConnectionPoolStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.OsmClientStatisticsDto;
+import de.seuhd.campuscoffee.api.dtos.OsmNodeCacheStatisticsDto;
+import de.seuhd.campuscoffee.domain.model.CacheStatistics;
+import de.seuhd.campuscoffee.domain.model.ConnectionPoolStatistics;
+import de.seuhd.campuscoffee.domain.model.OsmClientStatistics;
+import de.seuhd.campuscoffee.domain.model.OsmNodeCacheStatistics;
+import org.mapstruct.Mapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+
+/**
+ * MapStruct mapper for converting runtime statistics from the domain model to DTOs.
+ */
+@Mapper(componentModel = "spring")
+@ConditionalOnMissingBean // prevent IntelliJ warning about duplicate beans
+public interface StatisticsDtoMapper {
+    CacheStatisticsDto fromDomain(CacheStatistics source);
+
+    OsmNodeCacheStatisticsDto fromDomain(OsmNodeCacheStatistics source);
+
+    OsmClientStatisticsDto fromDomain(OsmClientStatistics source);
+
+    ConnectionPoolStatisticsDto fromDomain(ConnectionPoolStatistics source);
+}
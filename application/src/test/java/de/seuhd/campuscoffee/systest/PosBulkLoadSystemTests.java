@@ -0,0 +1,184 @@
+package de.seuhd.campuscoffee.systest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.seuhd.campuscoffee.TestUtils;
+import de.seuhd.campuscoffee.api.dtos.PosBulkLoadResultDto;
+import de.seuhd.campuscoffee.api.dtos.PosDto;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.tests.TestFixtures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * System tests for bulk loading POS files ({@code POST /api/pos/import/bulk/{name}}).
+ */
+public class PosBulkLoadSystemTests extends AbstractSysTest {
+    private static final Path BULK_LOAD_DIRECTORY;
+
+    static {
+        try {
+            BULK_LOAD_DIRECTORY = Files.createTempDirectory("bulk-load");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,name,description,type,campus,street,houseNumber,postalCode,city,latitude,longitude\n";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void configureBulkLoadDirectory(DynamicPropertyRegistry registry) {
+        registry.add("campus-coffee.import.bulk-load-directory", BULK_LOAD_DIRECTORY::toString);
+    }
+
+    @Test
+    void loadCsvCreatesPosAndReportsFailingRows() {
+        PosBulkLoadResultDto result = bulkLoad("create.csv", CSV_HEADER + """
+                ,Café Frisch,"Coffee, cake,
+                and snacks",CAFE,ALTSTADT,Hauptstraße,12b,69117,Heidelberg,49.41,8.70
+                ,Mensa INF,Lunch,CAFETERIA,INF,Im Neuenheimer Feld,304,69120,Heidelberg,,
+                ,Mensa INF,Lunch,CAFETERIA,INF,Im Neuenheimer Feld,304,69120,Heidelberg,,
+                ,Kiosk,Snacks,KIOSK,INF,Berliner Str.,1,69120,Heidelberg,,
+                ,Automat,,VENDING_MACHINE,BERGHEIM,Bergheimer Str.,1,69115,Heidelberg,,
+                """);
+
+        assertThat(result.rows()).isEqualTo(6);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.updated()).isZero();
+        assertThat(result.unchanged()).isZero();
+        assertThat(result.failed()).isEqualTo(3);
+        // lines are counted from the header, and the first row spans two lines
+        assertThat(result.failures())
+                .extracting(PosBulkLoadResultDto.Failure::line, PosBulkLoadResultDto.Failure::outcome)
+                .containsExactly(
+                        tuple(5L, BatchOutcome.DUPLICATE_NAME), // duplicate line
+                        tuple(6L, BatchOutcome.INVALID), // unknown type
+                        tuple(7L, BatchOutcome.INVALID)); // empty description
+
+        List<PosDto> loadedPos = TestUtils.retrievePos();
+        assertThat(loadedPos).extracting(PosDto::name).containsExactlyInAnyOrder("Café Frisch", "Mensa INF");
+        PosDto cafe = loadedPos.stream()
+                .filter(pos -> pos.name().equals("Café Frisch"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(cafe.description()).isEqualTo("Coffee, cake,\nand snacks");
+        assertThat(cafe.houseNumber()).isEqualTo("12b");
+        assertThat(cafe.latitude()).isEqualTo(49.41);
+        assertThat(cafe.version()).isZero();
+    }
+
+    @Test
+    void loadNdjsonUpdatesExistingPosAndSkipsUnchangedRows() {
+        List<Pos> existingPos = TestFixtures.createPosFixtures(posService);
+        Pos unchanged = existingPos.get(0);
+        Pos updated = existingPos.get(1);
+        Pos nameOwner = existingPos.get(2);
+        Pos created = TestFixtures.getPosFixturesForInsertion().getFirst().toBuilder().name("Neue Rösterei").build();
+
+        PosBulkLoadResultDto result = bulkLoad("update.ndjson", String.join("\n",
+                toJson(unchanged),
+                toJson(updated.toBuilder().description("Fresh pretzels").build()),
+                // the ID has already been used by the previous row
+                toJson(updated.toBuilder().name("Renamed").build()),
+                // the name is used by another POS
+                toJson(created.toBuilder().name(nameOwner.name()).build()),
+                // explicit IDs must belong to an existing POS
+                toJson(created.toBuilder().id(updated.id() + 1_000_000).name("Unknown").build()),
+                "{\"name\": ",
+                toJson(created)));
+
+        assertThat(result.rows()).isEqualTo(7);
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(4);
+        assertThat(result.failures())
+                .extracting(PosBulkLoadResultDto.Failure::line, PosBulkLoadResultDto.Failure::outcome)
+                .containsExactly(
+                        tuple(3L, BatchOutcome.INVALID),
+                        tuple(4L, BatchOutcome.DUPLICATE_NAME),
+                        tuple(5L, BatchOutcome.NOT_FOUND),
+                        tuple(6L, BatchOutcome.INVALID));
+
+        PosDto updatedPos = TestUtils.retrievePosById(updated.id());
+        assertThat(updatedPos.description()).isEqualTo("Fresh pretzels");
+        assertThat(updatedPos.version()).isEqualTo(updated.version() + 1);
+        PosDto unchangedPos = TestUtils.retrievePosById(unchanged.id());
+        assertThat(unchangedPos.version()).isEqualTo(unchanged.version());
+        assertThat(unchangedPos.updatedAt()).isEqualTo(unchanged.updatedAt());
+        assertThat(TestUtils.retrievePos()).extracting(PosDto::name)
+                .hasSize(existingPos.size() + 1)
+                .contains("Neue Rösterei")
+                .doesNotContain("Renamed", "Unknown");
+    }
+
+    @Test
+    void insertAfterLoadDoesNotReuseIds() {
+        List<Pos> fixtures = TestFixtures.getPosFixturesForInsertion();
+        // the first insert reserves a block of IDs for this instance
+        PosDto first = TestUtils.createPos(List.of(posDtoMapper.fromDomain(fixtures.get(0)))).getFirst();
+
+        PosBulkLoadResultDto result = bulkLoad("ids.csv", CSV_HEADER + """
+                ,Mensa INF,Lunch,CAFETERIA,INF,Im Neuenheimer Feld,304,69120,Heidelberg,,
+                ,Marstall,Dinner,CAFETERIA,ALTSTADT,Marstallhof,3,69117,Heidelberg,,
+                %d,Reserved,Within the block of this instance,CAFE,ALTSTADT,Hauptstraße,1,69117,Heidelberg,,
+                """.formatted(first.id() + 1));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.failures())
+                .extracting(PosBulkLoadResultDto.Failure::line, PosBulkLoadResultDto.Failure::outcome)
+                .containsExactly(tuple(4L, BatchOutcome.NOT_FOUND));
+
+        // the next insert uses the next ID of the reserved block
+        PosDto second = TestUtils.createPos(List.of(posDtoMapper.fromDomain(fixtures.get(1)))).getFirst();
+
+        List<Long> ids = TestUtils.retrievePos().stream()
+                .map(PosDto::id)
+                .toList();
+        assertThat(ids).hasSize(4).doesNotHaveDuplicates().contains(first.id(), second.id());
+    }
+
+    private PosBulkLoadResultDto bulkLoad(String fileName, String content) {
+        try {
+            Files.writeString(BULK_LOAD_DIRECTORY.resolve(fileName), content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return given()
+                .when()
+                .post("/api/pos/import/bulk/{name}", fileName)
+                .then()
+                .statusCode(200)
+                .extract().as(PosBulkLoadResultDto.class);
+    }
+
+    private String toJson(Pos pos) {
+        try {
+            return objectMapper.writeValueAsString(posDtoMapper.fromDomain(pos).toBuilder()
+                    .createdAt(null)
+                    .updatedAt(null)
+                    .version(null)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package de.seuhd.campuscoffee.systest;
+
+import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosType;
+import de.seuhd.campuscoffee.domain.tests.TestFixtures;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the filters of {@code GET /api/pos} and nearby searches are answered from the indexes created in
+ * migrations {@code V4} and {@code V6}.
+ * The queries are issued through the POS service, and the SQL that Hibernate generates for them is captured by a
+ * statement inspector and explained as a generic plan, i.e., with its parameters left unbound.
+ * The test tables are tiny, so sequential scans are disabled for the session to make the planner reveal
+ * which index it would use on a large table.
+ */
+public class PosQueryPlanSystemTests extends AbstractSysTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturingStatementInspector statementInspector;
+
+    @TestConfiguration
+    static class StatementCaptureConfiguration {
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector statementInspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+        }
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares, without changing it.
+     */
+    static class CapturingStatementInspector implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        void reset() {
+            statements.clear();
+        }
+
+        String lastQuery() {
+            assertThat(statements).isNotEmpty();
+            return statements.getLast();
+        }
+    }
+
+    @BeforeEach
+    void createFixtures() {
+        TestFixtures.createPosFixtures(posService);
+        statementInspector.reset();
+    }
+
+    static Stream<Arguments> filters() {
+        return Stream.of(
+                Arguments.of(PosFilter.builder().campus(CampusType.INF).type(PosType.CAFETERIA).build(),
+                        List.of("pos_campus_type_idx")),
+                Arguments.of(PosFilter.builder().campus(CampusType.INF).build(),
+                        List.of("pos_campus_type_idx")),
+                Arguments.of(PosFilter.builder().type(PosType.CAFE).build(),
+                        List.of("pos_type_idx")),
+                Arguments.of(PosFilter.builder().postalCode(69120).build(),
+                        List.of("pos_postal_code_idx")),
+                Arguments.of(PosFilter.builder().city("Heidelberg").build(),
+                        List.of("pos_city_idx")),
+                // combined filters may be answered from either index (or both combined in a bitmap)
+                Arguments.of(PosFilter.builder().campus(CampusType.ALTSTADT).city("Heidelberg").build(),
+                        List.of("pos_campus_type_idx", "pos_city_idx")),
+                Arguments.of(PosFilter.builder().type(PosType.BAKERY).postalCode(69117).build(),
+                        List.of("pos_type_idx", "pos_postal_code_idx")),
+                Arguments.of(PosFilter.builder().campus(CampusType.INF).type(PosType.CAFE).city("Heidelberg").build(),
+                        List.of("pos_campus_type_idx", "pos_city_idx"))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("filters")
+    void filterUsesIndex(PosFilter filter, List<String> expectedIndexes) {
+        posService.getPage(null, 100, filter, PosField.all());
+
+        String plan = explain(statementInspector.lastQuery());
+
+        assertThat(plan)
+                .containsAnyOf(expectedIndexes.toArray(String[]::new))
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void sparseFieldsetUsesIndex() {
+        posService.getPage(null, 100, PosFilter.builder().campus(CampusType.INF).city("Heidelberg").build(),
+                Set.of(PosField.ID, PosField.NAME));
+
+        String plan = explain(statementInspector.lastQuery());
+
+        assertThat(plan)
+                .containsAnyOf("pos_campus_type_idx", "pos_city_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void nearbyUsesSpatialIndex() {
+        posService.getNearby(49.41, 8.71, 1000, 10);
+
+        String plan = explain(statementInspector.lastQuery());
+
+        assertThat(plan)
+                .contains("pos_location_idx")
+                .doesNotContain("Seq Scan");
+    }
+
+    private String explain(String query) {
+        // both statements must run on the same connection for the session setting to apply
+        return jdbcTemplate.execute((Statement statement) -> {
+            statement.execute("SET enable_seqscan = off");
+            List<String> lines = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberParameters(query))) {
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+            } finally {
+                statement.execute("RESET enable_seqscan");
+            }
+            return String.join("\n", lines);
+        });
+    }
+
+    /**
+     * Replaces the JDBC placeholders with numbered PostgreSQL parameters, which generic plans leave unbound.
+     * The generated queries contain no string literals, so every question mark is a placeholder.
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
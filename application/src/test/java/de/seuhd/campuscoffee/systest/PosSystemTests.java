@@ -1,17 +1,33 @@
 package de.seuhd.campuscoffee.systest;
 
+import de.seuhd.campuscoffee.domain.exceptions.DuplicateOsmNodeException;
+import de.seuhd.campuscoffee.domain.model.CampusType;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosType;
 import de.seuhd.campuscoffee.domain.tests.TestFixtures;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
 import java.util.List;
 
 import de.seuhd.campuscoffee.TestUtils;
+import de.seuhd.campuscoffee.api.dtos.PosDto;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+
+import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.*;
 
 /**
  * System tests for the operations related to POS (Point of Sale).
  */
 public class PosSystemTests extends AbstractSysTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Test
     void createPos() {
@@ -20,10 +36,33 @@ public class PosSystemTests extends AbstractSysTest {
 
         assertThat(createdPos)
                 .usingRecursiveComparison()
-                .ignoringFields("id", "createdAt", "updatedAt") // prevent issues due to differing timestamps after conversions
+                .ignoringFields("id", "createdAt", "updatedAt", "version") // prevent issues due to differing timestamps after conversions
                 .isEqualTo(posToCreate);
     }
 
+    @Test
+    void createPosBatch() {
+        List<PosDto> posToCreate = TestFixtures.getPosFixturesForInsertion().stream()
+                .map(posDtoMapper::fromDomain)
+                .toList();
+        List<PosDto> batch = new ArrayList<>(posToCreate);
+        batch.add(posToCreate.getFirst()); // duplicate name
+
+        List<Integer> statusCodes = given()
+                .contentType(ContentType.JSON)
+                .body(batch)
+                .when()
+                .post("/api/pos/batch")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("statusCode", Integer.class);
+
+        assertThat(statusCodes).hasSize(batch.size());
+        assertThat(statusCodes.subList(0, posToCreate.size())).containsOnly(201);
+        assertThat(statusCodes.getLast()).isEqualTo(409);
+        assertThat(TestUtils.retrievePos()).hasSize(posToCreate.size());
+    }
+
     @Test
     void getAllCreatedPos() {
         List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
@@ -38,6 +77,151 @@ public class PosSystemTests extends AbstractSysTest {
                 .containsExactlyInAnyOrderElementsOf(createdPosList);
     }
 
+    @Test
+    void getAllCreatedPosPaginated() {
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+
+        Response firstPage = given()
+                .queryParam("limit", 3)
+                .when()
+                .get("/api/pos");
+        assertThat(firstPage.statusCode()).isEqualTo(200);
+        assertThat(firstPage.jsonPath().getList("$", PosDto.class)).hasSize(3);
+        assertThat(firstPage.header("Link")).contains("after=" + createdPosList.get(2).id(), "rel=\"next\"");
+
+        Response lastPage = given()
+                .queryParam("after", createdPosList.get(2).id())
+                .queryParam("limit", 3)
+                .when()
+                .get("/api/pos");
+        assertThat(lastPage.statusCode()).isEqualTo(200);
+        assertThat(lastPage.jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::id)
+                .containsExactly(createdPosList.getLast().id());
+        assertThat(lastPage.header("Link")).isNull();
+    }
+
+    @Test
+    void getAllCreatedPosFiltered() {
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+
+        assertThat(given()
+                .queryParam("campus", "INF")
+                .queryParam("type", "CAFETERIA")
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::id)
+                .containsExactlyElementsOf(createdPosList.stream()
+                        .filter(pos -> pos.campus() == CampusType.INF && pos.type() == PosType.CAFETERIA)
+                        .map(Pos::id)
+                        .toList());
+
+        assertThat(given()
+                .queryParam("postalCode", 69120)
+                .queryParam("city", "Heidelberg")
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::id)
+                .containsExactlyElementsOf(createdPosList.stream()
+                        .filter(pos -> pos.postalCode() == 69120 && pos.city().equals("Heidelberg"))
+                        .map(Pos::id)
+                        .toList());
+
+        given()
+                .queryParam("campus", "UNKNOWN")
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void searchPos() {
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+
+        // prefix of a word in the description, case-insensitive
+        assertThat(given()
+                .queryParam("q", "WAFF")
+                .when()
+                .get("/api/pos/search")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::name)
+                .containsExactly(createdPosList.getFirst().name());
+
+        // all terms must match
+        assertThat(given()
+                .queryParam("q", "café botan")
+                .when()
+                .get("/api/pos/search")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::name)
+                .containsExactly("Café Botanik");
+
+        given()
+                .queryParam("q", "botanik waffles")
+                .when()
+                .get("/api/pos/search")
+                .then()
+                .statusCode(200)
+                .body("$", empty());
+    }
+
+    @Test
+    void getNearbyPos() {
+        // Heidelberg University Library, Neue Uni (≈ 300 m), Heidelberg main station (≈ 2 km)
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+        Pos library = posService.upsert(createdPosList.get(0).toBuilder().latitude(49.40947).longitude(8.70617).build());
+        Pos neueUni = posService.upsert(createdPosList.get(1).toBuilder().latitude(49.41081).longitude(8.70624).build());
+        posService.upsert(createdPosList.get(2).toBuilder().latitude(49.40357).longitude(8.67572).build());
+
+        assertThat(given()
+                .queryParam("lat", 49.40947)
+                .queryParam("lon", 8.70617)
+                .queryParam("radius", 1000)
+                .when()
+                .get("/api/pos/nearby")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("$", PosDto.class))
+                .extracting(PosDto::id)
+                .containsExactly(library.id(), neueUni.id());
+
+        given()
+                .queryParam("lat", 100)
+                .queryParam("lon", 8.70617)
+                .when()
+                .get("/api/pos/nearby")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void exportAllCreatedPos() {
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+
+        String body = given()
+                .when()
+                .get("/api/pos/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+
+        assertThat(body.lines().toList())
+                .hasSize(createdPosList.size())
+                .allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+    }
+
     @Test
     void getPosById() {
         List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
@@ -53,6 +237,99 @@ public class PosSystemTests extends AbstractSysTest {
                 .isEqualTo(createdPos);
     }
 
+    @Test
+    void getPosWithSparseFieldset() {
+        Pos createdPos = TestFixtures.createPosFixtures(posService).getFirst();
+
+        given()
+                .queryParam("fields", "name,houseNumber")
+                .when()
+                .get("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(createdPos.id().intValue()))
+                .body("name", equalTo(createdPos.name()))
+                .body("houseNumber", equalTo(createdPos.houseNumber()))
+                .body("$", not(hasKey("description")))
+                .body("$", not(hasKey("createdAt")));
+
+        given()
+                .queryParam("fields", "city")
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(200)
+                .body("city", everyItem(notNullValue()))
+                .body("name", everyItem(nullValue()));
+
+        given()
+                .queryParam("fields", "unknown")
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void getPosByIdConditionally() {
+        Pos createdPos = TestFixtures.createPosFixtures(posService).getFirst();
+
+        String eTag = given()
+                .when()
+                .get("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        assertThat(eTag).isNotBlank();
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(304);
+
+        TestUtils.updatePos(List.of(posDtoMapper.fromDomain(createdPos.toBuilder().description("Changed").build())));
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(200);
+    }
+
+    @Test
+    void getAllPosConditionally() {
+        List<Pos> createdPos = TestFixtures.createPosFixtures(posService);
+
+        String eTag = given()
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(304);
+
+        // a write stamped before the latest update (e.g., one that committed late) must change the ETag as well
+        jdbcTemplate.update("UPDATE pos SET description = 'Late write', updated_at = updated_at - INTERVAL '1 hour' "
+                + "WHERE id = ?", createdPos.getFirst().id());
+
+        given()
+                .header("If-None-Match", eTag)
+                .when()
+                .get("/api/pos")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(eTag));
+    }
+
     @Test
     void updatePos() {
         List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
@@ -68,7 +345,7 @@ public class PosSystemTests extends AbstractSysTest {
 
         assertThat(updatedPos)
                 .usingRecursiveComparison()
-                .ignoringFields("createdAt", "updatedAt")
+                .ignoringFields("createdAt", "updatedAt", "version")
                 .isEqualTo(posToUpdate);
 
         // Verify changes persist
@@ -76,7 +353,92 @@ public class PosSystemTests extends AbstractSysTest {
 
         assertThat(retrievedPos)
                 .usingRecursiveComparison()
-                .ignoringFields("createdAt", "updatedAt")
+                .ignoringFields("createdAt", "updatedAt", "version")
                 .isEqualTo(posToUpdate);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePosWithIfMatch() {
+        PosDto createdPos = posDtoMapper.fromDomain(TestFixtures.createPosFixtures(posService).getFirst());
+
+        String eTag = given()
+                .when()
+                .get("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        PosDto updatedPos = given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", eTag)
+                .body(createdPos.toBuilder().description("First update").version(null).build())
+                .when()
+                .put("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(200)
+                .header("ETag", not(eTag))
+                .extract().as(PosDto.class);
+        assertThat(updatedPos.version()).isEqualTo(createdPos.version() + 1);
+
+        // a second writer based on the same version must not overwrite the first update
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", eTag)
+                .body(createdPos.toBuilder().description("Lost update").build())
+                .when()
+                .put("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(412);
+
+        // the same applies to the version in the body
+        given()
+                .contentType(ContentType.JSON)
+                .body(createdPos.toBuilder().description("Lost update").build())
+                .when()
+                .put("/api/pos/{id}", createdPos.id())
+                .then()
+                .statusCode(412);
+
+        assertThat(TestUtils.retrievePosById(createdPos.id()).description()).isEqualTo("First update");
+    }
+
+    @Test
+    void upsertRejectsSecondPosOfSameOsmNode() {
+        List<Pos> fixtures = TestFixtures.getPosFixturesForInsertion();
+        posService.upsert(fixtures.get(0).toBuilder().osmNodeId(5589879349L).osmVersion(1L).build());
+
+        // e.g., the same node imported concurrently by another instance
+        assertThatThrownBy(() -> posService.upsert(
+                fixtures.get(1).toBuilder().osmNodeId(5589879349L).osmVersion(1L).build()))
+                .isInstanceOf(DuplicateOsmNodeException.class);
+    }
+
+    @Test
+    void updatePosReportsMissingPosAndDuplicateName() {
+        List<Pos> createdPosList = TestFixtures.createPosFixtures(posService);
+        PosDto first = posDtoMapper.fromDomain(createdPosList.getFirst());
+
+        // the name of another POS is taken
+        given()
+                .contentType(ContentType.JSON)
+                .body(first.toBuilder().name(createdPosList.getLast().name()).build())
+                .when()
+                .put("/api/pos/{id}", first.id())
+                .then()
+                .statusCode(409);
+
+        // the POS does not exist
+        Long missingId = createdPosList.getLast().id() + 1000;
+        given()
+                .contentType(ContentType.JSON)
+                .body(first.toBuilder().id(missingId).build())
+                .when()
+                .put("/api/pos/{id}", missingId)
+                .then()
+                .statusCode(404);
+
+        // keeping the own name is not a conflict, and a rejected update leaves the POS unchanged
+        assertThat(TestUtils.updatePos(List.of(first.toBuilder().description("Changed").build())).getFirst().name())
+                .isEqualTo(first.name());
+    }
+}
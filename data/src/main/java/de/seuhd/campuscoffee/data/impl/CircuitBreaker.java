@@ -0,0 +1,132 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.CircuitState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker: the circuit opens after a number of consecutive failures, so that calls fail fast
+ * instead of waiting for an unhealthy service. Once the open duration has passed, a single trial call is let
+ * through (half-open); the circuit closes if it succeeds and opens again if it fails.
+ * <p>
+ * Callers check {@link #tryAcquire()} before every call and report its outcome with {@link #onSuccess()},
+ * {@link #onFailure()}, or {@link #onIgnored()}.
+ */
+@Slf4j
+final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold the number of consecutive failures that opens the circuit; must be positive
+     * @param openDuration how long calls fail fast before a trial call is let through
+     * @param nanoClock the clock measuring the elapsed time in nanoseconds
+     */
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("The failure threshold of a circuit breaker must be positive.");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Checks whether a call would currently be let through, without acquiring the permission
+     * (e.g., to fail fast before a call is delayed).
+     */
+    synchronized boolean isCallPermitted() {
+        return switch (currentState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    /**
+     * Acquires the permission for a call.
+     *
+     * @return true if the call may be made and its outcome must be reported; false if it must fail fast
+     */
+    synchronized boolean tryAcquire() {
+        switch (currentState()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reports a successful call, which closes the circuit unless it has been opened in the meantime.
+     */
+    synchronized void onSuccess() {
+        if (state == CircuitState.OPEN) {
+            // a call sent before the circuit opened; the open duration is kept
+            return;
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            log.info("Circuit breaker closed after a successful trial call");
+        }
+        state = CircuitState.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Reports a failed call, which opens the circuit if it was a trial call or if the threshold has been reached.
+     */
+    synchronized void onFailure() {
+        if (state == CircuitState.OPEN) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            log.warn("Circuit breaker opened after {} consecutive failures; calls fail fast for {} ms",
+                    consecutiveFailures, openNanos / 1_000_000);
+            state = CircuitState.OPEN;
+            openedAt = nanoClock.getAsLong();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Reports a call whose outcome says nothing about the health of the service (e.g., an invalid argument),
+     * which releases the permission of a trial call.
+     */
+    synchronized void onIgnored() {
+        if (state == CircuitState.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Returns the current state; an open circuit whose open duration has passed is reported as half-open.
+     */
+    synchronized CircuitState state() {
+        return currentState();
+    }
+
+    private CircuitState currentState() {
+        if (state == CircuitState.OPEN && nanoClock.getAsLong() - openedAt >= openNanos) {
+            return CircuitState.HALF_OPEN;
+        }
+        return state;
+    }
+}
@@ -0,0 +1,128 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import de.seuhd.campuscoffee.domain.model.ConnectionPoolStatistics;
+import de.seuhd.campuscoffee.domain.ports.ConnectionPoolService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool service collecting the hold and wait times of the connections of the Hikari pool.
+ * It is installed as the metrics tracker of the pool when the data source is created, so Hikari reports every
+ * connection that is returned to the pool together with the time it was held, every acquisition together with the
+ * time the thread waited, and every timeout. Hold times are also counted in a histogram with power-of-two buckets,
+ * so that the 99th percentile can be estimated without keeping the individual samples.
+ * <p>
+ * The tracker is not installed if another one has been configured (e.g., a Micrometer registry).
+ */
+@Slf4j
+@Service
+class ConnectionPoolMonitor implements ConnectionPoolService, MetricsTrackerFactory, IMetricsTracker, BeanPostProcessor {
+    // bucket i counts the hold times that need i bits (0 ms, 1 ms, 2-3 ms, 4-7 ms, ...)
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder holdMillis = new LongAdder();
+    private final AtomicLong maxHoldMillis = new AtomicLong();
+    private final AtomicLongArray holdTimeBuckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile @Nullable PoolStats poolStats;
+
+    @Override
+    public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            if (dataSource.getMetricsTrackerFactory() == null && dataSource.getMetricRegistry() == null) {
+                dataSource.setMetricsTrackerFactory(this);
+            } else {
+                log.info("Connection pool {} already has a metrics tracker; hold times are not collected", beanName);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        waitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        long millis = Math.max(0, elapsedBorrowedMillis);
+        checkouts.increment();
+        holdMillis.add(millis);
+        maxHoldMillis.accumulateAndGet(millis, Math::max);
+        holdTimeBuckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(millis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    @Override
+    public @NonNull ConnectionPoolStatistics getStatistics() {
+        PoolStats pool = poolStats;
+        long checkoutCount = checkouts.sum();
+        long acquisitionCount = acquisitions.sum();
+        return ConnectionPoolStatistics.builder()
+                .activeConnections(pool == null ? 0 : pool.getActiveConnections())
+                .idleConnections(pool == null ? 0 : pool.getIdleConnections())
+                .maxConnections(pool == null ? 0 : pool.getMaxConnections())
+                .pendingThreads(pool == null ? 0 : pool.getPendingThreads())
+                .checkouts(checkoutCount)
+                .holdTimeMeanMillis(checkoutCount == 0 ? 0 : (double) holdMillis.sum() / checkoutCount)
+                .holdTimeP99Millis(percentileUpperBound(0.99))
+                .holdTimeMaxMillis(maxHoldMillis.get())
+                .waitTimeMeanMillis(acquisitionCount == 0 ? 0 : toMillis(waitNanos.sum()) / acquisitionCount)
+                .waitTimeMaxMillis(toMillis(maxWaitNanos.get()))
+                .timeouts(timeouts.sum())
+                .build();
+    }
+
+    /**
+     * Returns the upper bound of the bucket that contains the given percentile of the hold times.
+     */
+    private long percentileUpperBound(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] = holdTimeBuckets.get(bucket);
+            total += counts[bucket];
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int bucket = 0; bucket < BUCKETS && total > 0; bucket++) {
+            cumulative += counts[bucket];
+            if (cumulative >= rank) {
+                return (1L << bucket) - 1;
+            }
+        }
+        return 0;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
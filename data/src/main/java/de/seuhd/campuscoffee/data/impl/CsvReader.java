@@ -0,0 +1,102 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for CSV documents (RFC 4180): fields are separated by commas and may be enclosed in double
+ * quotes, in which case they may contain commas, line breaks, and doubled double quotes.
+ * Only the current record is kept in memory. Instances are not thread-safe.
+ */
+final class CsvReader {
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private int peeked = NONE;
+    private long line = 1;
+    private long recordLine;
+
+    /**
+     * @param reader the document; should be buffered, since it is read character by character, and is not closed
+     */
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the fields of the record (a blank line is a record with a single empty field),
+     *         or null at the end of the document
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a quoted field is not terminated
+     */
+    @Nullable List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted field in the record starting in line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        peeked = next;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return the line in which the last record read starts, counted from 1
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (peeked != NONE) {
+            int c = peeked;
+            peeked = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,122 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only access to a file through memory-mapped windows.
+ * A single mapping is limited to 2 GiB, so the file is mapped in windows that are replaced while it is read
+ * sequentially. The pages of a window are loaded by the operating system on demand and are not copied to the
+ * Java heap, so reading large extracts neither needs a copy per read nor a heap of the size of the file.
+ * Instances are not thread-safe.
+ */
+final class MappedFile implements Closeable {
+    static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private MappedFile(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    static MappedFile open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    static MappedFile open(Path path, int windowSize) throws IOException {
+        return new MappedFile(FileChannel.open(path, StandardOpenOption.READ), windowSize);
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns a read-only view of a range of the file.
+     * The range is served from the current window if possible; otherwise, a new window starting at the range is mapped.
+     * Views remain valid after the window has been replaced.
+     *
+     * @param position the offset of the range in the file
+     * @param length the length of the range in bytes
+     * @return a big-endian buffer whose position is 0 and whose limit is the length of the range
+     * @throws EOFException if the range exceeds the end of the file
+     */
+    ByteBuffer slice(long position, int length) throws IOException {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new EOFException("Range of " + length + " bytes at " + position + " exceeds the file size of " + size);
+        }
+        map(position, length);
+        return window.slice((int) (position - windowStart), length);
+    }
+
+    /**
+     * Returns a stream that reads the file sequentially from the beginning.
+     * The stream is closed together with the file.
+     */
+    InputStream inputStream() {
+        return new MappedInputStream();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the windows are unmapped once they are no longer referenced
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Ensures that the window contains the given range, which must not exceed the end of the file.
+     */
+    private void map(long position, int length) throws IOException {
+        if (window != null && position >= windowStart && position + length <= windowStart + window.capacity()) {
+            return;
+        }
+        long mappedSize = Math.min(Math.max(windowSize, length), size - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, mappedSize);
+        windowStart = position;
+    }
+
+    private final class MappedInputStream extends InputStream {
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= size) {
+                return -1;
+            }
+            map(position, 1);
+            // copy at most up to the end of the window, so that reads never remap overlapping windows
+            int count = (int) Math.min(length, windowStart + window.capacity() - position);
+            window.get((int) (position - windowStart), bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+    }
+}
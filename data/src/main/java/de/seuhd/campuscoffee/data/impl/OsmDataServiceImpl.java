@@ -1,173 +1,369 @@
 package de.seuhd.campuscoffee.data.impl;
 
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
 import de.seuhd.campuscoffee.domain.model.OsmNode;
 import de.seuhd.campuscoffee.domain.ports.OsmDataService;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.XMLConstants;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * OSM import service communicating with the OpenStreetMap API.
+ * Requests are sent asynchronously over a shared HTTP/2 client, which multiplexes concurrent requests to the API
+ * over one connection; responses are handled on a small executor, so that no thread waits for a response.
+ * The synchronous methods wait for the asynchronous ones.
+ * <p>
+ * Fetched nodes are kept in the persistent {@link OsmNodeCache}: fresh entries are served without any request,
+ * and expired entries are revalidated with {@code If-None-Match} if the response had an ETag, or otherwise by
+ * downloading the node again and comparing its version.
+ * <p>
+ * Every request passes the {@link OsmRequestGate}, which applies the circuit breaker and the rate limiter per
+ * request; nodes served from the cache pass neither. Unexpected responses and network errors fail with
+ * {@link OsmApiException}; retries are made by the {@link ResilientOsmDataService} decorator.
  */
 @Service
+@Qualifier(OsmDataService.API)
 @Slf4j
 class OsmDataServiceImpl implements OsmDataService {
     static final String DEFAULT_OSM_BASE_URL = "https://www.openstreetmap.org/api/0.6";
+    // the OSM API rejects multi-fetch URIs with more than ~725 ten-digit node IDs
+    static final int MAX_NODES_PER_REQUEST = 500;
     private final HttpClient httpClient;
+    private final OsmNodeCache cache;
+    private final OsmRequestGate gate;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    // the executor of the HTTP client, if it has been created by this service
+    private final ExecutorService executor;
+
+    @Autowired
+    OsmDataServiceImpl(OsmNodeCache cache,
+                       OsmRequestGate gate,
+                       @Value("${campus-coffee.osm.client-threads:4}") int clientThreads,
+                       @Value("${campus-coffee.osm.base-url:" + DEFAULT_OSM_BASE_URL + "}") String baseUrl,
+                       @Value("${campus-coffee.osm.request-timeout:10s}") Duration requestTimeout) {
+        this(createExecutor(clientThreads), cache, gate, baseUrl, requestTimeout);
+    }
 
-    OsmDataServiceImpl() {
+    private OsmDataServiceImpl(ExecutorService executor, OsmNodeCache cache, OsmRequestGate gate, String baseUrl,
+                               Duration requestTimeout) {
         this(HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build());
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(requestTimeout)
+                .executor(executor)
+                .build(), cache, gate, baseUrl, requestTimeout, executor);
+    }
+
+    OsmDataServiceImpl(HttpClient httpClient, OsmNodeCache cache) {
+        this(httpClient, cache, OsmRequestGate.unlimited(), DEFAULT_OSM_BASE_URL, Duration.ofSeconds(10), null);
+    }
+
+    OsmDataServiceImpl(HttpClient httpClient, OsmNodeCache cache, OsmRequestGate gate, String baseUrl,
+                       Duration requestTimeout) {
+        this(httpClient, cache, gate, baseUrl, requestTimeout, null);
     }
 
-    OsmDataServiceImpl(HttpClient httpClient) {
+    private OsmDataServiceImpl(HttpClient httpClient, OsmNodeCache cache, OsmRequestGate gate, String baseUrl,
+                               Duration requestTimeout, ExecutorService executor) {
         this.httpClient = httpClient;
+        this.cache = cache;
+        this.gate = gate;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.executor = executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
     }
 
     @Override
     public @NonNull OsmNode fetchNode(@NonNull Long nodeId) throws OsmNodeNotFoundException {
+        return await(fetchNodeAsync(nodeId), "OSM node " + nodeId);
+    }
+
+    @Override
+    public @NonNull Map<Long, OsmNode> fetchNodes(@NonNull Collection<Long> nodeIds) {
+        return await(fetchNodesAsync(nodeIds), nodeIds.size() + " OSM nodes");
+    }
+
+    @Override
+    public @NonNull CompletableFuture<OsmNode> fetchNodeAsync(@NonNull Long nodeId) {
         if (nodeId <= 0) {
             throw new IllegalArgumentException("The OpenStreetMap node ID must be positive.");
         }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(DEFAULT_OSM_BASE_URL + "/node/" + nodeId))
-                .timeout(Duration.ofSeconds(10))
-                .header("Accept", "application/xml")
-                .GET()
-                .build();
+        OsmNodeCache.Entry cached = cache.get(nodeId);
+        if (cached != null && cache.isFresh(cached)) {
+            cache.recordHit(cached);
+            return CompletableFuture.completedFuture(cached.node());
+        }
 
-        HttpResponse<InputStream> response;
-        try {
-            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Interrupted while fetching OSM node " + nodeId, e);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to fetch OSM node " + nodeId, e);
+        String description = "OSM node " + nodeId;
+        String eTag = cached == null ? null : cached.eTag();
+        return send(URI.create(baseUrl + "/node/" + nodeId), description, eTag)
+                .thenApply(response -> handleNodeResponse(nodeId, cached, response));
+    }
+
+    @Override
+    public @NonNull CompletableFuture<Map<Long, OsmNode>> fetchNodesAsync(@NonNull Collection<Long> nodeIds) {
+        List<Long> distinctNodeIds = nodeIds.stream().distinct().toList();
+        if (distinctNodeIds.stream().anyMatch(nodeId -> nodeId <= 0)) {
+            throw new IllegalArgumentException("The OpenStreetMap node IDs must be positive.");
+        }
+
+        // serve fresh entries from the cache; expired entries are fetched again and compared by version
+        Map<Long, OsmNode> nodes = new ConcurrentHashMap<>();
+        Map<Long, OsmNodeCache.Entry> expiredEntries = new HashMap<>();
+        List<Long> uncachedNodeIds = new ArrayList<>();
+        for (Long nodeId : distinctNodeIds) {
+            OsmNodeCache.Entry cached = cache.get(nodeId);
+            if (cached != null && cache.isFresh(cached)) {
+                cache.recordHit(cached);
+                nodes.put(nodeId, cached.node());
+                continue;
+            }
+            if (cached != null) {
+                expiredEntries.put(nodeId, cached);
+            }
+            uncachedNodeIds.add(nodeId);
         }
 
+        // the chunks are fetched concurrently
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < uncachedNodeIds.size(); from += MAX_NODES_PER_REQUEST) {
+            int to = Math.min(from + MAX_NODES_PER_REQUEST, uncachedNodeIds.size());
+            chunks.add(fetchNodeChunk(uncachedNodeIds.subList(from, to), nodes, expiredEntries));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            log.debug("Fetched {} of {} requested OSM nodes ({} from the cache)",
+                    nodes.size(), distinctNodeIds.size(), distinctNodeIds.size() - uncachedNodeIds.size());
+            return nodes;
+        });
+    }
+
+    /**
+     * Handles the response to the request of a single node.
+     *
+     * @param nodeId the ID of the requested node
+     * @param cached the expired cache entry of the node; null if it was not cached
+     * @param response the response, which is a 304 response if the cached entry is still current
+     * @return the current node
+     * @throws OsmNodeNotFoundException if the node does not exist
+     * @throws OsmApiException if the response has an unexpected status
+     */
+    private OsmNode handleNodeResponse(Long nodeId, OsmNodeCache.Entry cached, HttpResponse<byte[]> response) {
         int status = response.statusCode();
+        if (status == 304 && cached != null) {
+            cache.recordRevalidation(cached, true, false);
+            cache.put(cached.node(), cached.eTag(), cached.responseBytes());
+            return cached.node();
+        }
         if (status == 404) {
+            if (cached != null) {
+                cache.remove(nodeId);
+            }
             throw new OsmNodeNotFoundException(nodeId);
         }
         if (status < 200 || status >= 300) {
-            throw new RuntimeException("Unexpected status " + status + " while fetching OSM node " + nodeId);
+            throw unexpectedStatus("OSM node " + nodeId, response);
         }
 
-        try (InputStream body = response.body()) {
-            return parseNode(nodeId, body);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read OSM node response for " + nodeId, e);
-        }
+        byte[] body = response.body();
+        List<OsmNode> nodes = new ArrayList<>(1);
+        parseNodes("OSM node " + nodeId, body, nodeId, nodes::add);
+        OsmNode node = nodes.stream()
+                .findFirst()
+                .orElseThrow(() -> new OsmNodeNotFoundException(nodeId));
+        store(node, cached, response.headers().firstValue("ETag").orElse(null), body.length);
+        return node;
     }
 
-    private OsmNode parseNode(Long nodeId, InputStream body) {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(false);
-        factory.setExpandEntityReferences(false);
-        try {
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-        } catch (ParserConfigurationException | IllegalArgumentException ignored) {
-            log.debug("Unable to apply secure XML parser features, continuing with defaults");
+    /**
+     * Fetches a chunk of nodes with a single multi-fetch request and adds them to the given map.
+     * The multi-fetch API answers with 404 if any of the requested nodes does not exist.
+     * In that case, the chunk is split in halves, which are fetched concurrently, until the missing nodes are isolated.
+     */
+    private CompletableFuture<Void> fetchNodeChunk(List<Long> nodeIds, Map<Long, OsmNode> nodes,
+                                                   Map<Long, OsmNodeCache.Entry> expiredEntries) {
+        if (nodeIds.size() == 1) {
+            // a single node is fetched with a conditional request if possible
+            Long nodeId = nodeIds.getFirst();
+            return fetchNodeAsync(nodeId)
+                    .thenAccept(node -> nodes.put(nodeId, node))
+                    .exceptionally(error -> {
+                        if (unwrap(error) instanceof OsmNodeNotFoundException) {
+                            log.debug("OSM node {} does not exist", nodeId);
+                            return null;
+                        }
+                        throw error instanceof CompletionException completionError
+                                ? completionError
+                                : new CompletionException(error);
+                    });
         }
 
-        Document document;
-        try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            document = builder.parse(body);
-        } catch (ParserConfigurationException | SAXException | IOException e) {
-            throw new RuntimeException("Failed to parse OSM node " + nodeId, e);
+        String joinedNodeIds = nodeIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        String description = nodeIds.size() + " OSM nodes";
+        return send(URI.create(baseUrl + "/nodes?nodes=" + joinedNodeIds), description, null)
+                .thenCompose(response -> {
+                    int status = response.statusCode();
+                    if (status == 404) {
+                        int middle = nodeIds.size() / 2;
+                        return CompletableFuture.allOf(
+                                fetchNodeChunk(nodeIds.subList(0, middle), nodes, expiredEntries),
+                                fetchNodeChunk(nodeIds.subList(middle, nodeIds.size()), nodes, expiredEntries));
+                    }
+                    if (status < 200 || status >= 300) {
+                        throw unexpectedStatus(description, response);
+                    }
+
+                    List<OsmNode> fetchedNodes = new ArrayList<>(nodeIds.size());
+                    parseNodes(description, response.body(), null, fetchedNodes::add);
+                    // the ETag of a multi-fetch response does not apply to single nodes, so only the versions are compared
+                    long responseBytesPerNode = response.body().length / Math.max(1, fetchedNodes.size());
+                    for (OsmNode node : fetchedNodes) {
+                        nodes.put(node.nodeId(), node);
+                        store(node, expiredEntries.get(node.nodeId()), null, responseBytesPerNode);
+                    }
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    /**
+     * Caches a downloaded node and records whether it was missing or has been revalidated.
+     *
+     * @param node the downloaded node
+     * @param expired the expired cache entry of the node; null if it was not cached
+     * @param eTag the ETag of the response of the single node; may be null
+     * @param responseBytes the size of the response body of the node
+     */
+    private void store(OsmNode node, OsmNodeCache.Entry expired, String eTag, long responseBytes) {
+        if (expired == null) {
+            cache.recordMiss();
+        } else {
+            boolean current = node.version() != null && node.version().equals(expired.node().version());
+            cache.recordRevalidation(expired, current, true);
         }
+        cache.put(node, eTag, (int) Math.min(Integer.MAX_VALUE, responseBytes));
+    }
 
-        NodeList nodeList = document.getElementsByTagName("node");
-        if (nodeList.getLength() == 0) {
-            throw new OsmNodeNotFoundException(nodeId);
+    /**
+     * Sends a request through the {@link OsmRequestGate} without blocking. The body is received completely before
+     * the returned future completes (responses are limited to {@link #MAX_NODES_PER_REQUEST} nodes), so that
+     * parsing never waits for the network.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(URI uri, String description, String eTag) {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(requestTimeout)
+                .header("Accept", "application/xml")
+                .GET();
+        if (eTag != null) {
+            requestBuilder.header("If-None-Match", eTag);
         }
+        HttpRequest request = requestBuilder.build();
 
-        Element nodeElement = (Element) nodeList.item(0);
-        Double latitude = parseDoubleAttribute(nodeElement, "lat");
-        Double longitude = parseDoubleAttribute(nodeElement, "lon");
-
-        Map<String, String> tags = extractTags(nodeElement);
-
-    return OsmNode.builder()
-                .nodeId(nodeId)
-                .name(firstNonBlank(tags, "name", "name:en", "name:de"))
-                .amenity(firstNonBlank(tags, "amenity"))
-                .description(firstNonBlank(tags, "description", "note"))
-                .latitude(latitude)
-                .longitude(longitude)
-                .street(firstNonBlank(tags, "addr:street"))
-                .houseNumber(firstNonBlank(tags, "addr:housenumber"))
-                .postalCode(firstNonBlank(tags, "addr:postcode"))
-                .city(firstNonBlank(tags, "addr:city"))
-                .openingHours(firstNonBlank(tags, "opening_hours"))
-                .phone(firstNonBlank(tags, "phone", "contact:phone"))
-                .website(firstNonBlank(tags, "website", "contact:website"))
-                .shop(firstNonBlank(tags, "shop"))
-                .build();
-    }
-
-    private static Map<String, String> extractTags(Element nodeElement) {
-        Map<String, String> tags = new HashMap<>();
-        NodeList tagNodes = nodeElement.getElementsByTagName("tag");
-        for (int i = 0; i < tagNodes.getLength(); i++) {
-            Element tagElement = (Element) tagNodes.item(i);
-            String key = tagElement.getAttribute("k");
-            String value = tagElement.getAttribute("v");
-            if (!key.isEmpty()) {
-                tags.put(key, value);
+        return gate.submit(
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .exceptionally(error -> {
+                            throw new CompletionException(new OsmApiException(description, unwrap(error)));
+                        }),
+                response -> OsmApiException.isTransientStatus(response.statusCode()));
+    }
+
+    /**
+     * Creates the exception for a response with an unexpected status, including the delay requested by the API
+     * (the OSM API sends {@code Retry-After} in seconds with 429 and 503 responses).
+     */
+    private static OsmApiException unexpectedStatus(String description, HttpResponse<?> response) {
+        Duration retryAfter = response.headers().firstValue("Retry-After")
+                .map(String::trim)
+                .filter(value -> value.matches("\\d{1,9}"))
+                .map(value -> Duration.ofSeconds(Long.parseLong(value)))
+                .orElse(null);
+        return new OsmApiException(description, response.statusCode(), retryAfter);
+    }
+
+    /**
+     * Waits for a future of the synchronous methods and rethrows its failure unwrapped.
+     */
+    private static <T> T await(CompletableFuture<T> future, String description) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RuntimeException("Interrupted while fetching " + description, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw new RuntimeException("Failed to fetch " + description, e.getCause());
         }
-        return tags;
     }
 
-    private static Double parseDoubleAttribute(Element element, String attributeName) {
-        String rawValue = element.getAttribute(attributeName);
-        if (rawValue == null || rawValue.isBlank()) {
-            return null;
-        }
-        try {
-            return Double.valueOf(rawValue);
-        } catch (NumberFormatException e) {
-            log.warn("Unable to parse '{}' attribute '{}' as double", attributeName, rawValue);
-            return null;
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
         }
+        return error;
     }
 
-    private static String firstNonBlank(Map<String, String> tags, String... keys) {
-        for (String key : keys) {
-            String value = tags.get(key);
-            if (value != null) {
-                String trimmed = value.trim();
-                if (!trimmed.isEmpty()) {
-                    return trimmed;
-                }
-            }
+    private static ExecutorService createExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "osm-client-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Parses all visible nodes of an OSM API response with the streaming {@link OsmXmlParser}.
+     *
+     * @param description description of the requested nodes for error messages
+     * @param body the response body
+     * @param defaultNodeId the node ID to use if a node element has no ID attribute; may be null
+     * @param consumer receives the parsed nodes in document order
+     */
+    private static void parseNodes(String description, byte[] body, Long defaultNodeId, Consumer<OsmNode> consumer) {
+        try {
+            OsmXmlParser.parseNodes(new ByteArrayInputStream(body), defaultNodeId, consumer);
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new RuntimeException("Failed to parse " + description, e);
         }
-        return null;
     }
 }
@@ -0,0 +1,83 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.ports.OsmExtractDataService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * OSM extract service reading {@code .osm} (XML) and {@code .osm.pbf} extracts from a local directory.
+ * Extracts are read through memory-mapped windows (see {@link MappedFile}) and parsed while they are read,
+ * so that regional extracts of several gigabytes can be imported without loading them into memory.
+ */
+@Service
+@Slf4j
+class OsmExtractDataServiceImpl implements OsmExtractDataService {
+    private final Path extractDirectory;
+
+    OsmExtractDataServiceImpl(@Value("${campus-coffee.import.extract-directory:osm-extracts}") String extractDirectory) {
+        this.extractDirectory = Path.of(extractDirectory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public long readNodes(@NonNull String extractName, @NonNull Consumer<OsmNode> consumer) {
+        Path extract = resolve(extractName);
+        String fileName = extract.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean pbf = fileName.endsWith(".pbf");
+        if (!pbf && !fileName.endsWith(".osm")) {
+            throw new IllegalArgumentException("OpenStreetMap extracts must be .osm or .osm.pbf files.");
+        }
+
+        long start = System.nanoTime();
+        try (MappedFile file = MappedFile.open(extract)) {
+            long nodes;
+            if (pbf) {
+                nodes = OsmPbfParser.parseNodes(file, consumer);
+            } else {
+                long[] count = {0};
+                OsmXmlParser.parseNodes(file.inputStream(), null, true, node -> {
+                    count[0]++;
+                    consumer.accept(node);
+                });
+                nodes = count[0];
+            }
+            log.info("Read {} tagged nodes from OSM extract {} ({} bytes) in {} ms",
+                    nodes, extractName, file.size(), (System.nanoTime() - start) / 1_000_000);
+            return nodes;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read OSM extract " + extractName, e);
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new RuntimeException("Failed to parse OSM extract " + extractName, e);
+        }
+    }
+
+    /**
+     * Resolves the name of an extract to a file directly inside the extract directory,
+     * rejecting names that point elsewhere (e.g., {@code ../application.yaml}).
+     */
+    private Path resolve(String extractName) {
+        Path extract;
+        try {
+            extract = extractDirectory.resolve(extractName).normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid name of OpenStreetMap extract: " + extractName, e);
+        }
+        if (!extractDirectory.equals(extract.getParent())) {
+            throw new IllegalArgumentException("Invalid name of OpenStreetMap extract: " + extractName);
+        }
+        if (!Files.isRegularFile(extract)) {
+            throw new IllegalArgumentException("OpenStreetMap extract " + extractName + " does not exist.");
+        }
+        return extract;
+    }
+}
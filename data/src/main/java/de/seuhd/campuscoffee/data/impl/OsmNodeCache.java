@@ -0,0 +1,303 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.model.OsmNodeCacheStatistics;
+import de.seuhd.campuscoffee.domain.ports.OsmNodeCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of the nodes fetched from the OpenStreetMap API.
+ * Every node is stored in its own small binary file (sharded into 256 directories by node ID) together with the
+ * time it was fetched and the ETag of the response, so that hits neither need a request nor XML parsing and survive
+ * restarts. Entries older than the TTL are revalidated by {@link OsmDataServiceImpl} instead of being dropped.
+ * <p>
+ * Files are replaced atomically, so concurrent readers never observe partially written entries. The cache is
+ * best effort: entries that cannot be read or written are treated as misses and never fail a fetch.
+ */
+@Slf4j
+@Component
+class OsmNodeCache implements OsmNodeCacheService {
+    // "OSMN" followed by the version of the file format, which is increased on incompatible changes
+    private static final int MAGIC = 0x4f534d4e;
+    private static final byte FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".node";
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    // file size by node ID, used for the size statistics; loaded from the directory on first use
+    private final ConcurrentHashMap<Long, Integer> fileSizes = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    @Autowired
+    OsmNodeCache(
+            @Value("${campus-coffee.cache.osm-node.directory:osm-cache}") String directory,
+            @Value("${campus-coffee.cache.osm-node.ttl:7d}") Duration ttl) {
+        this(Path.of(directory), ttl, System::currentTimeMillis);
+    }
+
+    OsmNodeCache(Path directory, Duration ttl, LongSupplier clock) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * A cached node.
+     *
+     * @param node the node as parsed from the response
+     * @param eTag the ETag of the response; null if the OSM API did not send one (e.g., for multi-fetch responses)
+     * @param responseBytes the size of the response body of the node, counted as saved on every hit
+     * @param fetchedAt the time of the last download or revalidation in epoch milliseconds
+     */
+    record Entry(@NonNull OsmNode node, @Nullable String eTag, int responseBytes, long fetchedAt) {}
+
+    /**
+     * Reads the cached entry of a node.
+     *
+     * @return the entry, which may have expired (see {@link #isFresh(Entry)}); null if the node is not cached
+     */
+    @Nullable Entry get(long nodeId) {
+        Path file = file(nodeId);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Unable to read cached OSM node {}", nodeId, e);
+            return null;
+        }
+        try {
+            return decode(bytes);
+        } catch (IOException e) {
+            log.warn("Discarding unreadable cache entry of OSM node {}: {}", nodeId, e.getMessage());
+            remove(nodeId);
+            return null;
+        }
+    }
+
+    boolean isFresh(@NonNull Entry entry) {
+        return clock.getAsLong() - entry.fetchedAt() < ttlMillis;
+    }
+
+    /**
+     * Stores a node that has just been downloaded or revalidated.
+     */
+    void put(@NonNull OsmNode node, @Nullable String eTag, int responseBytes) {
+        long nodeId = node.nodeId();
+        Path file = file(nodeId);
+        try {
+            byte[] bytes = encode(new Entry(node, eTag, responseBytes, clock.getAsLong()));
+            Files.createDirectories(file.getParent());
+            Path temporaryFile = Files.createTempFile(file.getParent(), nodeId + "-", ".tmp");
+            try {
+                Files.write(temporaryFile, bytes);
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            ensureLoaded();
+            fileSizes.put(nodeId, bytes.length);
+        } catch (IOException e) {
+            log.warn("Unable to cache OSM node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Removes a node, e.g., after it has been deleted in OpenStreetMap.
+     */
+    void remove(long nodeId) {
+        try {
+            Files.deleteIfExists(file(nodeId));
+            ensureLoaded();
+            fileSizes.remove(nodeId);
+        } catch (IOException e) {
+            log.warn("Unable to remove cached OSM node {}", nodeId, e);
+        }
+    }
+
+    void recordHit(@NonNull Entry entry) {
+        hits.increment();
+        bytesSaved.add(entry.responseBytes());
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records the revalidation of an expired entry.
+     *
+     * @param entry the expired entry
+     * @param current whether the entry was still current
+     * @param downloaded whether the node was downloaded again (as opposed to a 304 response)
+     */
+    void recordRevalidation(@NonNull Entry entry, boolean current, boolean downloaded) {
+        revalidations.increment();
+        if (current) {
+            notModified.increment();
+        }
+        if (!downloaded) {
+            bytesSaved.add(entry.responseBytes());
+        }
+    }
+
+    @Override
+    public @NonNull OsmNodeCacheStatistics getStatistics() {
+        ensureLoaded();
+        long hitCount = hits.sum();
+        long lookups = hitCount + revalidations.sum() + misses.sum();
+        long diskBytes = 0;
+        for (int fileSize : fileSizes.values()) {
+            diskBytes += fileSize;
+        }
+        return OsmNodeCacheStatistics.builder()
+                .hits(hitCount)
+                .revalidations(revalidations.sum())
+                .notModified(notModified.sum())
+                .misses(misses.sum())
+                .hitRate(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .bytesSaved(bytesSaved.sum())
+                .size(fileSizes.size())
+                .diskBytes(diskBytes)
+                .build();
+    }
+
+    private Path file(long nodeId) {
+        return directory.resolve(String.format("%02x", nodeId & 0xff)).resolve(nodeId + FILE_SUFFIX);
+    }
+
+    /**
+     * Loads the sizes of the cache files written by earlier runs.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> files = Files.walk(directory, 2)) {
+                    files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).forEach(file -> {
+                        String fileName = file.getFileName().toString();
+                        try {
+                            long nodeId = Long.parseLong(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+                            fileSizes.putIfAbsent(nodeId, (int) Files.size(file));
+                        } catch (NumberFormatException | IOException e) {
+                            log.debug("Ignoring file {} in the OSM node cache", file);
+                        }
+                    });
+                } catch (IOException e) {
+                    log.warn("Unable to scan the OSM node cache in {}", directory, e);
+                }
+            }
+            loaded = true;
+            log.info("Loaded OSM node cache with {} nodes from {}", fileSizes.size(), directory);
+        }
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        OsmNode node = entry.node();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(entry.fetchedAt());
+            out.writeInt(entry.responseBytes());
+            writeString(out, entry.eTag());
+            out.writeLong(node.nodeId());
+            out.writeBoolean(node.version() != null);
+            if (node.version() != null) {
+                out.writeLong(node.version());
+            }
+            writeDouble(out, node.latitude());
+            writeDouble(out, node.longitude());
+            for (String value : new String[]{node.name(), node.amenity(), node.description(), node.street(),
+                    node.houseNumber(), node.postalCode(), node.city(), node.openingHours(), node.phone(),
+                    node.website(), node.shop()}) {
+                writeString(out, value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+            throw new IOException("Unknown file format");
+        }
+        long fetchedAt = in.readLong();
+        int responseBytes = in.readInt();
+        String eTag = readString(in);
+        OsmNode node = OsmNode.builder()
+                .nodeId(in.readLong())
+                .version(in.readBoolean() ? in.readLong() : null)
+                .latitude(readDouble(in))
+                .longitude(readDouble(in))
+                .name(readString(in))
+                .amenity(readString(in))
+                .description(readString(in))
+                .street(readString(in))
+                .houseNumber(readString(in))
+                .postalCode(readString(in))
+                .city(readString(in))
+                .openingHours(readString(in))
+                .phone(readString(in))
+                .website(readString(in))
+                .shop(readString(in))
+                .build();
+        return new Entry(node, eTag, responseBytes, fetchedAt);
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static @Nullable String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, @Nullable Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static @Nullable Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
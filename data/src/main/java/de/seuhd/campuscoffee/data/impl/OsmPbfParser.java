@@ -0,0 +1,470 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streaming parser for OSM PBF extracts (see https://wiki.openstreetmap.org/wiki/PBF_Format).
+ * A PBF file is a sequence of blobs, each preceded by its length and a header. Every blob is decoded on its own
+ * (it holds at most a few thousand entities), so the memory use does not depend on the size of the file.
+ * The protocol buffer messages are decoded directly from the mapped file: only the fields needed for nodes are
+ * read, strings are only decoded if they are used by a mapped tag (see {@link OsmTags}), and ways and relations
+ * are skipped without being decoded.
+ * Only uncompressed and zlib-compressed blobs are supported, which is what the common tools write by default.
+ */
+final class OsmPbfParser {
+    // limits of the format specification
+    private static final int MAX_BLOB_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+    private static final Set<String> SUPPORTED_FEATURES = Set.of("OsmSchema-V0.6", "DenseNodes");
+
+    private OsmPbfParser() {}
+
+    /**
+     * Parses all nodes with mapped tags of a PBF file in file order.
+     *
+     * @param file the PBF file
+     * @param consumer receives every parsed node
+     * @return the number of nodes passed to the consumer
+     * @throws IOException if the file is malformed
+     * @throws IllegalArgumentException if the file requires features or compressions that are not supported
+     */
+    static long parseNodes(MappedFile file, Consumer<OsmNode> consumer) throws IOException {
+        BlobDecoder decoder = new BlobDecoder();
+        try {
+            long nodes = 0;
+            boolean headerRead = false;
+            long position = 0;
+            while (position < file.size()) {
+                int headerLength = file.slice(position, 4).getInt();
+                if (headerLength < 0 || headerLength > MAX_BLOB_HEADER_SIZE) {
+                    throw new IOException("Invalid blob header length " + headerLength + " at " + position);
+                }
+                position += 4;
+                ProtoReader header = new ProtoReader(file.slice(position, headerLength));
+                position += headerLength;
+
+                String type = null;
+                int dataSize = -1;
+                while (header.hasRemaining()) {
+                    int tag = header.readTag();
+                    switch (tag >>> 3) {
+                        case 1 -> type = header.readString();
+                        case 3 -> dataSize = (int) header.readVarint();
+                        default -> header.skip(tag);
+                    }
+                }
+                if (dataSize < 0 || dataSize > MAX_BLOB_SIZE) {
+                    throw new IOException("Invalid blob size " + dataSize + " at " + position);
+                }
+                ByteBuffer blob = file.slice(position, dataSize);
+                position += dataSize;
+
+                if ("OSMHeader".equals(type)) {
+                    checkHeader(decoder.decode(blob));
+                    headerRead = true;
+                } else if ("OSMData".equals(type)) {
+                    if (!headerRead) {
+                        throw new IOException("Data blob before the header blob");
+                    }
+                    nodes += parseBlock(decoder.decode(blob), consumer);
+                }
+                // blobs of other types must be skipped according to the specification
+            }
+            return nodes;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated message", e);
+        } finally {
+            decoder.close();
+        }
+    }
+
+    /**
+     * Checks that the file does not require features that this parser does not implement (e.g., history files).
+     */
+    private static void checkHeader(ByteBuffer headerBlock) throws IOException {
+        ProtoReader reader = new ProtoReader(headerBlock);
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            if (tag >>> 3 == 4) {
+                String feature = reader.readString();
+                if (!SUPPORTED_FEATURES.contains(feature)) {
+                    throw new IllegalArgumentException("The PBF feature '" + feature + "' is not supported.");
+                }
+            } else {
+                reader.skip(tag);
+            }
+        }
+    }
+
+    /**
+     * Parses the nodes of a primitive block.
+     *
+     * @return the number of nodes passed to the consumer
+     */
+    private static long parseBlock(ByteBuffer primitiveBlock, Consumer<OsmNode> consumer) throws IOException {
+        ProtoReader reader = new ProtoReader(primitiveBlock);
+        StringTable strings = null;
+        List<ByteBuffer> groups = new ArrayList<>();
+        Coordinates coordinates = new Coordinates();
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case 1 -> strings = StringTable.read(new ProtoReader(reader.readBytes()));
+                // the groups are parsed afterwards, because the granularity and offsets follow them in the message
+                case 2 -> groups.add(reader.readBytes());
+                case 17 -> coordinates.granularity = reader.readVarint();
+                case 19 -> coordinates.latitudeOffset = reader.readVarint();
+                case 20 -> coordinates.longitudeOffset = reader.readVarint();
+                default -> reader.skip(tag);
+            }
+        }
+        if (strings == null) {
+            strings = new StringTable(List.of());
+        }
+
+        long nodes = 0;
+        Map<String, String> tags = new HashMap<>();
+        for (ByteBuffer group : groups) {
+            ProtoReader groupReader = new ProtoReader(group);
+            while (groupReader.hasRemaining()) {
+                int tag = groupReader.readTag();
+                switch (tag >>> 3) {
+                    case 1 -> nodes += parseNode(new ProtoReader(groupReader.readBytes()), strings, coordinates, tags, consumer);
+                    case 2 -> nodes += parseDenseNodes(new ProtoReader(groupReader.readBytes()), strings, coordinates, tags, consumer);
+                    // ways, relations, and changesets
+                    default -> groupReader.skip(tag);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static int parseNode(ProtoReader reader, StringTable strings, Coordinates coordinates,
+                                 Map<String, String> tags, Consumer<OsmNode> consumer) throws IOException {
+        long id = 0;
+        Long version = null;
+        long latitude = 0;
+        long longitude = 0;
+        ProtoReader keys = null;
+        ProtoReader values = null;
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case 1 -> id = reader.readSignedVarint();
+                case 2 -> keys = new ProtoReader(reader.readBytes());
+                case 3 -> values = new ProtoReader(reader.readBytes());
+                case 4 -> version = readVersion(new ProtoReader(reader.readBytes()));
+                case 8 -> latitude = reader.readSignedVarint();
+                case 9 -> longitude = reader.readSignedVarint();
+                default -> reader.skip(tag);
+            }
+        }
+
+        tags.clear();
+        if (keys != null && values != null) {
+            while (keys.hasRemaining()) {
+                putIfMapped(tags, strings, (int) keys.readVarint(), (int) values.readVarint());
+            }
+        }
+        if (tags.isEmpty()) {
+            return 0;
+        }
+        consumer.accept(OsmTags.toOsmNode(id, version, coordinates.latitude(latitude), coordinates.longitude(longitude), tags));
+        return 1;
+    }
+
+    /**
+     * Reads the version from the metadata of a plain node, which is optional in extracts.
+     */
+    private static Long readVersion(ProtoReader info) throws IOException {
+        Long version = null;
+        while (info.hasRemaining()) {
+            int tag = info.readTag();
+            if (tag >>> 3 == 1) {
+                version = info.readVarint();
+            } else {
+                info.skip(tag);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Parses densely encoded nodes: IDs and coordinates are delta-encoded in parallel arrays, and the tags of
+     * all nodes are stored in one array of alternating key and value indices, with a 0 after the tags of every node.
+     */
+    private static int parseDenseNodes(ProtoReader reader, StringTable strings, Coordinates coordinates,
+                                       Map<String, String> tags, Consumer<OsmNode> consumer) throws IOException {
+        ProtoReader ids = null;
+        ProtoReader versions = null;
+        ProtoReader latitudes = null;
+        ProtoReader longitudes = null;
+        ProtoReader keysAndValues = null;
+        while (reader.hasRemaining()) {
+            int tag = reader.readTag();
+            switch (tag >>> 3) {
+                case 1 -> ids = new ProtoReader(reader.readBytes());
+                case 5 -> versions = readDenseVersions(new ProtoReader(reader.readBytes()));
+                case 8 -> latitudes = new ProtoReader(reader.readBytes());
+                case 9 -> longitudes = new ProtoReader(reader.readBytes());
+                case 10 -> keysAndValues = new ProtoReader(reader.readBytes());
+                default -> reader.skip(tag);
+            }
+        }
+        if (ids == null || latitudes == null || longitudes == null) {
+            return 0;
+        }
+
+        int nodes = 0;
+        long id = 0;
+        long latitude = 0;
+        long longitude = 0;
+        while (ids.hasRemaining()) {
+            id += ids.readSignedVarint();
+            latitude += latitudes.readSignedVarint();
+            longitude += longitudes.readSignedVarint();
+            // the versions are the only metadata that are not delta-encoded
+            Long version = versions != null && versions.hasRemaining() ? versions.readVarint() : null;
+
+            tags.clear();
+            while (keysAndValues != null && keysAndValues.hasRemaining()) {
+                int key = (int) keysAndValues.readVarint();
+                if (key == 0) {
+                    break;
+                }
+                putIfMapped(tags, strings, key, (int) keysAndValues.readVarint());
+            }
+            if (!tags.isEmpty()) {
+                consumer.accept(OsmTags.toOsmNode(id, version, coordinates.latitude(latitude), coordinates.longitude(longitude), tags));
+                nodes++;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Reads the packed versions from the metadata of dense nodes, which are optional in extracts.
+     */
+    private static ProtoReader readDenseVersions(ProtoReader denseInfo) throws IOException {
+        ProtoReader versions = null;
+        while (denseInfo.hasRemaining()) {
+            int tag = denseInfo.readTag();
+            if (tag >>> 3 == 1) {
+                versions = new ProtoReader(denseInfo.readBytes());
+            } else {
+                denseInfo.skip(tag);
+            }
+        }
+        return versions;
+    }
+
+    private static void putIfMapped(Map<String, String> tags, StringTable strings, int key, int value) throws IOException {
+        String keyString = strings.get(key);
+        if (OsmTags.isMapped(keyString)) {
+            tags.put(keyString, strings.get(value));
+        }
+    }
+
+    /**
+     * Granularity and offsets of the coordinates of a block, in nanodegrees.
+     */
+    private static final class Coordinates {
+        private long granularity = 100;
+        private long latitudeOffset;
+        private long longitudeOffset;
+
+        private double latitude(long value) {
+            // dividing (instead of multiplying with 1e-9) yields the double closest to the decimal value
+            return (latitudeOffset + granularity * value) / 1_000_000_000d;
+        }
+
+        private double longitude(long value) {
+            return (longitudeOffset + granularity * value) / 1_000_000_000d;
+        }
+    }
+
+    /**
+     * String table of a block; strings are decoded on first use, since most of them belong to unmapped tags.
+     */
+    private static final class StringTable {
+        private final List<ByteBuffer> encoded;
+        private final String[] decoded;
+
+        private StringTable(List<ByteBuffer> encoded) {
+            this.encoded = encoded;
+            this.decoded = new String[encoded.size()];
+        }
+
+        private static StringTable read(ProtoReader reader) throws IOException {
+            List<ByteBuffer> encoded = new ArrayList<>();
+            while (reader.hasRemaining()) {
+                int tag = reader.readTag();
+                if (tag >>> 3 == 1) {
+                    encoded.add(reader.readBytes());
+                } else {
+                    reader.skip(tag);
+                }
+            }
+            return new StringTable(encoded);
+        }
+
+        private String get(int index) throws IOException {
+            if (index < 0 || index >= decoded.length) {
+                throw new IOException("Invalid string table index " + index);
+            }
+            String string = decoded[index];
+            if (string == null) {
+                string = StandardCharsets.UTF_8.decode(encoded.get(index).duplicate()).toString();
+                decoded[index] = string;
+            }
+            return string;
+        }
+    }
+
+    /**
+     * Decodes blobs into a buffer that is reused for all blobs of a file.
+     */
+    private static final class BlobDecoder {
+        private final Inflater inflater = new Inflater();
+        private byte[] buffer = new byte[0];
+
+        /**
+         * Decodes a blob; the returned buffer is only valid until the next blob is decoded.
+         */
+        private ByteBuffer decode(ByteBuffer blob) throws IOException {
+            ProtoReader reader = new ProtoReader(blob);
+            ByteBuffer raw = null;
+            ByteBuffer zlibData = null;
+            int rawSize = -1;
+            while (reader.hasRemaining()) {
+                int tag = reader.readTag();
+                switch (tag >>> 3) {
+                    case 1 -> raw = reader.readBytes();
+                    case 2 -> rawSize = (int) reader.readVarint();
+                    case 3 -> zlibData = reader.readBytes();
+                    case 4, 5, 6, 7 -> throw new IllegalArgumentException(
+                            "Only uncompressed and zlib-compressed PBF blobs are supported.");
+                    default -> reader.skip(tag);
+                }
+            }
+            if (raw != null) {
+                return raw;
+            }
+            if (zlibData == null || rawSize < 0 || rawSize > MAX_BLOB_SIZE) {
+                throw new IOException("Blob without data or with an invalid size");
+            }
+
+            if (buffer.length < rawSize) {
+                buffer = new byte[rawSize];
+            }
+            inflater.reset();
+            inflater.setInput(zlibData);
+            try {
+                int inflated = 0;
+                while (inflated < rawSize && !inflater.finished()) {
+                    int count = inflater.inflate(buffer, inflated, rawSize - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+                if (inflated != rawSize) {
+                    throw new IOException("Blob inflated to " + inflated + " instead of " + rawSize + " bytes");
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Malformed zlib data", e);
+            }
+            return ByteBuffer.wrap(buffer, 0, rawSize).slice();
+        }
+
+        private void close() {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Minimal reader of the protocol buffer wire format.
+     */
+    private static final class ProtoReader {
+        private final ByteBuffer buffer;
+
+        private ProtoReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private boolean hasRemaining() {
+            return buffer.hasRemaining();
+        }
+
+        /**
+         * Reads the key of the next field; the field number is {@code tag >>> 3} and the wire type {@code tag & 7}.
+         */
+        private int readTag() throws IOException {
+            return (int) readVarint();
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte current = buffer.get();
+                value |= (long) (current & 0x7f) << shift;
+                if (current >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        /**
+         * Reads a zigzag-encoded varint ({@code sint64}).
+         */
+        private long readSignedVarint() throws IOException {
+            long value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private ByteBuffer readBytes() throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Invalid field length " + length);
+            }
+            ByteBuffer bytes = buffer.slice(buffer.position(), (int) length);
+            advance((int) length);
+            return bytes;
+        }
+
+        private void advance(int length) throws IOException {
+            if (length > buffer.remaining()) {
+                throw new IOException("Truncated field");
+            }
+            buffer.position(buffer.position() + length);
+        }
+
+        private String readString() throws IOException {
+            return StandardCharsets.UTF_8.decode(readBytes()).toString();
+        }
+
+        private void skip(int tag) throws IOException {
+            switch (tag & 7) {
+                case 0 -> readVarint();
+                case 1 -> advance(8);
+                case 2 -> readBytes();
+                case 5 -> advance(4);
+                default -> throw new IOException("Unsupported wire type " + (tag & 7));
+            }
+        }
+    }
+}
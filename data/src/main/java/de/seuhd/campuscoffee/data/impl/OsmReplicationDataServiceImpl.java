@@ -0,0 +1,226 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
+import de.seuhd.campuscoffee.domain.ports.OsmReplicationDataService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OSM replication service reading osmChange diffs from a local directory, e.g., a directory that is kept up to date
+ * by a replication tool (osmosis, pyosmium) or by mirroring the diffs published by the OpenStreetMap planet server
+ * or a regional extract provider.
+ * Diffs are named by their sequence number, either in the replication layout ({@code 000/001/234.osc.gz} for
+ * sequence number 1234) or flat ({@code 1234.osc.gz}), and may be compressed with gzip.
+ * Diffs are read through memory-mapped windows (see {@link MappedFile}) and parsed while they are read.
+ * <p>
+ * The checkpoint is persisted in a state file in the format of the replication state files
+ * ({@code sequenceNumber=1234}), which is replaced atomically, so that a crash never leaves a partial checkpoint.
+ */
+@Service
+@Slf4j
+class OsmReplicationDataServiceImpl implements OsmReplicationDataService {
+    private static final String SEQUENCE_NUMBER_KEY = "sequenceNumber";
+    private static final int GZIP_BUFFER_SIZE = 64 << 10;
+
+    private final Path diffDirectory;
+    private final Path stateFile;
+
+    OsmReplicationDataServiceImpl(
+            @Value("${campus-coffee.replication.directory:osm-replication}") String diffDirectory,
+            @Value("${campus-coffee.replication.state-file:osm-replication.state}") String stateFile) {
+        this.diffDirectory = Path.of(diffDirectory).toAbsolutePath().normalize();
+        this.stateFile = Path.of(stateFile).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public @NonNull List<Long> getSequenceNumbers(@Nullable Long after) {
+        if (!Files.isDirectory(diffDirectory)) {
+            log.debug("OSM replication directory {} does not exist", diffDirectory);
+            return List.of();
+        }
+        long threshold = after == null ? -1 : after;
+        TreeSet<Long> sequenceNumbers = new TreeSet<>();
+        try {
+            Files.walkFileTree(diffDirectory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                    // directories of the replication layout that only contain applied diffs are skipped
+                    Path relative = diffDirectory.relativize(directory);
+                    int depth = directory.equals(diffDirectory) ? 0 : relative.getNameCount();
+                    if (depth == 0) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (depth > 2 || !isSequenceSegments(relative)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    long prefix = Long.parseLong(String.join("", segments(relative)));
+                    long lastInDirectory = depth == 1 ? prefix * 1_000_000 + 999_999 : prefix * 1_000 + 999;
+                    return lastInDirectory <= threshold ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    Long sequenceNumber = parseSequenceNumber(diffDirectory.relativize(file));
+                    if (sequenceNumber != null && sequenceNumber > threshold) {
+                        sequenceNumbers.add(sequenceNumber);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list OSM replication diffs in " + diffDirectory, e);
+        }
+        return new ArrayList<>(sequenceNumbers);
+    }
+
+    @Override
+    public long readChanges(long sequenceNumber, @NonNull Consumer<OsmNodeChange> consumer) {
+        Path diff = resolve(sequenceNumber);
+        long start = System.nanoTime();
+        long[] count = {0};
+        try (MappedFile file = MappedFile.open(diff)) {
+            InputStream body = file.inputStream();
+            if (diff.getFileName().toString().endsWith(".gz")) {
+                body = new GZIPInputStream(body, GZIP_BUFFER_SIZE);
+            }
+            OsmXmlParser.parseChanges(body, change -> {
+                count[0]++;
+                consumer.accept(change);
+            });
+            log.info("Read {} node changes from OSM replication diff {} ({} bytes) in {} ms",
+                    count[0], sequenceNumber, file.size(), (System.nanoTime() - start) / 1_000_000);
+            return count[0];
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read OSM replication diff " + sequenceNumber, e);
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new RuntimeException("Failed to parse OSM replication diff " + sequenceNumber, e);
+        }
+    }
+
+    @Override
+    public @Nullable Long getCheckpoint() {
+        Properties state = new Properties();
+        try (Reader reader = Files.newBufferedReader(stateFile, StandardCharsets.UTF_8)) {
+            state.load(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read OSM replication state " + stateFile, e);
+        }
+        String sequenceNumber = state.getProperty(SEQUENCE_NUMBER_KEY);
+        if (sequenceNumber == null || sequenceNumber.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(sequenceNumber.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid sequence number in OSM replication state " + stateFile, e);
+        }
+    }
+
+    @Override
+    public void saveCheckpoint(long sequenceNumber) {
+        try {
+            Path directory = stateFile.getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, stateFile.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(temporaryFile, SEQUENCE_NUMBER_KEY + "=" + sequenceNumber + "\n", StandardCharsets.UTF_8);
+                Files.move(temporaryFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write OSM replication state " + stateFile, e);
+        }
+        log.debug("Saved OSM replication checkpoint {}", sequenceNumber);
+    }
+
+    /**
+     * Resolves a sequence number to its diff, preferring the replication layout over flat names.
+     */
+    private Path resolve(long sequenceNumber) {
+        if (sequenceNumber < 0) {
+            throw new IllegalArgumentException("Invalid sequence number of OSM replication diff: " + sequenceNumber);
+        }
+        String nested = String.format("%03d/%03d/%03d",
+                sequenceNumber / 1_000_000, sequenceNumber / 1_000 % 1_000, sequenceNumber % 1_000);
+        for (String name : List.of(nested, Long.toString(sequenceNumber))) {
+            for (String suffix : List.of(".osc.gz", ".osc")) {
+                Path diff = diffDirectory.resolve(name + suffix);
+                if (Files.isRegularFile(diff)) {
+                    return diff;
+                }
+            }
+        }
+        throw new IllegalArgumentException("OSM replication diff " + sequenceNumber + " does not exist.");
+    }
+
+    /**
+     * Parses the sequence number of a diff from its path relative to the diff directory.
+     *
+     * @return the sequence number, or null if the file is not a diff named by a sequence number
+     */
+    private static @Nullable Long parseSequenceNumber(Path relative) {
+        String fileName = relative.getFileName().toString();
+        String stem;
+        if (fileName.endsWith(".osc.gz")) {
+            stem = fileName.substring(0, fileName.length() - ".osc.gz".length());
+        } else if (fileName.endsWith(".osc")) {
+            stem = fileName.substring(0, fileName.length() - ".osc".length());
+        } else {
+            return null;
+        }
+        Path withoutSuffix = relative.getParent() == null ? Path.of(stem) : relative.getParent().resolve(stem);
+        if (withoutSuffix.getNameCount() == 3 && isSequenceSegments(withoutSuffix)) {
+            return Long.valueOf(String.join("", segments(withoutSuffix)));
+        }
+        // flat names must not be padded, so that every sequence number has a single flat name
+        if (withoutSuffix.getNameCount() == 1 && !stem.isEmpty() && stem.length() <= 18 && stem.chars().allMatch(Character::isDigit)) {
+            long sequenceNumber = Long.parseLong(stem);
+            return Long.toString(sequenceNumber).equals(stem) ? sequenceNumber : null;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether all segments of a path consist of three digits, like the directories and files of the
+     * replication layout.
+     */
+    private static boolean isSequenceSegments(Path path) {
+        for (String segment : segments(path)) {
+            if (segment.length() != 3 || !segment.chars().allMatch(Character::isDigit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> segments(Path path) {
+        List<String> segments = new ArrayList<>(path.getNameCount());
+        path.forEach(segment -> segments.add(segment.toString()));
+        return segments;
+    }
+}
@@ -0,0 +1,176 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiUnavailableException;
+import de.seuhd.campuscoffee.domain.model.CircuitState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Gate that every HTTP request of the {@link OsmDataServiceImpl} adapter passes before it is sent:
+ * <ul>
+ *     <li>a {@link CircuitBreaker} fails fast with {@link OsmApiUnavailableException} after consecutive transient
+ *     failures and lets a single trial request through once the open duration has passed;</li>
+ *     <li>a {@link TokenBucket} limits the rate of requests, as required by the usage policy of the OSM API;
+ *     requests are delayed until a token is available, or rejected if the delay would exceed the maximum wait.</li>
+ * </ul>
+ * The policies apply per request, so a multi-fetch call takes one token per chunk and per request that isolates
+ * missing nodes, while nodes served from the {@link OsmNodeCache} pass neither the circuit breaker nor the rate
+ * limiter. Delays are scheduled without occupying a thread. Retries are made by the
+ * {@link ResilientOsmDataService} decorator, whose attempts pass this gate again.
+ */
+@Component
+class OsmRequestGate {
+    private final long maxWaitNanos;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucket tokenBucket;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder circuitRejections = new LongAdder();
+    private final LongAdder rateLimitDelays = new LongAdder();
+    private final LongAdder rateLimitRejections = new LongAdder();
+
+    @Autowired
+    OsmRequestGate(
+            @Value("${campus-coffee.osm.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${campus-coffee.osm.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${campus-coffee.osm.rate-limit.requests-per-second:2}") double requestsPerSecond,
+            @Value("${campus-coffee.osm.rate-limit.burst:5}") int burst,
+            @Value("${campus-coffee.osm.rate-limit.max-wait:30s}") Duration maxWait) {
+        this(failureThreshold, openDuration, requestsPerSecond, burst, maxWait, System::nanoTime);
+    }
+
+    OsmRequestGate(int failureThreshold, Duration openDuration, double requestsPerSecond, int burst,
+                   Duration maxWait, LongSupplier nanoClock) {
+        this.maxWaitNanos = maxWait.toNanos();
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, nanoClock);
+        this.tokenBucket = new TokenBucket(requestsPerSecond, burst, nanoClock);
+    }
+
+    /**
+     * Creates a gate that never opens its circuit and never delays a request (e.g., for testing the adapter alone).
+     */
+    static OsmRequestGate unlimited() {
+        return new OsmRequestGate(Integer.MAX_VALUE, Duration.ZERO, Double.MAX_VALUE, Integer.MAX_VALUE,
+                Duration.ZERO, System::nanoTime);
+    }
+
+    /**
+     * Sends a request as soon as the circuit breaker and the rate limiter permit it.
+     *
+     * @param request sends the request
+     * @param failed checks whether a response indicates a transient failure of the API (e.g., a 503 response)
+     * @return a future of the response, failed with {@link OsmApiUnavailableException} if the request has not been
+     *         sent; cancelling it cancels the request
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request, Predicate<T> failed) {
+        // fail fast instead of waiting for a token if the circuit is open
+        if (!circuitBreaker.isCallPermitted()) {
+            circuitRejections.increment();
+            return CompletableFuture.failedFuture(new OsmApiUnavailableException("circuit breaker open"));
+        }
+        long waitNanos = tokenBucket.reserve(maxWaitNanos);
+        if (waitNanos < 0) {
+            rateLimitRejections.increment();
+            return CompletableFuture.failedFuture(new OsmApiUnavailableException("client-side rate limit exceeded"));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (waitNanos == 0) {
+            send(request, failed, result);
+        } else {
+            rateLimitDelays.increment();
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> send(request, failed, result));
+        }
+        return result;
+    }
+
+    CircuitState circuitState() {
+        return circuitBreaker.state();
+    }
+
+    double availableTokens() {
+        return tokenBucket.availableTokens();
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long circuitRejections() {
+        return circuitRejections.sum();
+    }
+
+    long rateLimitDelays() {
+        return rateLimitDelays.sum();
+    }
+
+    long rateLimitRejections() {
+        return rateLimitRejections.sum();
+    }
+
+    /**
+     * Sends a request and reports its outcome to the circuit breaker.
+     */
+    private <T> void send(Supplier<CompletableFuture<T>> request, Predicate<T> failed, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        // the circuit may have opened while the request was delayed
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejections.increment();
+            result.completeExceptionally(new OsmApiUnavailableException("circuit breaker open"));
+            return;
+        }
+        requests.increment();
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> requestFuture = future;
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                requestFuture.cancel(true);
+            }
+        });
+
+        requestFuture.whenComplete((response, error) -> {
+            if (error == null) {
+                if (failed.test(response)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    circuitBreaker.onSuccess();
+                }
+                result.complete(response);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (cause instanceof OsmApiException apiException && apiException.isTransient()) {
+                circuitBreaker.onFailure();
+            } else {
+                // the request has been cancelled or failed before it was sent
+                circuitBreaker.onIgnored();
+            }
+            result.completeExceptionally(cause);
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
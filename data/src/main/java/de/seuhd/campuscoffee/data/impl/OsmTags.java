@@ -0,0 +1,70 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapping of OSM tags to the fields of {@link OsmNode}, shared by the parsers of the different OSM formats.
+ */
+final class OsmTags {
+    // the tags read by toOsmNode; parsers skip all other tags without copying their values
+    private static final Set<String> KEYS = Set.of(
+            "name", "name:en", "name:de", "amenity", "description", "note", "addr:street", "addr:housenumber",
+            "addr:postcode", "addr:city", "opening_hours", "phone", "contact:phone", "website", "contact:website", "shop"
+    );
+
+    private OsmTags() {}
+
+    /**
+     * Checks whether a tag is mapped to a field of {@link OsmNode}.
+     */
+    static boolean isMapped(String key) {
+        return KEYS.contains(key);
+    }
+
+    /**
+     * Creates a node from its location and its mapped tags.
+     *
+     * @param nodeId the OSM node ID
+     * @param version the version of the node; may be null
+     * @param latitude the latitude in degrees; may be null
+     * @param longitude the longitude in degrees; may be null
+     * @param tags the mapped tags of the node (see {@link #isMapped(String)})
+     * @return the node
+     */
+    static OsmNode toOsmNode(Long nodeId, @Nullable Long version, @Nullable Double latitude, @Nullable Double longitude, Map<String, String> tags) {
+        return OsmNode.builder()
+                .nodeId(nodeId)
+                .version(version)
+                .name(firstNonBlank(tags, "name", "name:en", "name:de"))
+                .amenity(firstNonBlank(tags, "amenity"))
+                .description(firstNonBlank(tags, "description", "note"))
+                .latitude(latitude)
+                .longitude(longitude)
+                .street(firstNonBlank(tags, "addr:street"))
+                .houseNumber(firstNonBlank(tags, "addr:housenumber"))
+                .postalCode(firstNonBlank(tags, "addr:postcode"))
+                .city(firstNonBlank(tags, "addr:city"))
+                .openingHours(firstNonBlank(tags, "opening_hours"))
+                .phone(firstNonBlank(tags, "phone", "contact:phone"))
+                .website(firstNonBlank(tags, "website", "contact:website"))
+                .shop(firstNonBlank(tags, "shop"))
+                .build();
+    }
+
+    private static String firstNonBlank(Map<String, String> tags, String... keys) {
+        for (String key : keys) {
+            String value = tags.get(key);
+            if (value != null) {
+                String trimmed = value.trim();
+                if (!trimmed.isEmpty()) {
+                    return trimmed;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,164 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmChangeAction;
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for OSM XML documents (API responses, extracts, and osmChange replication diffs).
+ * The document is read with StAX and never materialized: only the attributes of {@code node} elements and the
+ * values of the tags that are mapped to {@link OsmNode} fields (see {@link OsmTags}) are kept, and every node is
+ * passed on as soon as its end tag has been read, so the memory use does not depend on the size of the document.
+ * Ways and relations are skipped.
+ */
+@Slf4j
+final class OsmXmlParser {
+    // creating a factory looks up the implementation on the class path, so it is created once;
+    // a configured factory is thread-safe, while the readers it creates are not shared
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private OsmXmlParser() {}
+
+    /**
+     * Parses all visible nodes of an OSM XML document in document order.
+     *
+     * @param body the XML document; not closed by this method
+     * @param defaultNodeId the node ID to use if a node element has no ID attribute; may be null
+     * @param consumer receives every parsed node
+     * @throws XMLStreamException if the document is malformed or contains a DTD with entity references
+     */
+    static void parseNodes(InputStream body, @Nullable Long defaultNodeId, Consumer<OsmNode> consumer) throws XMLStreamException {
+        parseNodes(body, defaultNodeId, false, consumer);
+    }
+
+    /**
+     * Parses the visible nodes of an OSM XML document in document order.
+     *
+     * @param body the XML document; not closed by this method
+     * @param defaultNodeId the node ID to use if a node element has no ID attribute; may be null
+     * @param taggedOnly whether to skip nodes without mapped tags (in extracts, most nodes are only part of ways)
+     * @param consumer receives every parsed node
+     * @throws XMLStreamException if the document is malformed or contains a DTD with entity references
+     */
+    static void parseNodes(InputStream body, @Nullable Long defaultNodeId, boolean taggedOnly,
+                           Consumer<OsmNode> consumer) throws XMLStreamException {
+        parse(body, defaultNodeId, taggedOnly, false, (action, node) -> consumer.accept(node));
+    }
+
+    /**
+     * Parses the node changes of an osmChange document (a replication diff) in document order.
+     * Unlike {@link #parseNodes}, nodes without mapped tags and deleted nodes are passed on, because they may
+     * concern nodes that have been imported before; nodes outside a {@code create}, {@code modify}, or
+     * {@code delete} section are skipped.
+     *
+     * @param body the osmChange document; not closed by this method
+     * @param consumer receives every node change
+     * @throws XMLStreamException if the document is malformed or contains a DTD with entity references
+     */
+    static void parseChanges(InputStream body, Consumer<OsmNodeChange> consumer) throws XMLStreamException {
+        parse(body, null, false, true, (action, node) -> consumer.accept(new OsmNodeChange(action, node)));
+    }
+
+    /**
+     * Parses the nodes of a document; in change mode, the action of the enclosing section is passed with every node,
+     * otherwise null.
+     */
+    private static void parse(InputStream body, @Nullable Long defaultNodeId, boolean taggedOnly, boolean changes,
+                              BiConsumer<OsmChangeAction, OsmNode> consumer) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(body);
+        try {
+            OsmChangeAction action = null;
+            // the attributes of the current node are only converted if the node is passed on
+            String rawNodeId = null;
+            String rawVersion = null;
+            String rawLatitude = null;
+            String rawLongitude = null;
+            boolean inNode = false;
+            boolean visible = true;
+            Map<String, String> tags = new HashMap<>();
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String element = reader.getLocalName();
+                    if (changes && isAction(element)) {
+                        action = OsmChangeAction.valueOf(element.toUpperCase(Locale.ROOT));
+                    } else if (element.equals("node")) {
+                        inNode = true;
+                        rawNodeId = reader.getAttributeValue(null, "id");
+                        rawVersion = reader.getAttributeValue(null, "version");
+                        rawLatitude = reader.getAttributeValue(null, "lat");
+                        rawLongitude = reader.getAttributeValue(null, "lon");
+                        // deleted nodes are returned by the multi-fetch API with visible="false" and without tags
+                        visible = !"false".equals(reader.getAttributeValue(null, "visible"));
+                        tags.clear();
+                    } else if (inNode && element.equals("tag")) {
+                        String key = reader.getAttributeValue(null, "k");
+                        if (key != null && OsmTags.isMapped(key)) {
+                            tags.put(key, reader.getAttributeValue(null, "v"));
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && changes && isAction(reader.getLocalName())) {
+                    action = null;
+                } else if (event == XMLStreamConstants.END_ELEMENT && inNode && reader.getLocalName().equals("node")) {
+                    inNode = false;
+                    boolean passedOn = changes ? action != null : visible && !(taggedOnly && tags.isEmpty());
+                    if (passedOn) {
+                        Long nodeId = rawNodeId == null || rawNodeId.isBlank() ? defaultNodeId : Long.valueOf(rawNodeId);
+                        Long version = rawVersion == null || rawVersion.isBlank() ? null : Long.valueOf(rawVersion);
+                        consumer.accept(action, OsmTags.toOsmNode(nodeId, version, parseDouble(rawLatitude, "lat"),
+                                parseDouble(rawLongitude, "lon"), tags));
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean isAction(String element) {
+        return element.equals("create") || element.equals("modify") || element.equals("delete");
+    }
+
+    private static Double parseDouble(String rawValue, String attributeName) {
+        if (rawValue == null || rawValue.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(rawValue);
+        } catch (NumberFormatException e) {
+            log.warn("Unable to parse '{}' attribute '{}' as double", attributeName, rawValue);
+            return null;
+        }
+    }
+
+    /**
+     * Creates an input factory that does not process DTDs and never resolves external entities (XXE).
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        try {
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        } catch (IllegalArgumentException ignored) {
+            log.debug("Unable to restrict external XML access, continuing with DTD support disabled");
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,598 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.seuhd.campuscoffee.data.mapper.PosEntityMapper;
+import de.seuhd.campuscoffee.data.persistence.AddressEntity;
+import de.seuhd.campuscoffee.data.persistence.PosEntity;
+import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
+import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadFailure;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosType;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.jspecify.annotations.Nullable;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bulk loader for POS files, used for seeding environments with many POS at once.
+ * Instead of writing one POS after the other, the file is streamed into a temporary staging table using the
+ * {@code COPY} protocol of PostgreSQL and then merged into the {@code pos} table with a few set-based statements,
+ * all in a single transaction:
+ * <ol>
+ *     <li>rows are validated and converted like the POS of the API while the file is read (including the content
+ *     hash, see {@link PosEntity#computeContentHash()}); invalid rows are reported and never copied;</li>
+ *     <li>rows whose name or ID is used by a previous row, rows with the ID of a POS that does not exist, and rows
+ *     whose name is used by another POS are removed from the staging table and reported, so that the merge never
+ *     violates a unique constraint;</li>
+ *     <li>existing POS are updated unless their content hash is unchanged, and the remaining rows, which have no ID,
+ *     are inserted with IDs from whole blocks of {@code pos_seq}, as allocated by Hibernate.</li>
+ * </ol>
+ * Like the batch API, the loader never creates a POS with a given ID, because the ID may lie in a block of
+ * {@code pos_seq} that a running instance has already reserved.
+ * The columns derived by {@link PosEntity} (search vector, version, and timestamps) are maintained by the merge.
+ * Writers are blocked while the staging table is merged, but not while the file is copied; readers are never blocked.
+ */
+@Slf4j
+@Component
+class PosBulkLoader {
+    /**
+     * Maximum number of failed rows whose details are reported.
+     */
+    static final int MAX_RETAINED_FAILURES = 1000;
+    // rows are passed to COPY in chunks of about this size
+    private static final int COPY_CHUNK_SIZE = 1 << 16;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("name", "description", "type", "campus", "street", "houseNumber", "postalCode", "city");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE pos_bulk_staging (
+                line bigint NOT NULL,
+                id bigint,
+                name varchar(255) NOT NULL,
+                description text,
+                type varchar(255) NOT NULL,
+                campus varchar(255) NOT NULL,
+                street varchar(255) NOT NULL,
+                house_number int NOT NULL,
+                house_number_suffix varchar(1),
+                postal_code int NOT NULL,
+                city varchar(255) NOT NULL,
+                latitude double precision,
+                longitude double precision,
+                content_hash bigint NOT NULL
+            ) ON COMMIT DROP""";
+
+    private static final String COPY = """
+            COPY pos_bulk_staging (line, id, name, description, type, campus, street, house_number,
+                                   house_number_suffix, postal_code, city, latitude, longitude, content_hash)
+            FROM STDIN""";
+
+    // temporary tables are not analyzed automatically, so the planner would not know their size
+    private static final List<String> INDEX_STAGING_TABLE = List.of(
+            "CREATE UNIQUE INDEX ON pos_bulk_staging (line)",
+            "CREATE INDEX ON pos_bulk_staging (name)",
+            "CREATE INDEX ON pos_bulk_staging (id)",
+            "ANALYZE pos_bulk_staging");
+
+    // blocks writers (which would otherwise be able to take names or IDs between the checks and the merge),
+    // but not readers
+    private static final String LOCK = "LOCK TABLE pos IN SHARE ROW EXCLUSIVE MODE";
+
+    private static final String REMOVE_DUPLICATE_NAMES = """
+            DELETE FROM pos_bulk_staging s
+            USING (SELECT line, first_value(line) OVER (PARTITION BY name ORDER BY line) AS first_line
+                   FROM pos_bulk_staging) d
+            WHERE s.line = d.line AND d.line <> d.first_line
+            RETURNING s.line, s.name""";
+
+    private static final String REMOVE_DUPLICATE_IDS = """
+            DELETE FROM pos_bulk_staging s
+            USING (SELECT line, first_value(line) OVER (PARTITION BY id ORDER BY line) AS first_line
+                   FROM pos_bulk_staging WHERE id IS NOT NULL) d
+            WHERE s.line = d.line AND d.line <> d.first_line
+            RETURNING s.line, s.id""";
+
+    private static final String REMOVE_UNKNOWN_IDS = """
+            DELETE FROM pos_bulk_staging s
+            WHERE s.id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM pos p WHERE p.id = s.id)
+            RETURNING s.line, s.id""";
+
+    // also rejects names that are released by another row of the file (e.g., swapped names), like the name index
+    private static final String REMOVE_NAMES_OF_OTHER_POS = """
+            DELETE FROM pos_bulk_staging s
+            USING pos p
+            WHERE p.name = s.name AND p.id IS DISTINCT FROM s.id
+            RETURNING s.line, s.name""";
+
+    private static final String REMOVE_UNCHANGED = """
+            DELETE FROM pos_bulk_staging s
+            USING pos p
+            WHERE p.id = s.id AND p.content_hash = s.content_hash""";
+
+    private static final String UPDATE = """
+            UPDATE pos p
+            SET updated_at = ?, name = s.name, description = s.description, type = s.type, campus = s.campus,
+                street = s.street, house_number = s.house_number, house_number_suffix = s.house_number_suffix,
+                postal_code = s.postal_code, city = s.city, latitude = s.latitude, longitude = s.longitude,
+                search_vector = to_tsvector('simple', concat_ws(' ', s.name, s.description)),
+                version = p.version + 1, content_hash = s.content_hash
+            FROM pos_bulk_staging s
+            WHERE p.id = s.id""";
+
+    private static final String REMOVE_UPDATED = """
+            DELETE FROM pos_bulk_staging s
+            USING pos p
+            WHERE p.id = s.id""";
+
+    // the first value of a sequence that has never been called would reserve a block below 1 (Hibernate starts its
+    // first block at that value instead), so it is consumed before blocks are reserved
+    private static final String SKIP_INITIAL_SEQUENCE_VALUE = "SELECT setval('pos_seq', 1) FROM pos_seq WHERE NOT is_called";
+
+    private static final String COUNT_NEW_ROWS = "SELECT count(*) FROM pos_bulk_staging";
+
+    // every value of the sequence reserves a block of IDs (see PosEntity.ID_ALLOCATION_SIZE), which is assigned to
+    // consecutive rows, so that a million rows take a few thousand sequence calls
+    private static final String ASSIGN_IDS = """
+            UPDATE pos_bulk_staging s
+            SET id = b.hi - %1$d + 1 + n.position %% %1$d
+            FROM (SELECT line, row_number() OVER (ORDER BY line) - 1 AS position
+                  FROM pos_bulk_staging WHERE id IS NULL) n
+            JOIN (SELECT row_number() OVER () - 1 AS block, hi
+                  FROM (SELECT nextval('pos_seq') AS hi FROM generate_series(1, ?)) v) b
+              ON b.block = n.position / %1$d
+            WHERE s.line = n.line""".formatted(PosEntity.ID_ALLOCATION_SIZE);
+
+    private static final String INSERT = """
+            INSERT INTO pos (id, created_at, updated_at, name, description, type, campus, street, house_number,
+                             house_number_suffix, postal_code, city, latitude, longitude, search_vector, version,
+                             content_hash)
+            SELECT id, ?, ?, name, description, type, campus, street, house_number, house_number_suffix, postal_code,
+                   city, latitude, longitude, to_tsvector('simple', concat_ws(' ', name, description)), 0, content_hash
+            FROM pos_bulk_staging
+            ORDER BY id""";
+
+    private final Path directory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PosEntityMapper posEntityMapper;
+
+    PosBulkLoader(@Value("${campus-coffee.import.bulk-load-directory:bulk-load}") String directory,
+                  EntityManager entityManager, PlatformTransactionManager transactionManager,
+                  PosEntityMapper posEntityMapper) {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.posEntityMapper = posEntityMapper;
+    }
+
+    /**
+     * Loads a file from the bulk-load directory (see {@link de.seuhd.campuscoffee.domain.ports.PosDataService#bulkLoad(String)}).
+     */
+    PosBulkLoadResult load(String fileName) {
+        Path file = resolve(fileName);
+        String lowerCaseName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean csv = lowerCaseName.endsWith(".csv");
+        if (!csv && !lowerCaseName.endsWith(".ndjson") && !lowerCaseName.endsWith(".jsonl")) {
+            throw new IllegalArgumentException("Bulk-load files must be .csv, .ndjson, or .jsonl files.");
+        }
+
+        long start = System.nanoTime();
+        Load load = new Load();
+        try {
+            transactionTemplate.executeWithoutResult(status -> entityManager.unwrap(Session.class).doWork(connection -> {
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    load.run(connection, reader, csv);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Failed to read bulk-load file " + fileName, e.getCause());
+        }
+        load.failures.sort(Comparator.comparingLong(PosBulkLoadFailure::line));
+        return PosBulkLoadResult.builder()
+                .rows(load.rows)
+                .created(load.created)
+                .updated(load.updated)
+                .unchanged(load.unchanged)
+                .failed(load.failed)
+                .failures(List.copyOf(load.failures))
+                .durationMillis((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    /**
+     * Resolves the name of a file to a file directly inside the bulk-load directory,
+     * rejecting names that point elsewhere (e.g., {@code ../application.yaml}).
+     */
+    private Path resolve(String fileName) {
+        Path file;
+        try {
+            file = directory.resolve(fileName).normalize();
+        } catch (InvalidPathException e) {
+            throw new IllegalArgumentException("Invalid name of bulk-load file: " + fileName, e);
+        }
+        if (!directory.equals(file.getParent())) {
+            throw new IllegalArgumentException("Invalid name of bulk-load file: " + fileName);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Bulk-load file " + fileName + " does not exist.");
+        }
+        return file;
+    }
+
+    /**
+     * State of a single load.
+     */
+    private final class Load {
+        private final List<PosBulkLoadFailure> failures = new ArrayList<>();
+        private long rows;
+        private long created;
+        private long updated;
+        private long unchanged;
+        private long failed;
+
+        private void run(Connection connection, BufferedReader reader, boolean csv) throws SQLException, IOException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+            }
+            long copyStart = System.nanoTime();
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY);
+            try {
+                copyRows(copyIn, reader, csv);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            long mergeStart = System.nanoTime();
+            log.debug("Copied {} rows into the staging table in {} ms", rows, (mergeStart - copyStart) / 1_000_000);
+
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : INDEX_STAGING_TABLE) {
+                    statement.execute(sql);
+                }
+                statement.execute(LOCK);
+            }
+            removeFailing(connection, REMOVE_DUPLICATE_NAMES, BatchOutcome.DUPLICATE_NAME,
+                    name -> new DuplicatePosNameException(name).getMessage());
+            removeFailing(connection, REMOVE_DUPLICATE_IDS, BatchOutcome.INVALID,
+                    id -> "ID " + id + " is used by a previous row.");
+            removeFailing(connection, REMOVE_UNKNOWN_IDS, BatchOutcome.NOT_FOUND,
+                    id -> new PosNotFoundException(Long.valueOf(id)).getMessage());
+            removeFailing(connection, REMOVE_NAMES_OF_OTHER_POS, BatchOutcome.DUPLICATE_NAME,
+                    name -> new DuplicatePosNameException(name).getMessage());
+
+            LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+            try (Statement statement = connection.createStatement()) {
+                unchanged = statement.executeUpdate(REMOVE_UNCHANGED);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                statement.setObject(1, now);
+                updated = statement.executeUpdate();
+            }
+            // only new rows without an ID remain
+            long newRows;
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(REMOVE_UPDATED);
+                try (ResultSet resultSet = statement.executeQuery(COUNT_NEW_ROWS)) {
+                    resultSet.next();
+                    newRows = resultSet.getLong(1);
+                }
+            }
+            if (newRows > 0) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(SKIP_INITIAL_SEQUENCE_VALUE);
+                }
+                try (PreparedStatement statement = connection.prepareStatement(ASSIGN_IDS)) {
+                    statement.setLong(1, (newRows + PosEntity.ID_ALLOCATION_SIZE - 1) / PosEntity.ID_ALLOCATION_SIZE);
+                    statement.executeUpdate();
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setObject(1, now);
+                statement.setObject(2, now);
+                created = statement.executeUpdate();
+            }
+            log.debug("Merged the staging table in {} ms", (System.nanoTime() - mergeStart) / 1_000_000);
+        }
+
+        /**
+         * Reads, validates, and converts the rows of the file and passes the valid rows to COPY.
+         */
+        private void copyRows(CopyIn copyIn, BufferedReader reader, boolean csv) throws SQLException, IOException {
+            StringBuilder chunk = new StringBuilder(COPY_CHUNK_SIZE + 1024);
+            if (csv) {
+                CsvReader csvReader = new CsvReader(reader);
+                List<String> header = csvReader.readRecord();
+                if (header == null) {
+                    return;
+                }
+                Map<String, Integer> columns = toColumns(header);
+                List<String> record;
+                while ((record = csvReader.readRecord()) != null) {
+                    if (record.size() == 1 && record.getFirst().isBlank()) {
+                        continue;
+                    }
+                    List<String> fields = record;
+                    copyRow(chunk, csvReader.recordLine(), column -> {
+                        Integer index = columns.get(column);
+                        return index == null || index >= fields.size() ? null : fields.get(index);
+                    });
+                    flushIfFull(copyIn, chunk);
+                }
+            } else {
+                String jsonLine;
+                long line = 0;
+                while ((jsonLine = reader.readLine()) != null) {
+                    line++;
+                    if (jsonLine.isBlank()) {
+                        continue;
+                    }
+                    JsonNode node;
+                    try {
+                        node = OBJECT_MAPPER.readTree(jsonLine);
+                    } catch (JsonProcessingException e) {
+                        rows++;
+                        fail(line, BatchOutcome.INVALID, "malformed JSON");
+                        continue;
+                    }
+                    copyRow(chunk, line, column -> {
+                        JsonNode value = node.get(column);
+                        return value == null || value.isNull() ? null : value.asText();
+                    });
+                    flushIfFull(copyIn, chunk);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(copyIn, chunk);
+            }
+        }
+
+        /**
+         * Converts a row and appends it to the chunk in the text format of COPY, or reports it if it is invalid.
+         *
+         * @param fields the values of the row by column name; returns null for missing values
+         */
+        private void copyRow(StringBuilder chunk, long line, Function<String, @Nullable String> fields) {
+            rows++;
+            PosEntity entity;
+            Long id;
+            try {
+                id = parseId(fields.apply("id"));
+                entity = posEntityMapper.toEntity(toPos(fields));
+            } catch (IllegalArgumentException e) {
+                fail(line, BatchOutcome.INVALID, e.getMessage());
+                return;
+            }
+            AddressEntity address = entity.getAddress();
+            appendCopyValue(chunk, line).append('\t');
+            appendCopyValue(chunk, id).append('\t');
+            appendCopyValue(chunk, entity.getName()).append('\t');
+            appendCopyValue(chunk, entity.getDescription()).append('\t');
+            appendCopyValue(chunk, entity.getType()).append('\t');
+            appendCopyValue(chunk, entity.getCampus()).append('\t');
+            appendCopyValue(chunk, address.getStreet()).append('\t');
+            appendCopyValue(chunk, address.getHouseNumber()).append('\t');
+            appendCopyValue(chunk, address.getHouseNumberSuffix()).append('\t');
+            appendCopyValue(chunk, address.getPostalCode()).append('\t');
+            appendCopyValue(chunk, address.getCity()).append('\t');
+            appendCopyValue(chunk, entity.getLatitude()).append('\t');
+            appendCopyValue(chunk, entity.getLongitude()).append('\t');
+            appendCopyValue(chunk, entity.computeContentHash()).append('\n');
+        }
+
+        /**
+         * Removes the rows selected by the statement from the staging table and reports them.
+         *
+         * @param sql a statement returning the line and the conflicting value of every removed row
+         * @param message creates the message of a failure from the conflicting value
+         */
+        private void removeFailing(Connection connection, String sql, BatchOutcome outcome,
+                                   Function<String, String> message) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                while (resultSet.next()) {
+                    fail(resultSet.getLong(1), outcome, message.apply(resultSet.getString(2)));
+                }
+            }
+        }
+
+        private void fail(long line, BatchOutcome outcome, String message) {
+            failed++;
+            if (failures.size() < MAX_RETAINED_FAILURES) {
+                failures.add(PosBulkLoadFailure.builder()
+                        .line(line)
+                        .outcome(outcome)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+
+    private static Map<String, Integer> toColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int index = 0; index < header.size(); index++) {
+            // a byte order mark is not part of the first column name
+            String column = index == 0 ? header.get(index).replace("\uFEFF", "") : header.get(index);
+            columns.putIfAbsent(column.trim(), index);
+        }
+        List<String> missingColumns = REQUIRED_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .toList();
+        if (!missingColumns.isEmpty()) {
+            throw new IllegalArgumentException("The CSV header lacks the columns " + missingColumns + ".");
+        }
+        return columns;
+    }
+
+    /**
+     * Converts the values of a row to a POS, applying the constraints of the {@code pos} table.
+     *
+     * @throws IllegalArgumentException if a value is missing or invalid
+     */
+    private static Pos toPos(Function<String, @Nullable String> fields) {
+        String houseNumber = required(fields, "houseNumber");
+        if (!houseNumber.matches("\\d{1,9}[^0-9]?")) {
+            throw new IllegalArgumentException("invalid houseNumber '" + houseNumber + "'");
+        }
+        Double latitude = parseDouble(fields.apply("latitude"), "latitude");
+        Double longitude = parseDouble(fields.apply("longitude"), "longitude");
+        if (latitude != null && !(latitude >= -90 && latitude <= 90)
+                || longitude != null && !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("location out of range");
+        }
+        String description = fields.apply("description");
+        if (description == null || description.isEmpty()) {
+            // required like in the API, where the table rejects empty descriptions
+            throw new IllegalArgumentException("missing description");
+        }
+        return Pos.builder()
+                .name(requiredText(fields, "name"))
+                .description(description)
+                .type(parseEnum(PosType.class, required(fields, "type"), "type"))
+                .campus(parseEnum(CampusType.class, required(fields, "campus"), "campus"))
+                .street(requiredText(fields, "street"))
+                .houseNumber(houseNumber)
+                .postalCode(parseInteger(required(fields, "postalCode"), "postalCode"))
+                .city(requiredText(fields, "city"))
+                .latitude(latitude)
+                .longitude(longitude)
+                .build();
+    }
+
+    private static @Nullable Long parseId(@Nullable String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(value.trim());
+            if (id <= 0) {
+                throw new IllegalArgumentException("id must be positive");
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid id '" + value + "'");
+        }
+    }
+
+    private static String required(Function<String, @Nullable String> fields, String column) {
+        String value = fields.apply(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("missing " + column);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Returns a required text value as is, since names and addresses are stored exactly as given.
+     */
+    private static String requiredText(Function<String, @Nullable String> fields, String column) {
+        String value = fields.apply(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("missing " + column);
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String column) {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static @Nullable Double parseDouble(@Nullable String value, String column) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + column + " '" + value + "'");
+        }
+    }
+
+    /**
+     * Appends a value in the text format of COPY, where null is {@code \N} and backslashes and the delimiter and
+     * line break characters are escaped.
+     */
+    private static StringBuilder appendCopyValue(StringBuilder chunk, @Nullable Object value) {
+        if (value == null) {
+            return chunk.append("\\N");
+        }
+        String text = value.toString();
+        for (int index = 0; index < text.length(); index++) {
+            char c = text.charAt(index);
+            switch (c) {
+                case '\\' -> chunk.append("\\\\");
+                case '\t' -> chunk.append("\\t");
+                case '\n' -> chunk.append("\\n");
+                case '\r' -> chunk.append("\\r");
+                default -> chunk.append(c);
+            }
+        }
+        return chunk;
+    }
+
+    private static void flushIfFull(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        if (chunk.length() >= COPY_CHUNK_SIZE) {
+            flush(copyIn, chunk);
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
@@ -3,100 +3,476 @@ package de.seuhd.campuscoffee.data.impl;
 import de.seuhd.campuscoffee.data.mapper.PosEntityMapper;
 import de.seuhd.campuscoffee.data.persistence.PosEntity;
 import de.seuhd.campuscoffee.data.persistence.PosRepository;
+import de.seuhd.campuscoffee.data.persistence.PosRow;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
+import de.seuhd.campuscoffee.domain.exceptions.DuplicateOsmNodeException;
 import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
 import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.PosVersionConflictException;
 import de.seuhd.campuscoffee.domain.ports.PosDataService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the POS data service that the domain layer provides as a port.
  * This layer is responsible for data access and persistence.
  * Business logic should be in the service layer.
+ * <p>
+ * Every method is its own transaction boundary: reads run in read-only transactions ({@code readOnly = true}:
+ * Hibernate does not flush before the queries, and PostgreSQL runs them in a {@code READ ONLY} transaction),
+ * writes in read-write transactions, and the export in a read-only transaction that lasts until its stream is
+ * closed. Upserts demarcate their transactions programmatically, since they translate constraint violations after
+ * the rollback and fall back to one transaction per item within the same call. Since the
+ * persistence context is not kept open for the whole web request (open-in-view is disabled), a database connection
+ * is only held while one of these transactions runs, not while the response is serialized and sent.
  */
+@Slf4j
 @Service
+@Qualifier(PosDataService.DATA_STORE)
 @RequiredArgsConstructor
 class PosDataServiceImpl implements PosDataService {
     private final PosRepository posRepository;
     private final PosEntityMapper posEntityMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PosBulkLoader posBulkLoader;
+    @Value("${campus-coffee.export.fetch-size:1000}")
+    private final int exportFetchSize;
 
     @Override
+    @Transactional
     public void clear() {
         posRepository.deleteAllInBatch();
         posRepository.flush();
-        posRepository.resetSequence();
     }
 
     @Override
-    public @NonNull List<Pos> getAll() {
-        return posRepository.findAll().stream()
-                .map(posEntityMapper::fromEntity)
+    @Transactional(readOnly = true)
+    public @NonNull CursorPage<Pos> getPage(@Nullable Long after, int limit, @NonNull PosFilter filter, @NonNull Set<PosField> fields) {
+        // IDs are generated from pos_seq starting at 1, so 0 is a safe lower bound for the first page
+        long cursor = after == null ? 0L : after;
+        // fetch one additional row to find out whether there is a next page without a COUNT query
+        List<Pos> rows = isAllFields(fields)
+                ? posRepository.findPage(cursor, limit + 1, filter).stream()
+                        .map(posEntityMapper::fromRow)
+                        .toList()
+                : posRepository.findFieldsPage(cursor, limit + 1, filter, fields).stream()
+                        .map(posEntityMapper::fromTuple)
+                        .toList();
+        List<Pos> items = rows.stream()
+                .limit(limit)
                 .toList();
+        Long nextCursor = rows.size() > limit ? items.getLast().id() : null;
+        return new CursorPage<>(items, nextCursor);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public @NonNull CursorPage<Pos> search(@NonNull String query, long offset, int limit) {
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        // fetch one additional row to find out whether there is a next page without a COUNT query
+        List<PosRow> rows = posRepository.search(tsQuery, offset, limit + 1);
+        List<Pos> items = rows.stream()
+                .limit(limit)
+                .map(posEntityMapper::fromRow)
+                .toList();
+        Long nextCursor = rows.size() > limit ? offset + limit : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull List<Pos> getNearby(double latitude, double longitude, double radius, int limit) {
+        return posRepository.findNearby(latitude, longitude, radius, limit).stream()
+                .map(posEntityMapper::fromRow)
+                .toList();
+    }
+
+    @Override
+    public @NonNull Stream<Pos> streamAll() {
+        // PostgreSQL only uses a server-side cursor (i.e., honors the fetch size) inside a transaction;
+        // the transaction is kept open until the caller closes the stream
+        DefaultTransactionDefinition transactionDefinition = new DefaultTransactionDefinition();
+        transactionDefinition.setReadOnly(true);
+        TransactionStatus transaction = transactionManager.getTransaction(transactionDefinition);
+        try {
+            // rows are projections, so the persistence context does not grow with the result set
+            return posRepository.streamRows(exportFetchSize)
+                    .map(posEntityMapper::fromRow)
+                    .onClose(() -> transactionManager.commit(transaction));
+        } catch (RuntimeException e) {
+            transactionManager.rollback(transaction);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public @NonNull Pos getById(@NonNull Long id) throws PosNotFoundException {
-        return posRepository.findById(id)
-                .map(posEntityMapper::fromEntity)
+        return posRepository.findRowById(id)
+                .map(posEntityMapper::fromRow)
                 .orElseThrow(() -> new PosNotFoundException(id));
     }
 
     @Override
-    public @NonNull Pos upsert(@NonNull Pos pos) {
-        // Map POS domain object to entity and save
-        try {
-            if (pos.id() == null) {
-                // Create new POS
-                return posEntityMapper.fromEntity(
-                        posRepository.saveAndFlush(posEntityMapper.toEntity(pos))
-                );
-            }
+    @Transactional(readOnly = true)
+    public @NonNull Pos getById(@NonNull Long id, @NonNull Set<PosField> fields) throws PosNotFoundException {
+        if (isAllFields(fields)) {
+            return getById(id);
+        }
+        return posRepository.findFieldsById(id, fields)
+                .map(posEntityMapper::fromTuple)
+                .orElseThrow(() -> new PosNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull PosVersion getVersion(@NonNull Long id) throws PosNotFoundException {
+        return posRepository.findVersionById(id)
+                .map(version -> new PosVersion(version.getVersion(), version.getUpdatedAt()))
+                .orElseThrow(() -> new PosNotFoundException(id));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull PosCollectionVersion getCollectionVersion() {
+        // the counters are maintained in the writing transactions, so they change exactly when a write commits
+        PosRepository.PosChangeCountsView counts = posRepository.findChangeCounts();
+        return new PosCollectionVersion(
+                counts.getChanges(),
+                counts.getDeletions(),
+                posRepository.findLastModified().orElse(null)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull Map<String, Long> getIdsByName() {
+        return toIdsByName(posRepository.findAllNames());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull Map<String, Long> getIdsByName(@NonNull Collection<String> names) {
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        return toIdsByName(posRepository.findNamesIn(names));
+    }
 
-            // Update existing POS
-            PosEntity posEntity = posRepository.findById(pos.id())
-                    .orElseThrow(() -> new PosNotFoundException(pos.id()));
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull Map<Long, Pos> getByOsmNodeIds(@NonNull Collection<Long> osmNodeIds) {
+        if (osmNodeIds.isEmpty()) {
+            return Map.of();
+        }
+        return posRepository.findRowsByOsmNodeIdIn(osmNodeIds).stream()
+                .collect(Collectors.toMap(PosRow::osmNodeId, posEntityMapper::fromRow));
+    }
 
-            // Use mapper to update entity fields automatically
-            // Note: timestamps are managed by JPA lifecycle callbacks (@PreUpdate)
-            posEntityMapper.updateEntity(pos, posEntity);
+    @Override
+    @Transactional(readOnly = true)
+    public @NonNull Set<Long> getOsmNodeIds() {
+        return new HashSet<>(posRepository.findAllOsmNodeIds());
+    }
 
-            return posEntityMapper.fromEntity(posRepository.saveAndFlush(posEntity));
+    @Override
+    public @NonNull Pos upsert(@NonNull Pos pos) {
+        return upsertWithOutcome(pos).pos();
+    }
+
+    /**
+     * Upserts a single POS in its own transaction and reports whether it has been created, updated, or left
+     * unchanged because its content hash equals the stored one.
+     */
+    private Upserted upsertWithOutcome(Pos pos) {
+        // a single INSERT ... ON CONFLICT or UPDATE ... RETURNING statement instead of reading before writing
+        PosEntity posEntity = posEntityMapper.toEntity(pos);
+        try {
+            Upserted written = readWrite(() -> {
+                if (pos.id() == null) {
+                    return new Upserted(posEntityMapper.fromEntity(posRepository.insertIfNameIsUnused(posEntity)
+                            .orElseThrow(() -> new DuplicatePosNameException(pos.name()))), BatchOutcome.CREATED);
+                }
+                Optional<PosEntity> updated = posRepository.updateIfNameIsUnused(posEntity, pos.version());
+                if (updated.isPresent()) {
+                    return new Upserted(posEntityMapper.fromEntity(updated.get()), BatchOutcome.UPDATED);
+                }
+                // nothing was written: only now find out whether the POS is missing, outdated, unchanged,
+                // or the name is taken
+                PosEntity current = posRepository.findById(pos.id())
+                        .orElseThrow(() -> new PosNotFoundException(pos.id()));
+                entityManager.detach(current);
+                if (pos.version() != null && !pos.version().equals(current.getVersion())) {
+                    throw new PosVersionConflictException(pos.id(), pos.version());
+                }
+                if (Objects.equals(current.getContentHash(), posEntity.getContentHash())) {
+                    log.debug("Skipped update of POS with ID {}, since its content has not changed", pos.id());
+                    return new Upserted(updateOsmMetadata(current, pos), BatchOutcome.UNCHANGED);
+                }
+                throw new DuplicatePosNameException(pos.name());
+            });
+            return Objects.requireNonNull(written);
         } catch (DataIntegrityViolationException e) {
             // Translate database constraint violations to domain exceptions
             // This is the adapter's responsibility in hexagonal architecture
+            // (the name check in the statement can still be overtaken by a concurrent writer)
             if (isDuplicateNameConstraintViolation(e)) {
                 throw new DuplicatePosNameException(pos.name());
             }
+            if (isDuplicateOsmNodeConstraintViolation(e)) {
+                throw new DuplicateOsmNodeException(pos.osmNodeId());
+            }
             // Re-throw if it's a different constraint violation
             throw e;
         }
     }
 
+    @Override
+    public @NonNull List<PosBatchResult> upsertAll(@NonNull List<Pos> posList) {
+        try {
+            return Objects.requireNonNull(
+                    readWrite(() -> upsertAllInTransaction(posList))
+            );
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            // a constraint was violated despite the pre-checks (e.g., by a concurrent writer or a check constraint)
+            // or a POS was updated concurrently after it was read;
+            // the transaction has been rolled back, so retry item by item to determine the outcome of every item
+            log.warn("Batch upsert of {} POS failed, falling back to single upserts: {}", posList.size(), e.getMessage());
+            return upsertIndividually(posList);
+        }
+    }
+
     /**
-     * Checks if the exception is due to duplicate POS name constraint violation.
+     * Upserts all items of a batch in the current transaction.
+     * Existing POS and name owners are loaded with one query each, new entities are persisted with IDs from the
+     * pooled sequence, and all inserts and updates are sent as JDBC batches on flush.
+     * Updates are versioned by JPA ({@code UPDATE ... WHERE id = ? AND version = ?}), so a concurrent update of a
+     * POS after it was loaded fails the flush instead of being overwritten.
+     * Items that would violate a constraint are not written, but reported, and so are updates whose content hash
+     * equals the stored one; only their OpenStreetMap metadata is written, after the flush.
      */
-    private static boolean isDuplicateNameConstraintViolation(DataIntegrityViolationException e) {
-        // Database constraint name for unique pos name
-        final String POS_NAME_CONSTRAINT = "pos_name_key";
+    private List<PosBatchResult> upsertAllInTransaction(List<Pos> posList) {
+        Map<Long, PosEntity> existingEntities = posRepository.findAllById(
+                        posList.stream().map(Pos::id).filter(Objects::nonNull).toList()
+                ).stream()
+                .collect(Collectors.toMap(PosEntity::getId, Function.identity()));
+        // name -> ID of the POS using it; POS created in this batch are represented by negative placeholder IDs
+        Map<String, Long> nameOwners = posRepository.findNamesIn(
+                        posList.stream().map(Pos::name).filter(Objects::nonNull).collect(Collectors.toSet())
+                ).stream()
+                .collect(Collectors.toMap(PosRepository.PosNameView::getName, PosRepository.PosNameView::getId));
+
+        PosBatchResult[] results = new PosBatchResult[posList.size()];
+        Map<Integer, PosEntity> writtenEntities = new LinkedHashMap<>();
+        Map<Integer, PosEntity> unchangedEntities = new LinkedHashMap<>();
+        for (int index = 0; index < posList.size(); index++) {
+            Pos pos = posList.get(index);
+            PosEntity posEntity = pos.id() == null ? null : existingEntities.get(pos.id());
+            if (pos.id() != null && posEntity == null) {
+                results[index] = failure(index, BatchOutcome.NOT_FOUND, new PosNotFoundException(pos.id()).getMessage());
+                continue;
+            }
+            if (posEntity != null && pos.version() != null && !pos.version().equals(posEntity.getVersion())) {
+                results[index] = failure(index, BatchOutcome.VERSION_CONFLICT,
+                        new PosVersionConflictException(pos.id(), pos.version()).getMessage());
+                continue;
+            }
+            Long nameOwner = nameOwners.get(pos.name());
+            if (nameOwner != null && !nameOwner.equals(pos.id())) {
+                results[index] = failure(index, BatchOutcome.DUPLICATE_NAME, new DuplicatePosNameException(pos.name()).getMessage());
+                continue;
+            }
 
-        // Check the exception message and root cause for the constraint name
-        String message = e.getMessage();
-        if (message != null && message.contains(POS_NAME_CONSTRAINT)) {
-            return true;
+            PosEntity mappedEntity;
+            try {
+                // map to a detached entity first so that invalid input never modifies a managed entity
+                mappedEntity = posEntityMapper.toEntity(pos);
+            } catch (NullPointerException | IllegalArgumentException e) {
+                results[index] = failure(index, BatchOutcome.INVALID, "Invalid POS: " + e.getMessage());
+                continue;
+            }
+            if (posEntity != null && Objects.equals(posEntity.getContentHash(), mappedEntity.computeContentHash())) {
+                // nothing would change, so the POS is neither written nor is its version incremented
+                unchangedEntities.put(index, posEntity);
+                continue;
+            }
+            if (posEntity == null) {
+                posEntity = mappedEntity;
+            } else {
+                posEntityMapper.updateEntity(pos, posEntity);
+            }
+            nameOwners.put(pos.name(), pos.id() == null ? -1L - index : pos.id());
+            writtenEntities.put(index, posEntity);
         }
 
-        // Also check root cause for constraint violations
-        Throwable cause = e.getRootCause();
-        if (cause != null) {
-            String causeMessage = cause.getMessage();
-            return causeMessage != null && causeMessage.contains(POS_NAME_CONSTRAINT);
+        // new entities are persisted, changes of managed entities are picked up by dirty checking on flush
+        posRepository.saveAll(writtenEntities.values().stream().filter(posEntity -> posEntity.getId() == null).toList());
+        posRepository.flush();
+
+        writtenEntities.forEach((index, posEntity) -> results[index] = PosBatchResult.builder()
+                .index(index)
+                .outcome(posList.get(index).id() == null ? BatchOutcome.CREATED : BatchOutcome.UPDATED)
+                .pos(posEntityMapper.fromEntity(posEntity))
+                .build());
+        unchangedEntities.forEach((index, posEntity) -> results[index] = PosBatchResult.builder()
+                .index(index)
+                .outcome(BatchOutcome.UNCHANGED)
+                .pos(updateOsmMetadata(posEntity, posList.get(index)))
+                .build());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Writes the OpenStreetMap metadata of a POS whose content has not changed, if it differs from the stored one
+     * (e.g., a new version of its node that only changed tags that are not imported), so that the import does not
+     * consider the node outdated again. Neither the version nor the update timestamp of the POS change.
+     *
+     * @param stored the stored POS; it is not modified, so that a managed entity does not become dirty
+     * @param pos the requested POS; metadata that is null keeps the stored metadata
+     * @return the stored POS with the requested metadata
+     */
+    private Pos updateOsmMetadata(PosEntity stored, Pos pos) {
+        Pos storedPos = posEntityMapper.fromEntity(stored);
+        Long osmNodeId = pos.osmNodeId() == null ? storedPos.osmNodeId() : pos.osmNodeId();
+        Long osmVersion = pos.osmVersion() == null ? storedPos.osmVersion() : pos.osmVersion();
+        if (Objects.equals(osmNodeId, storedPos.osmNodeId()) && Objects.equals(osmVersion, storedPos.osmVersion())) {
+            return storedPos;
         }
+        posRepository.updateOsmMetadata(stored.getId(), osmNodeId, osmVersion);
+        return storedPos.toBuilder()
+                .osmNodeId(osmNodeId)
+                .osmVersion(osmVersion)
+                .build();
+    }
+
+    @Override
+    public @NonNull PosBulkLoadResult bulkLoad(@NonNull String fileName) {
+        return posBulkLoader.load(fileName);
+    }
+
+    /**
+     * Upserts the items of a batch one by one, each in its own transaction.
+     */
+    private List<PosBatchResult> upsertIndividually(List<Pos> posList) {
+        List<PosBatchResult> results = new ArrayList<>(posList.size());
+        for (int index = 0; index < posList.size(); index++) {
+            Pos pos = posList.get(index);
+            try {
+                // the outcome is reported like by the batch path, i.e., including unchanged POS
+                Upserted upserted = upsertWithOutcome(pos);
+                results.add(PosBatchResult.builder()
+                        .index(index)
+                        .outcome(upserted.outcome())
+                        .pos(upserted.pos())
+                        .build());
+            } catch (PosNotFoundException e) {
+                results.add(failure(index, BatchOutcome.NOT_FOUND, e.getMessage()));
+            } catch (DuplicatePosNameException e) {
+                results.add(failure(index, BatchOutcome.DUPLICATE_NAME, e.getMessage()));
+            } catch (DuplicateOsmNodeException e) {
+                results.add(failure(index, BatchOutcome.DUPLICATE_OSM_NODE, e.getMessage()));
+            } catch (PosVersionConflictException e) {
+                results.add(failure(index, BatchOutcome.VERSION_CONFLICT, e.getMessage()));
+            } catch (DataIntegrityViolationException | NullPointerException | IllegalArgumentException e) {
+                results.add(failure(index, BatchOutcome.INVALID, "Invalid POS: " + e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Runs a write in a read-write transaction, which is committed (and flushed) when the write returns and rolled
+     * back if it throws. Callers that catch constraint violations therefore see them after the rollback, when the
+     * connection has already been returned to the pool.
+     */
+    private <T> T readWrite(Supplier<T> write) {
+        return transactionTemplate.execute(status -> write.get());
+    }
+
+    /**
+     * Converts user input into a {@code to_tsquery} expression that requires every word as a prefix match
+     * (e.g., "Botanik caf" becomes "botanik:* & caf:*"). Only letters and digits are kept, so the input
+     * cannot contain tsquery operators.
+     */
+    private static String toPrefixTsQuery(String query) {
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * Checks whether all fields are requested, in which case the entities are loaded as a whole.
+     */
+    private static boolean isAllFields(Set<PosField> fields) {
+        return fields.size() == PosField.values().length;
+    }
+
+    /**
+     * A written (or unchanged) POS with the outcome of the upsert.
+     */
+    private record Upserted(Pos pos, BatchOutcome outcome) {}
+
+    private static Map<String, Long> toIdsByName(List<PosRepository.PosNameView> names) {
+        return names.stream()
+                .collect(Collectors.toMap(PosRepository.PosNameView::getName, PosRepository.PosNameView::getId));
+    }
+
+    private static PosBatchResult failure(int index, BatchOutcome outcome, String message) {
+        return PosBatchResult.builder()
+                .index(index)
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Checks if the exception is due to duplicate POS name constraint violation.
+     */
+    private static boolean isDuplicateNameConstraintViolation(DataIntegrityViolationException e) {
+        // Database constraint name for unique pos name
+        final String POS_NAME_CONSTRAINT = "pos_name_key";
+        return e.getCause() instanceof ConstraintViolationException violation
+                && POS_NAME_CONSTRAINT.equals(violation.getConstraintName());
+    }
 
-        return false;
+    private static boolean isDuplicateOsmNodeConstraintViolation(DataIntegrityViolationException e) {
+        // unique index on the OpenStreetMap node of imported POS (migration V8)
+        final String POS_OSM_NODE_CONSTRAINT = "pos_osm_node_id_idx";
+        return e.getCause() instanceof ConstraintViolationException violation
+                && POS_OSM_NODE_CONSTRAINT.equals(violation.getConstraintName());
     }
 }
@@ -0,0 +1,226 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiUnavailableException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
+import de.seuhd.campuscoffee.domain.model.OsmClientStatistics;
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.ports.OsmClientService;
+import de.seuhd.campuscoffee.domain.ports.OsmDataService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer that decorates the {@link OsmDataService} adapter, so that an overloaded or failing
+ * OpenStreetMap API neither fails every import nor makes every caller wait for a timeout.
+ * Calls that fail transiently (server errors, 429 responses, and network errors) are retried a bounded number of
+ * times after an exponential backoff with full jitter, or after the delay requested by the API
+ * ({@code Retry-After}) if that is longer. Delays are scheduled without occupying a thread.
+ * <p>
+ * Retries apply per call of the port, while the circuit breaker and the rate limiter apply per HTTP request in the
+ * {@link OsmRequestGate} of the adapter, so that nodes served from the cache are neither limited nor rejected.
+ * Calls rejected by the gate fail with {@link OsmApiUnavailableException} and are not retried. Chunks that have
+ * been fetched before an attempt failed are cached by the adapter, so a retry only requests the remaining nodes.
+ */
+@Slf4j
+@Service
+@Primary
+class ResilientOsmDataService implements OsmDataService, OsmClientService {
+    private final OsmDataService delegate;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final OsmRequestGate gate;
+    private final Random random;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder transientFailures = new LongAdder();
+
+    @Autowired
+    ResilientOsmDataService(
+            @Qualifier(OsmDataService.API) OsmDataService delegate,
+            OsmRequestGate gate,
+            @Value("${campus-coffee.osm.retry.max-attempts:3}") int maxAttempts,
+            @Value("${campus-coffee.osm.retry.initial-backoff:500ms}") Duration initialBackoff,
+            @Value("${campus-coffee.osm.retry.max-backoff:10s}") Duration maxBackoff) {
+        this(delegate, gate, maxAttempts, initialBackoff, maxBackoff, new Random());
+    }
+
+    ResilientOsmDataService(OsmDataService delegate, OsmRequestGate gate, int maxAttempts, Duration initialBackoff,
+                            Duration maxBackoff, Random random) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The maximum number of attempts must be positive.");
+        }
+        this.delegate = delegate;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.gate = gate;
+        this.random = random;
+    }
+
+    @Override
+    public @NonNull OsmNode fetchNode(@NonNull Long nodeId) throws OsmNodeNotFoundException {
+        return await(fetchNodeAsync(nodeId), "OSM node " + nodeId);
+    }
+
+    @Override
+    public @NonNull Map<Long, OsmNode> fetchNodes(@NonNull Collection<Long> nodeIds) {
+        return await(fetchNodesAsync(nodeIds), nodeIds.size() + " OSM nodes");
+    }
+
+    @Override
+    public @NonNull CompletableFuture<OsmNode> fetchNodeAsync(@NonNull Long nodeId) {
+        return execute(() -> delegate.fetchNodeAsync(nodeId));
+    }
+
+    @Override
+    public @NonNull CompletableFuture<Map<Long, OsmNode>> fetchNodesAsync(@NonNull Collection<Long> nodeIds) {
+        return execute(() -> delegate.fetchNodesAsync(nodeIds));
+    }
+
+    @Override
+    public @NonNull OsmClientStatistics getStatistics() {
+        return OsmClientStatistics.builder()
+                .circuitState(gate.circuitState())
+                .calls(calls.sum())
+                .attempts(attempts.sum())
+                .retries(retries.sum())
+                .transientFailures(transientFailures.sum())
+                .requests(gate.requests())
+                .circuitRejections(gate.circuitRejections())
+                .rateLimitDelays(gate.rateLimitDelays())
+                .rateLimitRejections(gate.rateLimitRejections())
+                .availableTokens(gate.availableTokens())
+                .build();
+    }
+
+    /**
+     * Runs a call of the adapter with the resilience policies.
+     *
+     * @param call starts one attempt of the call
+     * @return a future of the result of the first successful attempt, or of the failure of the last attempt;
+     *         cancelling it cancels the attempt in flight and all further attempts
+     */
+    private <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call) {
+        calls.increment();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, 1, result);
+        return result;
+    }
+
+    /**
+     * Passes an attempt on to the adapter and schedules a retry if it fails transiently.
+     */
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        attempts.increment();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> attemptFuture = future;
+        result.whenComplete((ignored, error) -> {
+            if (result.isCancelled()) {
+                attemptFuture.cancel(true);
+            }
+        });
+
+        attemptFuture.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            // other failures are final: the API answered (e.g., the node does not exist), the gate did not send
+            // a request (open circuit or rate limit), or the call failed before any request
+            if (!(cause instanceof OsmApiException apiException) || !apiException.isTransient()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            transientFailures.increment();
+            long backoffNanos = backoffNanos(attempt, apiException.getRetryAfter());
+            if (attempt >= maxAttempts || backoffNanos < 0) {
+                log.warn("Giving up after {} attempt(s): {}", attempt, apiException.getMessage());
+                result.completeExceptionally(apiException);
+                return;
+            }
+            retries.increment();
+            log.debug("Attempt {} failed ({}), retrying in {} ms", attempt, apiException.getMessage(),
+                    TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+            CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> attempt(call, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Computes the delay before the next attempt: a random delay of up to the initial backoff doubled per failed
+     * attempt and capped at the maximum backoff (full jitter, so that callers that failed together do not retry
+     * together), but at least the delay requested by the API.
+     *
+     * @param attempt the number of the failed attempt, starting with 1
+     * @param retryAfter the delay requested by the API; may be null
+     * @return the delay in nanoseconds, or -1 if the API requested a delay longer than the maximum backoff
+     */
+    private long backoffNanos(int attempt, @Nullable Duration retryAfter) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        long delay = random.nextLong(Math.max(1, ceiling + 1));
+        if (retryAfter != null) {
+            long requestedNanos = retryAfter.toNanos();
+            if (requestedNanos > maxBackoffNanos) {
+                return -1;
+            }
+            delay = Math.max(delay, requestedNanos);
+        }
+        return delay;
+    }
+
+    /**
+     * Waits for a future of the synchronous methods and rethrows its failure unwrapped.
+     */
+    private static <T> T await(CompletableFuture<T> future, String description) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new RuntimeException("Interrupted while fetching " + description, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to fetch " + description, e.getCause());
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,70 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of requests: tokens are added continuously at a fixed rate up to the capacity
+ * (the burst size), and every request takes one token. A request that finds the bucket empty reserves the next
+ * token and is delayed until that token has been added, so that delayed requests are served in order and
+ * nobody has to poll the bucket.
+ */
+final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    // negative while tokens have been reserved by delayed requests
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param tokensPerSecond the sustained rate of requests; must be positive
+     * @param capacity the number of requests that can be sent at once after a quiet period; must be positive
+     * @param nanoClock the clock measuring the elapsed time in nanoseconds
+     */
+    TokenBucket(double tokensPerSecond, int capacity, LongSupplier nanoClock) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("The rate and the capacity of a token bucket must be positive.");
+        }
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token, reserving the next token if the bucket is empty.
+     *
+     * @param maxWaitNanos the longest delay that is acceptable to the caller
+     * @return the delay in nanoseconds until the request may be sent (0 if it may be sent immediately),
+     *         or -1 if the delay would be longer than the given maximum; in that case, no token is taken
+     */
+    synchronized long reserve(long maxWaitNanos) {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    /**
+     * Returns the number of requests that can currently be sent without delay.
+     */
+    synchronized double availableTokens() {
+        refill();
+        return Math.max(0, tokens);
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
@@ -2,10 +2,19 @@ package de.seuhd.campuscoffee.data.mapper;
 
 import de.seuhd.campuscoffee.data.persistence.AddressEntity;
 import de.seuhd.campuscoffee.data.persistence.PosEntity;
+import de.seuhd.campuscoffee.data.persistence.PosRow;
+import de.seuhd.campuscoffee.domain.model.CampusType;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosType;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
 import org.mapstruct.*;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * MapStruct mapper for converting between domain models and JPA entities.
  * This mapper handles the translation between the {@link Pos} domain model and the
@@ -41,6 +50,16 @@ public interface PosEntityMapper {
     @Mapping(target = "houseNumber", expression = "java(mergeHouseNumber(source))")
     Pos fromEntity(PosEntity source);
 
+    /**
+     * Converts a read-only projection of a POS to a domain model, merging the house number like
+     * {@link #fromEntity(PosEntity)}.
+     *
+     * @param source the projection to convert; may be null
+     * @return the domain model, or null if source is null
+     */
+    @Mapping(target = "houseNumber", expression = "java(mergeHouseNumber(source.houseNumber(), source.houseNumberSuffix()))")
+    Pos fromRow(PosRow source);
+
     /**
      * Converts a domain model to a JPA entity.
      * Creates a new AddressEntity and parses the house number string into numeric and suffix parts.
@@ -49,12 +68,16 @@ public interface PosEntityMapper {
      * @return the JPA entity, or null if source is null
      */
     @Mapping(target = "address", expression = "java(splitHouseNumber(source, new AddressEntity()))")
+    @Mapping(target = "searchDocument", ignore = true)
+    @Mapping(target = "version", ignore = true) // managed by JPA; the version of the domain model is the expected one
+    @Mapping(target = "contentHash", ignore = true)
     PosEntity toEntity(Pos source);
 
     /**
      * Updates an existing JPA entity with data from the domain model.
      * This method is intended for update operations where the entity already exists.
-     * JPA-managed fields (id, createdAt, updatedAt) are preserved and not overwritten.
+     * JPA-managed fields (id, createdAt, updatedAt, searchDocument, version, contentHash) are preserved and not
+     * overwritten, and so is the OpenStreetMap metadata if the domain model does not have any.
      * The address is updated in place rather than being replaced, preserving the entity relationship.
      *
      * @param source the domain model containing the new data; must not be null
@@ -64,6 +87,11 @@ public interface PosEntityMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "address", expression = "java(splitHouseNumber(source, target.getAddress()))")
+    @Mapping(target = "searchDocument", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "osmNodeId", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "osmVersion", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateEntity(Pos source, @MappingTarget PosEntity target);
 
     /**
@@ -82,16 +110,60 @@ public interface PosEntityMapper {
      */
     @SuppressWarnings("unused")
     default String mergeHouseNumber(PosEntity source) {
-        if (source.getAddress() == null || source.getAddress().getHouseNumber() == null) {
+        if (source.getAddress() == null) {
+            return null;
+        }
+        return mergeHouseNumber(source.getAddress().getHouseNumber(), source.getAddress().getHouseNumberSuffix());
+    }
+
+    /**
+     * Merges a numeric house number and an optional suffix into a single string.
+     *
+     * @param houseNumber the numeric house number; may be null
+     * @param houseNumberSuffix the suffix; may be null
+     * @return the merged house number string, or null if there is no house number
+     */
+    default String mergeHouseNumber(Integer houseNumber, Character houseNumberSuffix) {
+        if (houseNumber == null) {
             return null;
         }
-        String houseNumberWithSuffix = source.getAddress().getHouseNumber().toString();
-        if (source.getAddress().getHouseNumberSuffix() != null) {
-            houseNumberWithSuffix += source.getAddress().getHouseNumberSuffix();
+        String houseNumberWithSuffix = houseNumber.toString();
+        if (houseNumberSuffix != null) {
+            houseNumberWithSuffix += houseNumberSuffix;
         }
         return houseNumberWithSuffix;
     }
 
+    /**
+     * Converts a tuple of selected columns (see {@link de.seuhd.campuscoffee.data.persistence.PosQueryRepository})
+     * to a domain model. Fields that were not selected are null.
+     *
+     * @param source the tuple whose element aliases are the names of the selected entity attributes
+     * @return the domain model containing the selected fields
+     */
+    default Pos fromTuple(Tuple source) {
+        Set<String> aliases = source.getElements().stream()
+                .map(TupleElement::getAlias)
+                .collect(Collectors.toSet());
+        return Pos.builder()
+                .id(source.get("id", Long.class))
+                .createdAt(aliases.contains("createdAt") ? source.get("createdAt", LocalDateTime.class) : null)
+                .updatedAt(aliases.contains("updatedAt") ? source.get("updatedAt", LocalDateTime.class) : null)
+                .name(aliases.contains("name") ? source.get("name", String.class) : null)
+                .description(aliases.contains("description") ? source.get("description", String.class) : null)
+                .type(aliases.contains("type") ? source.get("type", PosType.class) : null)
+                .campus(aliases.contains("campus") ? source.get("campus", CampusType.class) : null)
+                .street(aliases.contains("street") ? source.get("street", String.class) : null)
+                .houseNumber(aliases.contains("houseNumber")
+                        ? mergeHouseNumber(source.get("houseNumber", Integer.class), source.get("houseNumberSuffix", Character.class))
+                        : null)
+                .postalCode(aliases.contains("postalCode") ? source.get("postalCode", Integer.class) : null)
+                .city(aliases.contains("city") ? source.get("city", String.class) : null)
+                .latitude(aliases.contains("latitude") ? source.get("latitude", Double.class) : null)
+                .longitude(aliases.contains("longitude") ? source.get("longitude", Double.class) : null)
+                .build();
+    }
+
     /**
      * Maps address fields from domain model to entity (i.e., splits house number strings).
      *
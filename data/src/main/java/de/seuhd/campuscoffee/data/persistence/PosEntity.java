@@ -4,7 +4,12 @@ import de.seuhd.campuscoffee.domain.model.CampusType;
 import de.seuhd.campuscoffee.domain.model.PosType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 
@@ -18,9 +23,16 @@ import java.time.ZoneId;
 @AllArgsConstructor
 @Table(name = "pos")
 public class PosEntity {
+    /**
+     * Number of IDs allocated per call of {@code pos_seq} (must match the increment of the sequence): every value
+     * of the sequence reserves the IDs from the value minus the allocation size (exclusive) up to the value.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pos_sequence_generator")
-    @SequenceGenerator(name = "pos_sequence_generator", sequenceName = "pos_seq", allocationSize = 1)
+    // pooled allocation: one sequence round-trip per 50 inserts
+    @SequenceGenerator(name = "pos_sequence_generator", sequenceName = "pos_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(name = "created_at")
@@ -43,6 +55,43 @@ public class PosEntity {
     @Embedded
     private AddressEntity address;
 
+    private Double latitude;
+
+    private Double longitude;
+
+    /**
+     * Version for optimistic concurrency control, incremented on every update.
+     * Updates check the version they are based on instead of locking the row.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * The OpenStreetMap node the POS has been imported from and the version of the node at the last import;
+     * null if the POS has not been imported (unique index {@code pos_osm_node_id_idx}).
+     */
+    @Column(name = "osm_node_id")
+    private Long osmNodeId;
+
+    @Column(name = "osm_version")
+    private Long osmVersion;
+
+    /**
+     * Hash of the content columns (see {@link #computeContentHash()}), used to skip updates that would not
+     * change anything.
+     */
+    @Column(name = "content_hash")
+    private Long contentHash;
+
+    /**
+     * Text that is indexed for full-text search, i.e., the name and the description.
+     * It is written as a {@code tsvector} (column {@code search_vector}, GIN index {@code pos_search_vector_idx}),
+     * but never read back, since the database only uses the column for searching.
+     */
+    @Column(name = "search_vector")
+    @ColumnTransformer(read = "CAST(NULL AS text)", write = "to_tsvector('simple', ?)")
+    private String searchDocument;
+
     /**
      * JPA lifecycle callback: set timestamps before persisting a new entity.
      * This ensures timestamps reflect actual database operation time.
@@ -52,6 +101,8 @@ public class PosEntity {
         LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
         createdAt = now;
         updatedAt = now;
+        updateSearchDocument();
+        contentHash = computeContentHash();
     }
 
     /**
@@ -61,5 +112,42 @@ public class PosEntity {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now(ZoneId.of("UTC"));
+        updateSearchDocument();
+        contentHash = computeContentHash();
+    }
+
+    /**
+     * Derives the search document from the indexed fields (must match the expression in migration V5).
+     */
+    private void updateSearchDocument() {
+        searchDocument = description == null ? name : name + " " + description;
+    }
+
+    /**
+     * Computes a hash of the content columns, i.e., of everything clients can change, but not of the ID,
+     * the timestamps, the version, and the OpenStreetMap metadata.
+     * The hash consists of the first 64 bits of the SHA-256 digest of the column values (nulls are distinguished
+     * from empty strings), so two different contents practically never have the same hash.
+     *
+     * @return the content hash
+     */
+    public long computeContentHash() {
+        StringBuilder content = new StringBuilder();
+        for (Object value : new Object[]{name, description, type, campus,
+                address == null ? null : address.getStreet(),
+                address == null ? null : address.getHouseNumber(),
+                address == null ? null : address.getHouseNumberSuffix(),
+                address == null ? null : address.getPostalCode(),
+                address == null ? null : address.getCity(),
+                latitude, longitude}) {
+            // values are separated by a unit separator, nulls are marked by a NUL character
+            content.append(value == null ? "\u0000" : value.toString()).append('\u001f');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,100 @@
+package de.seuhd.campuscoffee.data.persistence;
+
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment for dynamic POS queries, i.e., queries whose filter criteria or selected columns
+ * depend on the request, for reading {@link PosRow} projections, and for single-statement writes.
+ * Pages are read with keyset pagination ({@code WHERE ... AND id > ? ORDER BY id LIMIT ?}); the filter criteria
+ * are backed by the indexes created in migration {@code V4}, whose last column is the ID, so that a filtered
+ * page is read from the index in ID order without sorting the matching rows.
+ * Tuple results have element aliases that are the names of the selected {@link PosEntity} or
+ * {@link AddressEntity} attributes (e.g., "name", "houseNumber", "houseNumberSuffix").
+ */
+public interface PosQueryRepository {
+    /**
+     * Reads a page of POS that match the filter and have an ID greater than the given one.
+     */
+    List<PosRow> findPage(Long id, int limit, PosFilter filter);
+
+    /**
+     * Like {@link #findPage(Long, int, PosFilter)}, but only selects the columns of the given fields.
+     */
+    List<Tuple> findFieldsPage(Long id, int limit, PosFilter filter, Set<PosField> fields);
+
+    /**
+     * Selects the columns of the given fields of a single POS.
+     */
+    Optional<Tuple> findFieldsById(Long id, Set<PosField> fields);
+
+    Optional<PosRow> findRowById(Long id);
+
+    /**
+     * Finds the POS imported from the given OpenStreetMap nodes using the unique index {@code pos_osm_node_id_idx}.
+     */
+    List<PosRow> findRowsByOsmNodeIdIn(Collection<Long> osmNodeIds);
+
+    /**
+     * Streams all POS in ID order, fetching the given number of rows per round trip.
+     * PostgreSQL only honors the fetch size inside a transaction, which must stay open until the stream is closed.
+     */
+    Stream<PosRow> streamRows(int fetchSize);
+
+    /**
+     * Full-text search using the GIN index on {@code search_vector}; only matching rows are ranked and sorted.
+     *
+     * @param query the text search query in {@code to_tsquery} syntax
+     */
+    List<PosRow> search(String query, long offset, int limit);
+
+    /**
+     * Nearest-neighbor search using the GiST index on {@code ll_to_earth(latitude, longitude)}:
+     * the bounding box around the location is evaluated by the index, the exact radius only for the rows inside,
+     * and the rows are returned in distance order by a KNN index scan.
+     *
+     * @param radius the maximum distance in meters
+     */
+    List<PosRow> findNearby(double latitude, double longitude, double radius, int limit);
+
+    /**
+     * Inserts a new POS with a single statement ({@code INSERT ... ON CONFLICT (name) DO NOTHING RETURNING *}).
+     * The ID is allocated by the entity's ID generator, the version starts at 0, and the timestamps and
+     * search document are set like by the lifecycle hooks of {@link PosEntity}.
+     *
+     * @param posEntity the POS to insert; its ID must be null
+     * @return the inserted POS (detached), or empty if another POS already has the same name
+     */
+    Optional<PosEntity> insertIfNameIsUnused(PosEntity posEntity);
+
+    /**
+     * Updates an existing POS with a single statement ({@code UPDATE ... RETURNING *}), unless another POS
+     * already has the new name, the POS does not have the expected version, or the stored content hash equals
+     * the new one (nothing would change). The version is incremented and the creation timestamp is kept;
+     * the update timestamp, search document, and content hash are set like by the lifecycle hooks of
+     * {@link PosEntity}. OpenStreetMap metadata that is null in the given entity is kept; if only the metadata
+     * differs, it must be written with {@link #updateOsmMetadata(Long, Long, Long)}.
+     *
+     * @param posEntity the new state of the POS; its ID must be set
+     * @param expectedVersion the version the update is based on; null to update regardless of the version
+     * @return the updated POS (detached), or empty if the POS does not exist, does not have the expected version,
+     *         already has the same content, or another POS has the same name
+     */
+    Optional<PosEntity> updateIfNameIsUnused(PosEntity posEntity, Long expectedVersion);
+
+    /**
+     * Writes the OpenStreetMap metadata of a POS without changing its version, its update timestamp, or its
+     * content, e.g., when a new version of its node only changed tags that are not imported.
+     * Metadata that is null is kept.
+     *
+     * @return true if the metadata has changed; false if the POS does not exist or already has the metadata
+     */
+    boolean updateOsmMetadata(Long id, Long osmNodeId, Long osmVersion);
+}
@@ -0,0 +1,336 @@
+package de.seuhd.campuscoffee.data.persistence;
+
+import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PosQueryRepository} fragment using JPQL and native queries.
+ * Only whitelisted attribute paths are ever added to the queries and all values are bound as parameters,
+ * so request parameters cannot be used to inject JPQL.
+ * Whole POS are read as {@link PosRow} projections: JPQL queries use a constructor expression and native queries
+ * a tuple transformer over explicitly typed scalars, so no entity is ever hydrated for reading.
+ */
+@RequiredArgsConstructor
+class PosQueryRepositoryImpl implements PosQueryRepository {
+    private static final Map<PosField, List<String>> PATHS = new EnumMap<>(Map.ofEntries(
+            Map.entry(PosField.ID, List.of("id")),
+            Map.entry(PosField.CREATED_AT, List.of("createdAt")),
+            Map.entry(PosField.UPDATED_AT, List.of("updatedAt")),
+            Map.entry(PosField.NAME, List.of("name")),
+            Map.entry(PosField.DESCRIPTION, List.of("description")),
+            Map.entry(PosField.TYPE, List.of("type")),
+            Map.entry(PosField.CAMPUS, List.of("campus")),
+            Map.entry(PosField.STREET, List.of("address.street")),
+            Map.entry(PosField.HOUSE_NUMBER, List.of("address.houseNumber", "address.houseNumberSuffix")),
+            Map.entry(PosField.POSTAL_CODE, List.of("address.postalCode")),
+            Map.entry(PosField.CITY, List.of("address.city")),
+            Map.entry(PosField.LATITUDE, List.of("latitude")),
+            Map.entry(PosField.LONGITUDE, List.of("longitude"))
+    ));
+
+    private static final String SELECT_ROW = "SELECT new " + PosRow.class.getName() + """
+            (p.id, p.createdAt, p.updatedAt, p.name, p.description, p.type, p.campus, p.address.street,
+             p.address.houseNumber, p.address.houseNumberSuffix, p.address.postalCode, p.address.city, p.latitude,
+             p.longitude, p.version, p.osmNodeId, p.osmVersion)
+            FROM PosEntity p""";
+
+    // the columns of PosRow in native queries; they are read by the tuple transformer of nativeRowQuery
+    private static final String ROW_COLUMNS = """
+            p.id, p.created_at, p.updated_at, p.name, p.description, p.type, p.campus, p.street, p.house_number,
+            p.house_number_suffix, p.postal_code, p.city, p.latitude, p.longitude, p.version, p.osm_node_id,
+            p.osm_version""";
+
+    private static final String SEARCH = """
+            SELECT %s FROM pos p, to_tsquery('simple', :query) q
+            WHERE p.search_vector @@ q
+            ORDER BY ts_rank(p.search_vector, q) DESC, p.id
+            OFFSET :offset LIMIT :limit""".formatted(ROW_COLUMNS);
+
+    private static final String NEARBY = """
+            SELECT %s FROM pos p
+            WHERE earth_box(ll_to_earth(:latitude, :longitude), :radius) @> ll_to_earth(p.latitude, p.longitude)
+            AND earth_distance(ll_to_earth(:latitude, :longitude), ll_to_earth(p.latitude, p.longitude)) <= :radius
+            ORDER BY ll_to_earth(p.latitude, p.longitude) <-> ll_to_earth(:latitude, :longitude), p.id
+            LIMIT :limit""".formatted(ROW_COLUMNS);
+
+    private static final String INSERT = """
+            INSERT INTO pos (id, created_at, updated_at, name, description, type, campus, street, house_number,
+                             house_number_suffix, postal_code, city, latitude, longitude, search_vector, version,
+                             osm_node_id, osm_version, content_hash)
+            VALUES (:id, :createdAt, :updatedAt, :name, :description, :type, :campus, :street, :houseNumber,
+                    :houseNumberSuffix, :postalCode, :city, :latitude, :longitude, to_tsvector('simple', :searchDocument),
+                    :version, :osmNodeId, :osmVersion, :contentHash)
+            ON CONFLICT (name) DO NOTHING
+            RETURNING *""";
+
+    private static final String UPDATE = """
+            UPDATE pos SET updated_at = :updatedAt, name = :name, description = :description, type = :type,
+                           campus = :campus, street = :street, house_number = :houseNumber,
+                           house_number_suffix = :houseNumberSuffix, postal_code = :postalCode, city = :city,
+                           latitude = :latitude, longitude = :longitude,
+                           search_vector = to_tsvector('simple', :searchDocument), version = version + 1,
+                           osm_node_id = COALESCE(CAST(:osmNodeId AS bigint), osm_node_id),
+                           osm_version = COALESCE(CAST(:osmVersion AS bigint), osm_version),
+                           content_hash = :contentHash
+            WHERE id = :id AND (CAST(:version AS bigint) IS NULL OR version = :version)
+            AND content_hash IS DISTINCT FROM :contentHash
+            AND NOT EXISTS (SELECT 1 FROM pos other WHERE other.name = :name AND other.id <> :id)
+            RETURNING *""";
+
+    private static final String UPDATE_OSM_METADATA = """
+            UPDATE pos SET osm_node_id = COALESCE(CAST(:osmNodeId AS bigint), osm_node_id),
+                           osm_version = COALESCE(CAST(:osmVersion AS bigint), osm_version)
+            WHERE id = :id
+            AND (osm_node_id, osm_version) IS DISTINCT FROM
+                (COALESCE(CAST(:osmNodeId AS bigint), osm_node_id), COALESCE(CAST(:osmVersion AS bigint), osm_version))""";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<PosRow> findPage(Long id, int limit, PosFilter filter) {
+        return page(SELECT_ROW, PosRow.class, id, limit, filter);
+    }
+
+    @Override
+    public List<Tuple> findFieldsPage(Long id, int limit, PosFilter filter, Set<PosField> fields) {
+        return page(select(fields), Tuple.class, id, limit, filter);
+    }
+
+    @Override
+    public Optional<Tuple> findFieldsById(Long id, Set<PosField> fields) {
+        return entityManager.createQuery(select(fields) + " WHERE p.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public Optional<PosRow> findRowById(Long id) {
+        return entityManager.createQuery(SELECT_ROW + " WHERE p.id = :id", PosRow.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<PosRow> findRowsByOsmNodeIdIn(Collection<Long> osmNodeIds) {
+        return entityManager.createQuery(SELECT_ROW + " WHERE p.osmNodeId IN :osmNodeIds", PosRow.class)
+                .setParameter("osmNodeIds", osmNodeIds)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<PosRow> streamRows(int fetchSize) {
+        return entityManager.createQuery(SELECT_ROW + " ORDER BY p.id", PosRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public List<PosRow> search(String query, long offset, int limit) {
+        return nativeRowQuery(SEARCH)
+                .setParameter("query", query)
+                .setParameter("offset", offset)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PosRow> findNearby(double latitude, double longitude, double radius, int limit) {
+        return nativeRowQuery(NEARBY)
+                .setParameter("latitude", latitude)
+                .setParameter("longitude", longitude)
+                .setParameter("radius", radius)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<PosEntity> insertIfNameIsUnused(PosEntity posEntity) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        // use the pooled ID generator of the entity, so that native and JPA inserts share the same ID blocks
+        BeforeExecutionGenerator idGenerator = (BeforeExecutionGenerator) session
+                .getEntityPersister(null, posEntity)
+                .getGenerator();
+        posEntity.setId((Long) idGenerator.generate(session, posEntity, null, EventType.INSERT));
+        posEntity.setVersion(0L);
+        posEntity.onCreate();
+        return execute(writeQuery(INSERT, posEntity)
+                .setParameter("createdAt", posEntity.getCreatedAt(), LocalDateTime.class));
+    }
+
+    @Override
+    public Optional<PosEntity> updateIfNameIsUnused(PosEntity posEntity, Long expectedVersion) {
+        posEntity.setVersion(expectedVersion);
+        posEntity.onUpdate();
+        // make sure that the returned row is not replaced by a stale instance from the persistence context
+        // (detaching an uninitialized reference does not hit the database)
+        entityManager.detach(entityManager.getReference(PosEntity.class, posEntity.getId()));
+        return execute(writeQuery(UPDATE, posEntity));
+    }
+
+    @Override
+    public boolean updateOsmMetadata(Long id, Long osmNodeId, Long osmVersion) {
+        @SuppressWarnings("unchecked")
+        NativeQuery<Void> query = entityManager.createNativeQuery(UPDATE_OSM_METADATA)
+                .unwrap(NativeQuery.class);
+        return query.addSynchronizedEntityClass(PosEntity.class)
+                .setParameter("id", id, Long.class)
+                .setParameter("osmNodeId", osmNodeId, Long.class)
+                .setParameter("osmVersion", osmVersion, Long.class)
+                .executeUpdate() > 0;
+    }
+
+    /**
+     * Creates a native write query and binds all columns except the creation timestamp
+     * (the version is bound as is, i.e., as the initial version for inserts and the expected version for updates).
+     * All parameters are bound with an explicit type, because null values are otherwise bound with an unknown
+     * type (missing required values must fail with a constraint violation rather than a type error).
+     */
+    private NativeQuery<PosEntity> writeQuery(String sql, PosEntity posEntity) {
+        AddressEntity address = posEntity.getAddress();
+        @SuppressWarnings("unchecked")
+        NativeQuery<PosEntity> query = entityManager.createNativeQuery(sql, PosEntity.class)
+                .unwrap(NativeQuery.class);
+        return query.setParameter("id", posEntity.getId(), Long.class)
+                .setParameter("updatedAt", posEntity.getUpdatedAt(), LocalDateTime.class)
+                .setParameter("name", posEntity.getName(), String.class)
+                .setParameter("description", posEntity.getDescription(), String.class)
+                .setParameter("type", posEntity.getType() == null ? null : posEntity.getType().name(), String.class)
+                .setParameter("campus", posEntity.getCampus() == null ? null : posEntity.getCampus().name(), String.class)
+                .setParameter("street", address.getStreet(), String.class)
+                .setParameter("houseNumber", address.getHouseNumber(), Integer.class)
+                .setParameter("houseNumberSuffix", address.getHouseNumberSuffix() == null
+                        ? null : address.getHouseNumberSuffix().toString(), String.class)
+                .setParameter("postalCode", address.getPostalCode(), Integer.class)
+                .setParameter("city", address.getCity(), String.class)
+                .setParameter("latitude", posEntity.getLatitude(), Double.class)
+                .setParameter("longitude", posEntity.getLongitude(), Double.class)
+                .setParameter("searchDocument", posEntity.getSearchDocument(), String.class)
+                .setParameter("version", posEntity.getVersion(), Long.class)
+                .setParameter("osmNodeId", posEntity.getOsmNodeId(), Long.class)
+                .setParameter("osmVersion", posEntity.getOsmVersion(), Long.class)
+                .setParameter("contentHash", posEntity.getContentHash(), Long.class);
+    }
+
+    /**
+     * Creates a native query that selects the {@link #ROW_COLUMNS} and converts every row to a {@link PosRow}.
+     * The scalars are typed explicitly, so that the driver's defaults (e.g., {@code java.sql.Timestamp}) never
+     * leak into the rows; enums are read as their names like by {@code @Enumerated(EnumType.STRING)}.
+     */
+    private NativeQuery<PosRow> nativeRowQuery(String sql) {
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class);
+        return query.addScalar("id", Long.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("name", String.class)
+                .addScalar("description", String.class)
+                .addScalar("type", String.class)
+                .addScalar("campus", String.class)
+                .addScalar("street", String.class)
+                .addScalar("house_number", Integer.class)
+                .addScalar("house_number_suffix", Character.class)
+                .addScalar("postal_code", Integer.class)
+                .addScalar("city", String.class)
+                .addScalar("latitude", Double.class)
+                .addScalar("longitude", Double.class)
+                .addScalar("version", Long.class)
+                .addScalar("osm_node_id", Long.class)
+                .addScalar("osm_version", Long.class)
+                .setTupleTransformer((tuple, aliases) -> new PosRow(
+                        (Long) tuple[0],
+                        (LocalDateTime) tuple[1],
+                        (LocalDateTime) tuple[2],
+                        (String) tuple[3],
+                        (String) tuple[4],
+                        PosType.valueOf((String) tuple[5]),
+                        CampusType.valueOf((String) tuple[6]),
+                        (String) tuple[7],
+                        (Integer) tuple[8],
+                        (Character) tuple[9],
+                        (Integer) tuple[10],
+                        (String) tuple[11],
+                        (Double) tuple[12],
+                        (Double) tuple[13],
+                        (Long) tuple[14],
+                        (Long) tuple[15],
+                        (Long) tuple[16]));
+    }
+
+    private Optional<PosEntity> execute(NativeQuery<PosEntity> query) {
+        List<PosEntity> written = query.getResultList();
+        written.forEach(entityManager::detach);
+        return written.stream().findFirst();
+    }
+
+    /**
+     * Appends the filter criteria and the keyset condition to the given select clause and reads one page.
+     * Only criteria that are set are added to the query, so that the planner can pick the matching index.
+     */
+    private <T> List<T> page(String select, Class<T> resultClass, Long id, int limit, PosFilter filter) {
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        if (filter.campus() != null) {
+            criteria.put("campus", filter.campus());
+        }
+        if (filter.type() != null) {
+            criteria.put("type", filter.type());
+        }
+        if (filter.city() != null) {
+            criteria.put("address.city", filter.city());
+        }
+        if (filter.postalCode() != null) {
+            criteria.put("address.postalCode", filter.postalCode());
+        }
+
+        StringBuilder jpql = new StringBuilder(select).append(" WHERE");
+        criteria.keySet().forEach(path -> jpql.append(" p.").append(path).append(" = :").append(parameterName(path)).append(" AND"));
+        jpql.append(" p.id > :id ORDER BY p.id");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultClass)
+                .setParameter("id", id)
+                .setMaxResults(limit);
+        criteria.forEach((path, value) -> query.setParameter(parameterName(path), value));
+        return query.getResultList();
+    }
+
+    private static String parameterName(String path) {
+        return path.substring(path.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Builds the select clause; every path is aliased with its last segment (see {@link #parameterName(String)}).
+     */
+    private static String select(Set<PosField> fields) {
+        if (!fields.contains(PosField.ID)) {
+            throw new IllegalArgumentException("The ID must always be selected.");
+        }
+        return fields.stream()
+                .flatMap(field -> PATHS.get(field).stream())
+                .map(path -> "p." + path + " AS " + parameterName(path))
+                .collect(Collectors.joining(", ", "SELECT ", " FROM PosEntity p"));
+    }
+}
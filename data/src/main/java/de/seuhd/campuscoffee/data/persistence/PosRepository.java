@@ -1,16 +1,66 @@
 package de.seuhd.campuscoffee.data.persistence;
 
-import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository for persisting point-of-sale (POS) entities.
  */
-public interface PosRepository extends JpaRepository<PosEntity, Long> {
-    @Modifying
-    @Transactional
-    @Query(value = "ALTER SEQUENCE pos_seq RESTART WITH 1", nativeQuery = true)
-    void resetSequence();
+public interface PosRepository extends JpaRepository<PosEntity, Long>, PosQueryRepository {
+    @Query("SELECT p.version AS version, p.updatedAt AS updatedAt FROM PosEntity p WHERE p.id = :id")
+    Optional<PosVersionView> findVersionById(Long id);
+
+    /**
+     * Projection for reading the version of a single POS without loading the entity.
+     */
+    interface PosVersionView {
+        long getVersion();
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Reads the latest update timestamp from the end of the index {@code pos_updated_at_idx}, without scanning
+     * the table. The timestamps are taken from the application clock, so the result is only a hint for
+     * {@code Last-Modified}; changes are detected by {@link #findChangeCounts()}.
+     */
+    @Query("SELECT MAX(p.updatedAt) FROM PosEntity p")
+    Optional<LocalDateTime> findLastModified();
+
+    /**
+     * Reads the number of transactions that inserted or updated POS and the number of statements that removed POS,
+     * which are counted by triggers (migrations {@code V10} and {@code V9}), in a single statement.
+     */
+    @Query(value = "SELECT c.count AS changes, d.count AS deletions FROM pos_changes c CROSS JOIN pos_deletions d",
+            nativeQuery = true)
+    PosChangeCountsView findChangeCounts();
+
+    /**
+     * Projection for reading both change counters of the POS collection.
+     */
+    interface PosChangeCountsView {
+        long getChanges();
+        long getDeletions();
+    }
+
+    @Query("SELECT p.osmNodeId FROM PosEntity p WHERE p.osmNodeId IS NOT NULL")
+    List<Long> findAllOsmNodeIds();
+
+    @Query("SELECT p.id AS id, p.name AS name FROM PosEntity p WHERE p.name IN :names")
+    List<PosNameView> findNamesIn(Collection<String> names);
+
+    @Query("SELECT p.id AS id, p.name AS name FROM PosEntity p")
+    List<PosNameView> findAllNames();
+
+    /**
+     * Projection for looking up which POS currently use a name.
+     */
+    interface PosNameView {
+        Long getId();
+        String getName();
+    }
 }
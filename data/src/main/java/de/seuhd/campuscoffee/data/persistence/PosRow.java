@@ -0,0 +1,32 @@
+package de.seuhd.campuscoffee.data.persistence;
+
+import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.PosType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a row of the {@code pos} table, i.e., of the columns of a {@link PosEntity} that are
+ * exposed by the domain model.
+ * Rows are created directly from the result set (constructor expression or tuple transformer), so reading them
+ * neither creates managed entities nor snapshots for dirty checking.
+ */
+public record PosRow(
+        Long id,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        String name,
+        String description,
+        PosType type,
+        CampusType campus,
+        String street,
+        Integer houseNumber,
+        Character houseNumberSuffix,
+        Integer postalCode,
+        String city,
+        Double latitude,
+        Double longitude,
+        Long version,
+        Long osmNodeId,
+        Long osmVersion
+) {}
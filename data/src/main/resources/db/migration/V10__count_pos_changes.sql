@@ -0,0 +1,26 @@
+-- number of transactions that inserted or updated POS, which replaces MAX(updated_at) in the collection version used
+-- in conditional GET requests: updated_at is taken from the application clock when a write is prepared, so a
+-- transaction that commits after a later-stamped one does not raise it, whereas this counter is updated in the
+-- writing transaction and changes exactly when the write becomes visible
+CREATE TABLE pos_changes (
+    id boolean PRIMARY KEY DEFAULT true CHECK (id),
+    count bigint NOT NULL
+);
+INSERT INTO pos_changes (id, count) VALUES (true, 0);
+
+-- the counter is incremented once per transaction at commit time: taking the row lock of the counter last keeps
+-- writers from deadlocking on it while they still hold locks on POS rows, and the transaction-local setting skips
+-- the update for all further rows of the transaction
+CREATE FUNCTION count_pos_changes() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    IF coalesce(current_setting('campus_coffee.pos_changes_counted', true), '') = '' THEN
+        UPDATE pos_changes SET count = count + 1;
+        PERFORM set_config('campus_coffee.pos_changes_counted', 'true', true);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE CONSTRAINT TRIGGER pos_changes_trigger AFTER INSERT OR UPDATE ON pos
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW EXECUTE FUNCTION count_pos_changes();
@@ -0,0 +1,2 @@
+-- supports MAX(updated_at) for the collection version used in conditional GET requests
+CREATE INDEX pos_updated_at_idx ON pos (updated_at);
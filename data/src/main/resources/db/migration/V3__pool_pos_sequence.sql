@@ -0,0 +1,2 @@
+-- Hibernate's pooled optimizer allocates 50 IDs per sequence call (see allocationSize in PosEntity)
+ALTER SEQUENCE pos_seq INCREMENT BY 50;
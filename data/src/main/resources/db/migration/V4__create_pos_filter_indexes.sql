@@ -0,0 +1,6 @@
+-- indexes for the filters of GET /api/pos; the ID is the last column, so that a filtered page
+-- (WHERE ... AND id > ? ORDER BY id LIMIT ?) is read in ID order directly from the index without sorting
+CREATE INDEX pos_campus_type_idx ON pos (campus, type, id);
+CREATE INDEX pos_type_idx ON pos (type, id);
+CREATE INDEX pos_postal_code_idx ON pos (postal_code, id);
+CREATE INDEX pos_city_idx ON pos (city, id);
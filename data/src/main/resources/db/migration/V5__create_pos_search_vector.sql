@@ -0,0 +1,6 @@
+-- full-text search over name and description; the column is maintained by the lifecycle hooks of PosEntity
+ALTER TABLE pos ADD COLUMN search_vector tsvector;
+
+UPDATE pos SET search_vector = to_tsvector('simple', concat_ws(' ', name, description));
+
+CREATE INDEX pos_search_vector_idx ON pos USING GIN (search_vector);
@@ -0,0 +1,10 @@
+-- location of the POS; nearby queries use the earthdistance extension (which depends on cube), where
+-- ll_to_earth maps a location to a point in 3D space whose Euclidean distances preserve the ordering of
+-- great-circle distances, so the GiST index supports both bounding-box filters and nearest-neighbor ordering
+CREATE EXTENSION IF NOT EXISTS cube;
+CREATE EXTENSION IF NOT EXISTS earthdistance;
+
+ALTER TABLE pos ADD COLUMN latitude double precision CHECK (latitude BETWEEN -90 AND 90);
+ALTER TABLE pos ADD COLUMN longitude double precision CHECK (longitude BETWEEN -180 AND 180);
+
+CREATE INDEX pos_location_idx ON pos USING gist (ll_to_earth(latitude, longitude));
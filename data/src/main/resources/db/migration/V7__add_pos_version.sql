@@ -0,0 +1,3 @@
+-- version of every POS for optimistic concurrency control: incremented on every update, so that writers can
+-- detect lost updates by checking the version they read instead of locking the row
+ALTER TABLE pos ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- the OpenStreetMap node a POS has been imported from and the version of the node at the last import, so that
+-- re-imports update the POS of the node and skip nodes that have not changed since
+ALTER TABLE pos ADD COLUMN osm_node_id bigint;
+ALTER TABLE pos ADD COLUMN osm_version bigint;
+CREATE UNIQUE INDEX pos_osm_node_id_idx ON pos (osm_node_id) WHERE osm_node_id IS NOT NULL;
+
+-- hash of the content columns (see PosEntity), so that updates that would not change anything are skipped;
+-- null for existing rows until their next update
+ALTER TABLE pos ADD COLUMN content_hash bigint;
@@ -0,0 +1,18 @@
+-- number of statements that removed POS, so that the collection version used in conditional GET requests can be
+-- derived from MAX(updated_at) (index pos_updated_at_idx) and this counter instead of counting all rows;
+-- the counter is updated in the deleting transaction, so it changes exactly when the deletion becomes visible
+CREATE TABLE pos_deletions (
+    id boolean PRIMARY KEY DEFAULT true CHECK (id),
+    count bigint NOT NULL
+);
+INSERT INTO pos_deletions (id, count) VALUES (true, 0);
+
+CREATE FUNCTION count_pos_deletions() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE pos_deletions SET count = count + 1;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER pos_deletions_trigger AFTER DELETE OR TRUNCATE ON pos
+    FOR EACH STATEMENT EXECUTE FUNCTION count_pos_deletions();
@@ -0,0 +1,73 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import de.seuhd.campuscoffee.domain.model.ConnectionPoolStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests installing the monitor as metrics tracker of the pool and aggregating the reported hold and wait times.
+ */
+class ConnectionPoolMonitorTest {
+
+    private final ConnectionPoolMonitor monitor = new ConnectionPoolMonitor();
+
+    @Test
+    void installsItselfAsMetricsTrackerOfHikariPool() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            monitor.postProcessBeforeInitialization(dataSource, "dataSource");
+
+            assertThat(dataSource.getMetricsTrackerFactory()).isSameAs(monitor);
+        }
+    }
+
+    @Test
+    void getStatisticsAggregatesHoldAndWaitTimes() {
+        IMetricsTracker tracker = monitor.create("pool", new PoolStats(0) {
+            @Override
+            protected void update() {
+                activeConnections = 2;
+                idleConnections = 3;
+                maxConnections = 10;
+                pendingThreads = 1;
+            }
+        });
+        for (int checkout = 0; checkout < 99; checkout++) {
+            tracker.recordConnectionUsageMillis(3);
+        }
+        tracker.recordConnectionUsageMillis(1000);
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        tracker.recordConnectionTimeout();
+
+        ConnectionPoolStatistics statistics = monitor.getStatistics();
+
+        assertThat(statistics.activeConnections()).isEqualTo(2);
+        assertThat(statistics.idleConnections()).isEqualTo(3);
+        assertThat(statistics.maxConnections()).isEqualTo(10);
+        assertThat(statistics.pendingThreads()).isEqualTo(1);
+        assertThat(statistics.checkouts()).isEqualTo(100);
+        assertThat(statistics.holdTimeMeanMillis()).isEqualTo(12.97);
+        // 3 ms is in the bucket of 2-3 ms
+        assertThat(statistics.holdTimeP99Millis()).isEqualTo(3);
+        assertThat(statistics.holdTimeMaxMillis()).isEqualTo(1000);
+        assertThat(statistics.waitTimeMeanMillis()).isEqualTo(2.0);
+        assertThat(statistics.waitTimeMaxMillis()).isEqualTo(3.0);
+        assertThat(statistics.timeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void getStatisticsWithoutCheckoutsIsZero() {
+        ConnectionPoolStatistics statistics = monitor.getStatistics();
+
+        assertThat(statistics.checkouts()).isZero();
+        assertThat(statistics.holdTimeMeanMillis()).isZero();
+        assertThat(statistics.holdTimeP99Millis()).isZero();
+        assertThat(statistics.maxConnections()).isZero();
+    }
+}
@@ -0,0 +1,53 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests reading CSV records with quoted fields, line breaks in fields, and different line endings.
+ */
+class CsvReaderTest {
+
+    @Test
+    void readRecordSplitsFieldsAndUnquotes() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("""
+                name,description,houseNumber
+                "Café ""Botanik\""","Coffee, cake,
+                and snacks",21a
+                Mensa,,1"""));
+
+        assertThat(reader.readRecord()).containsExactly("name", "description", "houseNumber");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.readRecord()).containsExactly("Café \"Botanik\"", "Coffee, cake,\nand snacks", "21a");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.readRecord()).containsExactly("Mensa", "", "1");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readRecordHandlesCrLfAndBlankLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\n\r\nc,d\r\n"));
+
+        assertThat(reader.readRecord()).containsExactly("a", "b");
+        assertThat(reader.readRecord()).isEqualTo(List.of(""));
+        assertThat(reader.readRecord()).containsExactly("c", "d");
+        assertThat(reader.recordLine()).isEqualTo(3);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readRecordRejectsUnterminatedQuote() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"c,d\n"));
+
+        reader.readRecord();
+        assertThatThrownBy(reader::readRecord)
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -2,24 +2,39 @@ package de.seuhd.campuscoffee.data.impl;
 
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
 import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.model.OsmNodeCacheStatistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,27 +62,36 @@ class OsmDataServiceImplTest {
     private HttpClient httpClient;
 
     @Mock
-    private HttpResponse<InputStream> httpResponse;
+    private HttpResponse<byte[]> httpResponse;
 
     @Captor
     private ArgumentCaptor<HttpRequest> requestCaptor;
 
+    @TempDir
+    private Path cacheDirectory;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private OsmNodeCache cache;
+
     private OsmDataServiceImpl dataService;
 
     @BeforeEach
     void setUp() {
-        dataService = new OsmDataServiceImpl(httpClient);
+        lenient().when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of(), (name, value) -> true));
+        cache = new OsmNodeCache(cacheDirectory, Duration.ofDays(7), clock::get);
+        dataService = new OsmDataServiceImpl(httpClient, cache);
     }
 
     @Test
     void fetchNodeParsesXmlResponse() throws Exception {
         when(httpResponse.statusCode()).thenReturn(200);
-        when(httpResponse.body()).thenReturn(new ByteArrayInputStream(SAMPLE_XML.getBytes(StandardCharsets.UTF_8)));
-        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(httpResponse);
+        when(httpResponse.body()).thenReturn(SAMPLE_XML.getBytes(StandardCharsets.UTF_8));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
 
         OsmNode osmNode = dataService.fetchNode(5589879349L);
 
-        verify(httpClient).send(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        verify(httpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
         assertThat(requestCaptor.getValue().uri().toString())
                 .isEqualTo("https://www.openstreetmap.org/api/0.6/node/5589879349");
 
@@ -89,7 +113,7 @@ class OsmDataServiceImplTest {
     @Test
     void fetchNodeTranslatesNotFound() throws Exception {
         when(httpResponse.statusCode()).thenReturn(404);
-        when(httpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(httpResponse);
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
 
         assertThatThrownBy(() -> dataService.fetchNode(999L))
                 .isInstanceOf(OsmNodeNotFoundException.class);
@@ -100,4 +124,136 @@ class OsmDataServiceImplTest {
         assertThatThrownBy(() -> dataService.fetchNode(0L))
                 .isInstanceOf(IllegalArgumentException.class);
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchNodesUsesMultiFetchAndIsolatesMissingNodes() throws Exception {
+        HttpResponse<byte[]> notFound = mock(HttpResponse.class);
+        when(notFound.statusCode()).thenReturn(404);
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn(SAMPLE_XML.getBytes(StandardCharsets.UTF_8));
+        when(httpClient.sendAsync(argThat(request -> request != null && request.uri().toString().endsWith("/nodes?nodes=5589879349,999")),
+                any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(notFound));
+        when(httpClient.sendAsync(argThat(request -> request != null && request.uri().toString().endsWith("/node/999")),
+                any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(notFound));
+        when(httpClient.sendAsync(argThat(request -> request != null && request.uri().toString().endsWith("/node/5589879349")),
+                any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
+
+        Map<Long, OsmNode> osmNodes = dataService.fetchNodes(List.of(5589879349L, 999L, 5589879349L));
+
+        assertThat(osmNodes).containsOnlyKeys(5589879349L);
+        assertThat(osmNodes.get(5589879349L).name()).isEqualTo("Rada Coffee & Rösterei");
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void fetchNodesParsesMultiFetchResponse() throws Exception {
+        String multiXml = SAMPLE_XML.replace("</osm>", """
+                  <node id="42" lat="49.4" lon="8.7" visible="true">
+                    <tag k="name" v="Second Café"/>
+                  </node>
+                  <node id="43" visible="false"/>
+                </osm>
+                """);
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn(multiXml.getBytes(StandardCharsets.UTF_8));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
+
+        Map<Long, OsmNode> osmNodes = dataService.fetchNodes(List.of(5589879349L, 42L, 43L));
+
+        verify(httpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertThat(requestCaptor.getValue().uri().toString())
+                .isEqualTo("https://www.openstreetmap.org/api/0.6/nodes?nodes=5589879349,42,43");
+        assertThat(osmNodes).containsOnlyKeys(5589879349L, 42L);
+        assertThat(osmNodes.get(42L).name()).isEqualTo("Second Café");
+    }
+
+    @Test
+    void fetchNodeDoesNotResolveExternalEntities() throws Exception {
+        String xxeXml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE osm [<!ENTITY xxe SYSTEM "file:///etc/hostname">]>
+                <osm version="0.6">
+                  <node id="1" lat="49.4" lon="8.7">
+                    <tag k="name" v="&xxe;"/>
+                  </node>
+                </osm>
+                """;
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn(xxeXml.getBytes(StandardCharsets.UTF_8));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
+
+        assertThatThrownBy(() -> dataService.fetchNode(1L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Failed to parse");
+    }
+
+    @Test
+    void fetchNodeServesCachedNodeWithoutRequest() throws Exception {
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn(SAMPLE_XML.getBytes(StandardCharsets.UTF_8));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse));
+
+        OsmNode fetched = dataService.fetchNode(5589879349L);
+        OsmNode cached = dataService.fetchNode(5589879349L);
+        Map<Long, OsmNode> cachedNodes = dataService.fetchNodes(List.of(5589879349L, 5589879349L));
+
+        assertThat(cached).isEqualTo(fetched);
+        assertThat(cachedNodes).containsExactly(Map.entry(5589879349L, fetched));
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        // a new instance reads the entries written by earlier runs
+        OsmNodeCacheStatistics statistics = new OsmNodeCache(cacheDirectory, Duration.ofDays(7), clock::get).getStatistics();
+        assertThat(statistics.size()).isEqualTo(1);
+        assertThat(statistics.diskBytes()).isPositive();
+        assertThat(cache.getStatistics().hits()).isEqualTo(2);
+        assertThat(cache.getStatistics().misses()).isEqualTo(1);
+        assertThat(cache.getStatistics().bytesSaved()).isEqualTo(2L * SAMPLE_XML.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchNodeRevalidatesExpiredNodeWithETag() throws Exception {
+        HttpResponse<byte[]> notModified = mock(HttpResponse.class);
+        when(notModified.statusCode()).thenReturn(304);
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn(SAMPLE_XML.getBytes(StandardCharsets.UTF_8));
+        when(httpResponse.headers()).thenReturn(HttpHeaders.of(Map.of("ETag", List.of("\"v1\"")), (name, value) -> true));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenReturn(completedFuture(httpResponse), completedFuture(notModified));
+
+        OsmNode fetched = dataService.fetchNode(5589879349L);
+        clock.addAndGet(Duration.ofDays(8).toMillis());
+        OsmNode revalidated = dataService.fetchNode(5589879349L);
+
+        assertThat(revalidated).isEqualTo(fetched);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        assertThat(requestCaptor.getAllValues().getFirst().headers().firstValue("If-None-Match")).isEmpty();
+        assertThat(requestCaptor.getAllValues().getLast().headers().firstValue("If-None-Match")).contains("\"v1\"");
+        assertThat(cache.getStatistics().revalidations()).isEqualTo(1);
+        assertThat(cache.getStatistics().notModified()).isEqualTo(1);
+        // the revalidation restarted the TTL
+        dataService.fetchNode(5589879349L);
+        assertThat(cache.getStatistics().hits()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetchNodesAsyncSendsAllChunksConcurrently() throws Exception {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class))).thenAnswer(invocation -> {
+            CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+            responses.add(response);
+            return response;
+        });
+        when(httpResponse.statusCode()).thenReturn(200);
+        when(httpResponse.body()).thenReturn("<osm version=\"0.6\"/>".getBytes(StandardCharsets.UTF_8));
+        List<Long> nodeIds = LongStream.rangeClosed(1, 2L * OsmDataServiceImpl.MAX_NODES_PER_REQUEST + 1).boxed().toList();
+
+        CompletableFuture<Map<Long, OsmNode>> osmNodes = dataService.fetchNodesAsync(nodeIds);
+
+        // all requests are in flight at once, without a thread waiting for any of them
+        assertThat(responses).hasSize(3);
+        assertThat(osmNodes).isNotDone();
+        responses.forEach(response -> response.complete(httpResponse));
+        assertThat(osmNodes.get(5, TimeUnit.SECONDS)).isEmpty();
+    }
 }
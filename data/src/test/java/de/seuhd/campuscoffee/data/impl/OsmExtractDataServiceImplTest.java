@@ -0,0 +1,107 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests reading the checked-in sample extracts, which contain the same nodes in the XML and the PBF format
+ * (dense and plain nodes, untagged nodes of a way, and a node with unmapped tags only).
+ */
+class OsmExtractDataServiceImplTest {
+
+    private static final String XML_EXTRACT = "heidelberg-sample.osm";
+    private static final String PBF_EXTRACT = "heidelberg-sample.osm.pbf";
+
+    @TempDir
+    private Path extractDirectory;
+
+    private OsmExtractDataServiceImpl dataService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (String extract : List.of(XML_EXTRACT, PBF_EXTRACT)) {
+            try (InputStream sample = getClass().getResourceAsStream("/osm/" + extract)) {
+                assertThat(sample).isNotNull();
+                Files.copy(sample, extractDirectory.resolve(extract));
+            }
+        }
+        dataService = new OsmExtractDataServiceImpl(extractDirectory.toString());
+    }
+
+    @Test
+    void readNodesParsesTaggedNodesOfXmlExtract() {
+        List<OsmNode> nodes = new ArrayList<>();
+
+        long count = dataService.readNodes(XML_EXTRACT, nodes::add);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(nodes).extracting(OsmNode::nodeId)
+                .containsExactly(5589879349L, 5589879352L, 5589879354L, 5589879355L);
+        OsmNode cafe = nodes.getFirst();
+        assertThat(cafe.name()).isEqualTo("Rada Coffee & Rösterei");
+        assertThat(cafe.amenity()).isEqualTo("cafe");
+        assertThat(cafe.street()).isEqualTo("Untere Straße");
+        assertThat(cafe.postalCode()).isEqualTo("69117");
+        assertThat(cafe.latitude()).isEqualTo(49.4122362);
+        assertThat(cafe.longitude()).isEqualTo(8.7077883);
+        assertThat(nodes.get(1).shop()).isEqualTo("bakery");
+    }
+
+    @Test
+    void readNodesParsesPbfExtractLikeXmlExtract() {
+        List<OsmNode> xmlNodes = new ArrayList<>();
+        List<OsmNode> pbfNodes = new ArrayList<>();
+
+        dataService.readNodes(XML_EXTRACT, xmlNodes::add);
+        long count = dataService.readNodes(PBF_EXTRACT, pbfNodes::add);
+
+        assertThat(count).isEqualTo(4);
+        assertThat(pbfNodes).isEqualTo(xmlNodes);
+    }
+
+    @Test
+    void parsePbfAcrossMappedWindows() throws Exception {
+        List<OsmNode> nodes = new ArrayList<>();
+
+        // windows smaller than the blobs force a new mapping for every blob
+        try (MappedFile file = MappedFile.open(extractDirectory.resolve(PBF_EXTRACT), 16)) {
+            OsmPbfParser.parseNodes(file, nodes::add);
+        }
+        List<OsmNode> xmlNodes = new ArrayList<>();
+        try (MappedFile file = MappedFile.open(extractDirectory.resolve(XML_EXTRACT), 16)) {
+            OsmXmlParser.parseNodes(file.inputStream(), null, true, xmlNodes::add);
+        }
+
+        assertThat(nodes).hasSize(4).isEqualTo(xmlNodes);
+    }
+
+    @Test
+    void readNodesRejectsNamesOutsideExtractDirectory() {
+        assertThatThrownBy(() -> dataService.readNodes("../" + XML_EXTRACT, node -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> dataService.readNodes("/etc/hosts", node -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readNodesRejectsMissingAndUnsupportedExtracts() throws Exception {
+        Files.writeString(extractDirectory.resolve("notes.txt"), "not an extract");
+
+        assertThatThrownBy(() -> dataService.readNodes("missing.osm.pbf", node -> {}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not exist");
+        assertThatThrownBy(() -> dataService.readNodes("notes.txt", node -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import de.seuhd.campuscoffee.domain.model.OsmChangeAction;
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests listing and reading osmChange diffs in the replication layout and with flat names,
+ * and persisting the checkpoint.
+ */
+class OsmReplicationDataServiceImplTest {
+
+    private static final String DIFF = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <osmChange version="0.6" generator="test">
+              <create>
+                <node id="5589879349" version="1" lat="49.4122362" lon="8.7077883">
+                  <tag k="name" v="Rada Coffee &amp; Rösterei"/>
+                  <tag k="amenity" v="cafe"/>
+                </node>
+              </create>
+              <modify>
+                <node id="5589879350" version="7" lat="49.41" lon="8.70"/>
+                <way id="42" version="2">
+                  <nd ref="5589879350"/>
+                </way>
+              </modify>
+              <delete>
+                <node id="5589879351" version="3" visible="false"/>
+              </delete>
+            </osmChange>
+            """;
+
+    @TempDir
+    private Path directory;
+
+    private Path diffDirectory;
+    private OsmReplicationDataServiceImpl dataService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        diffDirectory = directory.resolve("replication");
+        Path nestedDiff = diffDirectory.resolve("000/000/041.osc.gz");
+        Files.createDirectories(nestedDiff.getParent());
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(nestedDiff))) {
+            out.write(DIFF.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(diffDirectory.resolve("42.osc"), DIFF);
+        // neither diffs nor named by a sequence number
+        Files.writeString(diffDirectory.resolve("0043.osc"), DIFF);
+        Files.writeString(diffDirectory.resolve("000/000/041.state.txt"), "sequenceNumber=41\n");
+        dataService = new OsmReplicationDataServiceImpl(diffDirectory.toString(), directory.resolve("state").toString());
+    }
+
+    @Test
+    void getSequenceNumbersListsDiffsAfterSequenceNumber() {
+        assertThat(dataService.getSequenceNumbers(null)).containsExactly(41L, 42L);
+        assertThat(dataService.getSequenceNumbers(41L)).containsExactly(42L);
+        assertThat(dataService.getSequenceNumbers(42L)).isEmpty();
+    }
+
+    @Test
+    void readChangesParsesNodeChangesOfCompressedDiff() {
+        List<OsmNodeChange> changes = new ArrayList<>();
+
+        long count = dataService.readChanges(41, changes::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(changes).extracting(OsmNodeChange::action)
+                .containsExactly(OsmChangeAction.CREATE, OsmChangeAction.MODIFY, OsmChangeAction.DELETE);
+        assertThat(changes).extracting(change -> change.node().nodeId())
+                .containsExactly(5589879349L, 5589879350L, 5589879351L);
+        assertThat(changes.getFirst().node().name()).isEqualTo("Rada Coffee & Rösterei");
+        assertThat(changes.getFirst().node().amenity()).isEqualTo("cafe");
+        assertThat(changes.get(1).node().version()).isEqualTo(7L);
+        assertThat(changes.get(1).node().amenity()).isNull();
+    }
+
+    @Test
+    void readChangesParsesPlainDiff() {
+        assertThat(dataService.readChanges(42, change -> {})).isEqualTo(3);
+    }
+
+    @Test
+    void readChangesRejectsMissingDiff() {
+        assertThatThrownBy(() -> dataService.readChanges(43, change -> {}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void checkpointIsPersisted() {
+        assertThat(dataService.getCheckpoint()).isNull();
+
+        dataService.saveCheckpoint(41);
+        dataService.saveCheckpoint(42);
+
+        assertThat(dataService.getCheckpoint()).isEqualTo(42L);
+        assertThat(new OsmReplicationDataServiceImpl(diffDirectory.toString(), directory.resolve("state").toString())
+                .getCheckpoint()).isEqualTo(42L);
+    }
+}
@@ -0,0 +1,252 @@
+package de.seuhd.campuscoffee.data.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiUnavailableException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
+import de.seuhd.campuscoffee.domain.model.CircuitState;
+import de.seuhd.campuscoffee.domain.model.OsmClientStatistics;
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests the resilience layer together with the OSM API adapter against a local stub server
+ * that answers with scripted faults.
+ */
+class ResilientOsmDataServiceTest {
+
+    private static final long NODE_ID = 5589879349L;
+
+    private static final String NODE_XML = """
+            <osm version="0.6">
+              <node id="5589879349" version="1" lat="49.4122362" lon="8.7077883">
+                <tag k="name" v="Rada Coffee &amp; Rösterei"/>
+                <tag k="amenity" v="cafe"/>
+              </node>
+            </osm>
+            """;
+
+    @TempDir
+    private Path cacheDirectory;
+
+    private HttpServer server;
+
+    // statuses of the next responses of the stub server; 200 once the script is exhausted
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::respond);
+        server.start();
+        baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchNodeRetriesServerErrors() {
+        statuses.add(503);
+        statuses.add(502);
+        ResilientOsmDataService service = createService(3, 5, 1000, 10, Duration.ZERO, nanoClock::get);
+
+        OsmNode node = service.fetchNode(NODE_ID);
+
+        assertThat(node.name()).isEqualTo("Rada Coffee & Rösterei");
+        assertThat(requests).hasValue(3);
+        OsmClientStatistics statistics = service.getStatistics();
+        assertThat(statistics.calls()).isEqualTo(1);
+        assertThat(statistics.attempts()).isEqualTo(3);
+        assertThat(statistics.retries()).isEqualTo(2);
+        assertThat(statistics.transientFailures()).isEqualTo(2);
+        assertThat(statistics.circuitState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void fetchNodesRetriesRateLimitedRequests() {
+        statuses.add(429);
+        ResilientOsmDataService service = createService(3, 5, 1000, 10, Duration.ZERO, nanoClock::get);
+
+        assertThat(service.fetchNodes(List.of(NODE_ID))).containsOnlyKeys(NODE_ID);
+        assertThat(requests).hasValue(2);
+        assertThat(service.getStatistics().retries()).isEqualTo(1);
+    }
+
+    @Test
+    void fetchNodeGivesUpAfterMaxAttempts() {
+        statuses.add(500);
+        statuses.add(500);
+        statuses.add(500);
+        ResilientOsmDataService service = createService(3, 5, 1000, 10, Duration.ZERO, nanoClock::get);
+
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID))
+                .isInstanceOf(OsmApiException.class)
+                .satisfies(error -> assertThat(((OsmApiException) error).getStatus()).isEqualTo(500));
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void fetchNodeDoesNotRetryMissingNode() {
+        statuses.add(404);
+        ResilientOsmDataService service = createService(3, 1, 1000, 10, Duration.ZERO, nanoClock::get);
+
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID))
+                .isInstanceOf(OsmNodeNotFoundException.class);
+        assertThat(requests).hasValue(1);
+        assertThat(service.getStatistics().retries()).isZero();
+        assertThat(service.getStatistics().circuitState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void circuitBreakerFailsFastAndClosesAfterSuccessfulTrial() {
+        statuses.add(500);
+        statuses.add(500);
+        ResilientOsmDataService service = createService(1, 2, 1000, 10, Duration.ZERO, nanoClock::get);
+
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID)).isInstanceOf(OsmApiException.class);
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID)).isInstanceOf(OsmApiException.class);
+        assertThat(service.getStatistics().circuitState()).isEqualTo(CircuitState.OPEN);
+
+        // fails fast without reaching the API
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID)).isInstanceOf(OsmApiUnavailableException.class);
+        assertThat(requests).hasValue(2);
+        assertThat(service.getStatistics().circuitRejections()).isEqualTo(1);
+
+        nanoClock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(service.getStatistics().circuitState()).isEqualTo(CircuitState.HALF_OPEN);
+
+        assertThat(service.fetchNode(NODE_ID).nodeId()).isEqualTo(NODE_ID);
+        assertThat(requests).hasValue(3);
+        assertThat(service.getStatistics().circuitState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void rateLimiterRejectsCallsThatWouldWaitTooLong() {
+        ResilientOsmDataService service = createService(3, 5, 1, 1, Duration.ZERO, nanoClock::get);
+
+        service.fetchNode(NODE_ID);
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID)).isInstanceOf(OsmApiUnavailableException.class);
+        assertThat(requests).hasValue(1);
+        assertThat(service.getStatistics().rateLimitRejections()).isEqualTo(1);
+
+        nanoClock.addAndGet(Duration.ofSeconds(1).toNanos());
+        service.fetchNode(NODE_ID);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void rateLimiterDelaysCallsWithinMaxWait() {
+        ResilientOsmDataService service = createService(3, 5, 20, 1, Duration.ofSeconds(5), System::nanoTime);
+
+        long start = System.nanoTime();
+        service.fetchNode(NODE_ID);
+        service.fetchNode(NODE_ID);
+
+        assertThat(requests).hasValue(2);
+        assertThat(service.getStatistics().rateLimitDelays()).isEqualTo(1);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(40).toNanos());
+    }
+
+    @Test
+    void cacheHitsBypassCircuitBreakerAndRateLimiter() {
+        ResilientOsmDataService service = createService(1, 1, 1, 1, Duration.ZERO, nanoClock::get, Duration.ofDays(1));
+        service.fetchNode(NODE_ID);
+
+        // open the circuit with another node, which also takes the only token
+        nanoClock.addAndGet(Duration.ofSeconds(1).toNanos());
+        statuses.add(500);
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID + 1)).isInstanceOf(OsmApiException.class);
+        assertThat(service.getStatistics().circuitState()).isEqualTo(CircuitState.OPEN);
+        assertThat(service.getStatistics().availableTokens()).isZero();
+
+        assertThat(service.fetchNode(NODE_ID).name()).isEqualTo("Rada Coffee & Rösterei");
+        assertThat(service.fetchNodes(List.of(NODE_ID))).containsOnlyKeys(NODE_ID);
+        assertThat(requests).hasValue(2);
+        OsmClientStatistics statistics = service.getStatistics();
+        assertThat(statistics.requests()).isEqualTo(2);
+        assertThat(statistics.circuitRejections()).isZero();
+        assertThat(statistics.rateLimitRejections()).isZero();
+
+        // requests for uncached nodes still fail fast
+        assertThatThrownBy(() -> service.fetchNode(NODE_ID + 2)).isInstanceOf(OsmApiUnavailableException.class);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void rateLimiterTakesOneTokenPerRequestOfMultiFetch() {
+        // the multi-fetch request fails with 404, so both nodes are requested again on their own
+        statuses.add(404);
+        ResilientOsmDataService service = createService(1, 5, 1, 3, Duration.ZERO, nanoClock::get);
+
+        assertThat(service.fetchNodes(List.of(NODE_ID, NODE_ID + 1))).containsOnlyKeys(NODE_ID, NODE_ID + 1);
+
+        assertThat(requests).hasValue(3);
+        OsmClientStatistics statistics = service.getStatistics();
+        assertThat(statistics.calls()).isEqualTo(1);
+        assertThat(statistics.attempts()).isEqualTo(1);
+        assertThat(statistics.requests()).isEqualTo(3);
+        assertThat(statistics.availableTokens()).isZero();
+    }
+
+    private ResilientOsmDataService createService(int maxAttempts, int failureThreshold, double requestsPerSecond,
+                                                  int burst, Duration maxWait, LongSupplier clock) {
+        // cached nodes expire immediately, so that every call reaches the stub server
+        return createService(maxAttempts, failureThreshold, requestsPerSecond, burst, maxWait, clock, Duration.ZERO);
+    }
+
+    private ResilientOsmDataService createService(int maxAttempts, int failureThreshold, double requestsPerSecond,
+                                                  int burst, Duration maxWait, LongSupplier clock, Duration cacheTtl) {
+        OsmNodeCache cache = new OsmNodeCache(cacheDirectory, cacheTtl, System::currentTimeMillis);
+        OsmRequestGate gate = new OsmRequestGate(failureThreshold, Duration.ofSeconds(30), requestsPerSecond, burst,
+                maxWait, clock);
+        OsmDataServiceImpl adapter = new OsmDataServiceImpl(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), cache, gate, baseUrl,
+                Duration.ofSeconds(5));
+        return new ResilientOsmDataService(adapter, gate, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(10),
+                new Random(42));
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        Integer scripted = statuses.poll();
+        int status = scripted == null ? 200 : scripted;
+        byte[] body = status == 200 ? NODE_XML.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (status == 429) {
+            exchange.getResponseHeaders().add("Retry-After", "0");
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+/**
+ * Exception thrown when attempting to create or update a POS with an OpenStreetMap node that another POS has
+ * already been imported from (e.g., by a concurrent import on another instance).
+ * This represents a business rule violation: every node is imported into at most one POS.
+ */
+public class DuplicateOsmNodeException extends RuntimeException {
+    public DuplicateOsmNodeException(Long osmNodeId) {
+        super("POS imported from OpenStreetMap node " + osmNodeId + " already exists.");
+    }
+}
@@ -0,0 +1,12 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+import java.util.UUID;
+
+/**
+ * Exception thrown when an import job does not exist (anymore).
+ */
+public class ImportJobNotFoundException extends RuntimeException {
+    public ImportJobNotFoundException(UUID jobId) {
+        super("Import job with ID " + jobId + " does not exist.");
+    }
+}
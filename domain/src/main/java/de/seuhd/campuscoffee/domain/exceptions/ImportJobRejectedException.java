@@ -0,0 +1,11 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+/**
+ * Exception thrown when an import job cannot be accepted because the import queue is full.
+ * Clients should retry later.
+ */
+public class ImportJobRejectedException extends RuntimeException {
+    public ImportJobRejectedException(int queueCapacity) {
+        super("The import queue is full (" + queueCapacity + " jobs). Please retry later.");
+    }
+}
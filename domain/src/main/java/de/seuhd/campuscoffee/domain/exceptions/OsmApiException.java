@@ -0,0 +1,46 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+import lombok.Getter;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when the OpenStreetMap API answers with an unexpected status or cannot be reached.
+ * Transient failures (server errors, rate limiting by the API, and network errors) may succeed if the request
+ * is repeated later.
+ */
+@Getter
+public class OsmApiException extends RuntimeException {
+    // the status of the response; 0 if no response has been received
+    private final int status;
+    // the delay requested by the Retry-After header of the response; null if there was none
+    private final @Nullable Duration retryAfter;
+
+    public OsmApiException(String description, int status, @Nullable Duration retryAfter) {
+        super("Unexpected status " + status + " while fetching " + description);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public OsmApiException(String description, Throwable cause) {
+        super("Failed to fetch " + description, cause);
+        this.status = 0;
+        this.retryAfter = null;
+    }
+
+    /**
+     * Checks whether repeating the request may succeed, i.e., whether the API is overloaded, failed internally,
+     * or could not be reached.
+     */
+    public boolean isTransient() {
+        return status == 0 || isTransientStatus(status);
+    }
+
+    /**
+     * Checks whether a response status indicates that the API is overloaded or failed internally.
+     */
+    public static boolean isTransientStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+}
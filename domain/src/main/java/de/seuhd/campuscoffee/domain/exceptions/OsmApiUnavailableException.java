@@ -0,0 +1,12 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+/**
+ * Exception thrown when a request to the OpenStreetMap API is not sent because the API is considered unhealthy
+ * (open circuit breaker) or because the client-side rate limit would delay it for too long.
+ * Clients should retry later.
+ */
+public class OsmApiUnavailableException extends RuntimeException {
+    public OsmApiUnavailableException(String reason) {
+        super("The OpenStreetMap API is currently unavailable (" + reason + "). Please retry later.");
+    }
+}
@@ -0,0 +1,11 @@
+package de.seuhd.campuscoffee.domain.exceptions;
+
+/**
+ * Exception thrown when attempting to update a POS based on an outdated version,
+ * i.e., the POS has been updated by someone else since it was read (optimistic concurrency control).
+ */
+public class PosVersionConflictException extends RuntimeException {
+    public PosVersionConflictException(Long posId, long expectedVersion) {
+        super("POS with ID " + posId + " has been modified concurrently (expected version " + expectedVersion + ").");
+    }
+}
@@ -0,0 +1,374 @@
+package de.seuhd.campuscoffee.domain.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.model.CacheStatistics;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
+import de.seuhd.campuscoffee.domain.ports.PosCacheService;
+import de.seuhd.campuscoffee.domain.ports.PosDataService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SequencedSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache that decorates the {@link PosDataService} adapter.
+ * Single POS are cached by ID for a limited time; POS that do not exist are cached for a shorter time,
+ * so that repeated requests for unknown IDs do not reach the data store. Concurrent misses of the same ID
+ * are coalesced into a single load (single flight). If the cache is full, the oldest entries are evicted.
+ * <p>
+ * All writes go through this decorator and invalidate the affected entries; pages, searches, exports,
+ * name lookups, and versions (which validate conditional requests) are not cached and always delegated.
+ */
+@Slf4j
+@Service
+@Primary
+public class CachingPosDataService implements PosDataService, PosCacheService {
+    private final PosDataService delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long notFoundTtlNanos;
+    private final LongSupplier nanoClock;
+
+    // read without locking; changed only while holding the lock of insertionOrder
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    // insertion order of the entries, used to evict the oldest entries if the cache is full;
+    // guarded by itself and changed together with the entries, so that both always contain the same IDs
+    private final SequencedSet<Long> insertionOrder = new LinkedHashSet<>();
+    private final ConcurrentHashMap<Long, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    // incremented on every invalidation, so that loads that raced with a write are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder notFoundHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public CachingPosDataService(
+            @Qualifier(PosDataService.DATA_STORE) PosDataService delegate,
+            @Value("${campus-coffee.cache.pos.max-size:10000}") int maxSize,
+            @Value("${campus-coffee.cache.pos.ttl:60s}") Duration ttl,
+            @Value("${campus-coffee.cache.pos.not-found-ttl:5s}") Duration notFoundTtl) {
+        this(delegate, maxSize, ttl, notFoundTtl, System::nanoTime);
+    }
+
+    CachingPosDataService(PosDataService delegate, int maxSize, Duration ttl, Duration notFoundTtl, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum cache size must be positive.");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.notFoundTtlNanos = notFoundTtl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void clear() {
+        try {
+            delegate.clear();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public @NonNull CursorPage<Pos> getPage(@Nullable Long after, int limit, @NonNull PosFilter filter, @NonNull Set<PosField> fields) {
+        return delegate.getPage(after, limit, filter, fields);
+    }
+
+    @Override
+    public @NonNull CursorPage<Pos> search(@NonNull String query, long offset, int limit) {
+        return delegate.search(query, offset, limit);
+    }
+
+    @Override
+    public @NonNull List<Pos> getNearby(double latitude, double longitude, double radius, int limit) {
+        return delegate.getNearby(latitude, longitude, radius, limit);
+    }
+
+    @Override
+    public @NonNull Stream<Pos> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public @NonNull Pos getById(@NonNull Long id) throws PosNotFoundException {
+        Entry entry = getEntry(id);
+        if (entry.pos() == null) {
+            throw new PosNotFoundException(id);
+        }
+        return entry.pos();
+    }
+
+    @Override
+    public @NonNull Pos getById(@NonNull Long id, @NonNull Set<PosField> fields) throws PosNotFoundException {
+        if (fields.size() == PosField.values().length) {
+            return getById(id);
+        }
+        return delegate.getById(id, fields);
+    }
+
+    @Override
+    public @NonNull PosVersion getVersion(@NonNull Long id) throws PosNotFoundException {
+        // not answered from the cache: entries are only invalidated by writes through this instance, so a cached
+        // version may be outdated by writes of other instances or processes until the entry expires
+        return delegate.getVersion(id);
+    }
+
+    @Override
+    public @NonNull PosCollectionVersion getCollectionVersion() {
+        return delegate.getCollectionVersion();
+    }
+
+    @Override
+    public @NonNull Map<String, Long> getIdsByName() {
+        return delegate.getIdsByName();
+    }
+
+    @Override
+    public @NonNull Map<String, Long> getIdsByName(@NonNull Collection<String> names) {
+        return delegate.getIdsByName(names);
+    }
+
+    @Override
+    public @NonNull Map<Long, Pos> getByOsmNodeIds(@NonNull Collection<Long> osmNodeIds) {
+        return delegate.getByOsmNodeIds(osmNodeIds);
+    }
+
+    @Override
+    public @NonNull PosBulkLoadResult bulkLoad(@NonNull String fileName) {
+        try {
+            return delegate.bulkLoad(fileName);
+        } finally {
+            // the load may have changed any POS
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public @NonNull Set<Long> getOsmNodeIds() {
+        return delegate.getOsmNodeIds();
+    }
+
+    @Override
+    public @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException {
+        Pos upserted;
+        try {
+            upserted = delegate.upsert(pos);
+        } catch (RuntimeException e) {
+            invalidate(pos.id());
+            throw e;
+        }
+        invalidateIfWritten(upserted);
+        return upserted;
+    }
+
+    @Override
+    public @NonNull List<PosBatchResult> upsertAll(@NonNull List<Pos> posList) {
+        List<PosBatchResult> results;
+        try {
+            results = delegate.upsertAll(posList);
+        } catch (RuntimeException e) {
+            posList.stream()
+                    .map(Pos::id)
+                    .filter(Objects::nonNull)
+                    .forEach(this::invalidate);
+            throw e;
+        }
+        for (PosBatchResult result : results) {
+            if (result.pos() != null) {
+                invalidateIfWritten(result.pos());
+            } else {
+                // the item failed (e.g., with a version conflict), so the cached POS may be outdated
+                invalidate(posList.get(result.index()).id());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public @NonNull CacheStatistics getStatistics() {
+        return CacheStatistics.builder()
+                .hits(hits.sum())
+                .notFoundHits(notFoundHits.sum())
+                .misses(misses.sum())
+                .loads(loads.sum())
+                .evictions(evictions.sum())
+                .size(entries.size())
+                .build();
+    }
+
+    /**
+     * Returns the cached entry or loads it; concurrent loads of the same ID share a single call of the delegate.
+     */
+    private Entry getEntry(Long id) {
+        Entry entry = getFreshEntry(id);
+        if (entry != null) {
+            return entry;
+        }
+        misses.increment();
+
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> runningLoad = loading.putIfAbsent(id, load);
+        if (runningLoad != null) {
+            return await(runningLoad);
+        }
+        try {
+            // a load that finished between the lookup above and claiming this one may already have cached the entry
+            Entry loaded = entries.get(id);
+            load.complete(loaded != null && !isExpired(loaded) ? loaded : load(id));
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+        } finally {
+            loading.remove(id, load);
+        }
+        return await(load);
+    }
+
+    private Entry load(Long id) {
+        long loadGeneration = generation.get();
+        loads.increment();
+        Entry entry;
+        try {
+            entry = new Entry(delegate.getById(id), nanoClock.getAsLong() + ttlNanos);
+        } catch (PosNotFoundException e) {
+            entry = new Entry(null, nanoClock.getAsLong() + notFoundTtlNanos);
+        }
+        put(id, entry);
+        // a write during the load may have made the loaded value stale; checking after the put ensures
+        // that either this check or the invalidation of the write removes the entry
+        if (generation.get() != loadGeneration) {
+            remove(id, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the cached entry if it has not expired (counting a hit), otherwise null.
+     */
+    private @Nullable Entry getFreshEntry(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (remove(id, entry)) {
+                evictions.increment();
+            }
+            return null;
+        }
+        hits.increment();
+        if (entry.pos() == null) {
+            notFoundHits.increment();
+        }
+        return entry;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.expiresAt() - nanoClock.getAsLong() <= 0;
+    }
+
+    private void put(Long id, Entry entry) {
+        synchronized (insertionOrder) {
+            if (entries.put(id, entry) == null) {
+                insertionOrder.add(id);
+            }
+            while (entries.size() > maxSize) {
+                entries.remove(insertionOrder.removeFirst());
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean remove(Long id, Entry entry) {
+        synchronized (insertionOrder) {
+            if (entries.remove(id, entry)) {
+                insertionOrder.remove(id);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private void invalidate(@Nullable Long id) {
+        if (id == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        synchronized (insertionOrder) {
+            if (entries.remove(id) != null) {
+                insertionOrder.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the entry of a POS returned by a write, unless the cached POS has the same version,
+     * i.e., the write has been skipped because the content did not change.
+     */
+    private void invalidateIfWritten(Pos written) {
+        Entry entry = entries.get(written.id());
+        if (entry != null && entry.pos() != null && written.version() != null
+                && written.version().equals(entry.pos().version())) {
+            return;
+        }
+        invalidate(written.id());
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (insertionOrder) {
+            entries.clear();
+            insertionOrder.clear();
+        }
+        log.debug("Invalidated POS cache");
+    }
+
+    private static Entry await(CompletableFuture<Entry> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A cached lookup result.
+     *
+     * @param pos       the POS; null if no POS exists with the ID
+     * @param expiresAt the value of the nano clock at which the entry expires
+     */
+    private record Entry(@Nullable Pos pos, long expiresAt) {}
+}
@@ -0,0 +1,255 @@
+package de.seuhd.campuscoffee.domain.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobRejectedException;
+import de.seuhd.campuscoffee.domain.model.ImportJob;
+import de.seuhd.campuscoffee.domain.model.ImportJobFailure;
+import de.seuhd.campuscoffee.domain.model.ImportJobStatus;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.ports.ImportJobService;
+import de.seuhd.campuscoffee.domain.ports.PosService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the import job service.
+ * Jobs run on a fixed-size worker pool with a bounded queue; if the queue is full, new jobs are rejected
+ * instead of piling up (backpressure). Each job imports its nodes in chunks, so that its progress
+ * can be observed while it is running.
+ */
+@Slf4j
+@Service
+public class ImportJobServiceImpl implements ImportJobService {
+    /**
+     * Number of nodes per batch of {@link PosService#importFromOsmNodes(List, int, BiConsumer)}; the progress of a job
+     * is updated after every batch.
+     */
+    static final int CHUNK_SIZE = 100;
+    /**
+     * Maximum number of failures whose details are retained per job.
+     */
+    static final int MAX_RETAINED_FAILURES = 1000;
+    /**
+     * Maximum number of finished jobs that are retained for polling.
+     */
+    static final int MAX_RETAINED_JOBS = 100;
+
+    private final PosService posService;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, JobState> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobServiceImpl(
+            PosService posService,
+            @Value("${campus-coffee.import.worker-threads:2}") int workerThreads,
+            @Value("${campus-coffee.import.queue-capacity:16}") int queueCapacity) {
+        this.posService = posService;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "osm-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public @NonNull ImportJob submitOsmImport(@NonNull List<Long> nodeIds) throws ImportJobRejectedException {
+        if (nodeIds.isEmpty() || nodeIds.size() > MAX_JOB_SIZE) {
+            throw new IllegalArgumentException("An import job must contain between 1 and " + MAX_JOB_SIZE + " nodes.");
+        }
+        if (nodeIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("The OpenStreetMap node IDs must not be null.");
+        }
+
+        List<Long> jobNodeIds = List.copyOf(nodeIds);
+        return submit(new JobState(jobNodeIds.size()),
+                job -> posService.importFromOsmNodes(jobNodeIds, CHUNK_SIZE, job::record),
+                nodeIds.size() + " nodes");
+    }
+
+    @Override
+    public @NonNull ImportJob submitOsmExtractImport(@NonNull String extractName) throws ImportJobRejectedException {
+        if (extractName.isBlank()) {
+            throw new IllegalArgumentException("The name of the OpenStreetMap extract must not be blank.");
+        }
+
+        // the matching nodes are only known while the extract is read, so the total grows with every batch
+        return submit(new JobState(0), job -> posService.importFromOsmExtract(extractName, (chunk, results) -> {
+            job.totalNodes.addAndGet(chunk.size());
+            job.record(chunk, results);
+        }), "extract " + extractName);
+    }
+
+    @Override
+    public @NonNull ImportJob submitOsmReplication() throws ImportJobRejectedException {
+        // the relevant changes are only known while the diffs are read, so the total grows with every batch
+        return submit(new JobState(0), job -> posService.replicateOsmChanges((chunk, results) -> {
+            job.totalNodes.addAndGet(chunk.size());
+            job.record(chunk, results);
+        }), "OSM replication diffs");
+    }
+
+    @Override
+    public @NonNull ImportJob getJob(@NonNull UUID jobId) throws ImportJobNotFoundException {
+        JobState job = jobs.get(jobId);
+        if (job == null) {
+            throw new ImportJobNotFoundException(jobId);
+        }
+        return job.snapshot();
+    }
+
+    /**
+     * Registers a job and queues it on the worker pool.
+     *
+     * @param job the state of the new job
+     * @param work the import, which records its progress in the job state
+     * @param description description of the imported nodes for log messages
+     * @return the initial state of the job
+     */
+    private ImportJob submit(JobState job, Consumer<JobState> work, String description) throws ImportJobRejectedException {
+        evictFinishedJobs();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            log.warn("Rejected import job with {}: queue is full", description);
+            throw new ImportJobRejectedException(queueCapacity);
+        }
+        log.info("Queued import job {} with {}", job.id, description);
+        return job.snapshot();
+    }
+
+    private void run(JobState job, Consumer<JobState> work) {
+        job.start();
+        log.info("Started import job {}", job.id);
+        try {
+            work.accept(job);
+            job.finish(null);
+            log.info("Finished import job {}: {} imported, {} failed", job.id, job.importedNodes.get(), job.failedNodes.get());
+        } catch (Throwable e) {
+            // errors finish the job as well, so that it does not remain running and is evicted eventually
+            job.finish(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            log.error("Import job {} aborted", job.id, e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest finished jobs if more than {@link #MAX_RETAINED_JOBS} jobs are retained.
+     */
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS + 1;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((JobState job) -> job.finishedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("UTC"));
+    }
+
+    /**
+     * Mutable state of a job; updated by the worker thread and read by polling threads.
+     */
+    private static final class JobState {
+        private final UUID id = UUID.randomUUID();
+        private final LocalDateTime submittedAt = now();
+        private final AtomicInteger totalNodes;
+        private final AtomicInteger processedNodes = new AtomicInteger();
+        private final AtomicInteger importedNodes = new AtomicInteger();
+        private final AtomicInteger failedNodes = new AtomicInteger();
+        private final Queue<ImportJobFailure> failures = new ConcurrentLinkedQueue<>();
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private JobState(int totalNodes) {
+            this.totalNodes = new AtomicInteger(totalNodes);
+        }
+
+        private void start() {
+            startedAt = now();
+            status = ImportJobStatus.RUNNING;
+        }
+
+        private void record(List<Long> chunk, List<PosBatchResult> results) {
+            for (PosBatchResult result : results) {
+                if (result.outcome().isSuccess()) {
+                    importedNodes.incrementAndGet();
+                } else if (failedNodes.incrementAndGet() <= MAX_RETAINED_FAILURES) {
+                    failures.add(ImportJobFailure.builder()
+                            .nodeId(chunk.get(result.index()))
+                            .outcome(result.outcome())
+                            .message(result.message())
+                            .build());
+                }
+            }
+            processedNodes.addAndGet(chunk.size());
+        }
+
+        private void finish(String error) {
+            this.error = error;
+            finishedAt = now();
+            // set last, so that readers observing a final status also observe the fields above
+            status = error == null ? ImportJobStatus.COMPLETED : ImportJobStatus.FAILED;
+        }
+
+        private ImportJob snapshot() {
+            LocalDateTime started = startedAt;
+            LocalDateTime finished = finishedAt;
+            int processed = processedNodes.get();
+            double nodesPerSecond = 0;
+            if (started != null) {
+                long elapsedMillis = Duration.between(started, finished == null ? now() : finished).toMillis();
+                nodesPerSecond = elapsedMillis == 0 ? 0 : processed * 1000.0 / elapsedMillis;
+            }
+            return ImportJob.builder()
+                    .id(id)
+                    .status(status)
+                    .totalNodes(totalNodes.get())
+                    .processedNodes(processed)
+                    .importedNodes(importedNodes.get())
+                    .failedNodes(failedNodes.get())
+                    .failures(List.copyOf(failures))
+                    .nodesPerSecond(nodesPerSecond)
+                    .submittedAt(submittedAt)
+                    .startedAt(started)
+                    .finishedAt(finished)
+                    .error(error)
+                    .build();
+        }
+    }
+}
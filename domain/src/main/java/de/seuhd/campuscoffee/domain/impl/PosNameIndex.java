@@ -0,0 +1,148 @@
+package de.seuhd.campuscoffee.domain.impl;
+
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.ports.PosDataService;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the POS names, used to reject duplicate names before writing to the data store.
+ * The index is loaded from the data store on first use and kept in sync with the writes of this instance.
+ * <p>
+ * The index is only a hint: it can be outdated by writes of other instances or by races between concurrent writes.
+ * Therefore, names that the index reports as used are confirmed with an exact lookup (which also repairs the index),
+ * and names that the index does not know are written, with the unique constraint of the data store as the final guard.
+ * Lookups do not lock (except while the index is loaded); updates of the index are serialized, since they are
+ * much rarer than lookups.
+ */
+@Slf4j
+@Component
+public class PosNameIndex {
+    private final PosDataService posDataService;
+
+    // name -> ID of the POS using it, and the inverse, to find the previous name when a POS is renamed
+    private final ConcurrentHashMap<String, Long> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public PosNameIndex(PosDataService posDataService) {
+        this.posDataService = posDataService;
+    }
+
+    /**
+     * Checks whether a name is used by a POS other than the given one, confirming positive answers of the index
+     * with the data store.
+     *
+     * @param name the name to check
+     * @param id the ID of the POS that wants to use the name; null for a new POS
+     * @return the ID of the other POS using the name, or null if the name can be used as far as known
+     */
+    public @Nullable Long findOtherOwner(@NonNull String name, @Nullable Long id) {
+        Long owner = getOwner(name);
+        if (owner == null || owner.equals(id)) {
+            return null;
+        }
+        owner = confirm(List.of(name)).get(name);
+        return owner == null || owner.equals(id) ? null : owner;
+    }
+
+    /**
+     * Returns the ID of the POS using the name according to the index (without confirming it).
+     *
+     * @param name the name to look up
+     * @return the ID of the POS using the name, or null if the index does not know the name
+     */
+    public @Nullable Long getOwner(@NonNull String name) {
+        ensureLoaded();
+        return ids.get(name);
+    }
+
+    /**
+     * Looks up the current owners of the names in the data store and updates the index accordingly.
+     *
+     * @param names the names to look up
+     * @return a map from name to the ID of the POS using it, containing only the names that are in use
+     */
+    public @NonNull Map<String, Long> confirm(@NonNull Collection<String> names) {
+        Map<String, Long> owners = posDataService.getIdsByName(names);
+        synchronized (this) {
+            for (String name : names) {
+                Long owner = owners.get(name);
+                if (owner == null) {
+                    Long staleOwner = ids.remove(name);
+                    if (staleOwner != null) {
+                        this.names.remove(staleOwner, name);
+                    }
+                } else {
+                    put(owner, name);
+                }
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Records the name of a POS that has been written; a previous name of the POS is released.
+     *
+     * @param pos the written POS
+     */
+    public synchronized void add(@NonNull Pos pos) {
+        if (pos.id() != null && pos.name() != null) {
+            put(pos.id(), pos.name());
+        }
+    }
+
+    /**
+     * Empties the index after all POS have been removed from the data store.
+     */
+    public synchronized void clear() {
+        ids.clear();
+        names.clear();
+        loaded = true;
+    }
+
+    /**
+     * Discards the index after writes that bypassed it (e.g., a bulk load); it is loaded again on next use.
+     */
+    public synchronized void invalidate() {
+        ids.clear();
+        names.clear();
+        loaded = false;
+    }
+
+    private void put(Long id, String name) {
+        String previousName = names.put(id, name);
+        if (previousName != null && !previousName.equals(name)) {
+            ids.remove(previousName, id);
+        }
+        Long previousOwner = ids.put(name, id);
+        if (previousOwner != null && !previousOwner.equals(id)) {
+            // the previous owner must have been renamed or removed by someone else
+            names.remove(previousOwner, name);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                Map<String, Long> idsByName = posDataService.getIdsByName();
+                idsByName.forEach((name, id) -> {
+                    ids.put(name, id);
+                    names.put(id, name);
+                });
+                loaded = true;
+                log.info("Loaded name index of {} POS", idsByName.size());
+            }
+        }
+    }
+}
@@ -3,21 +3,53 @@ package de.seuhd.campuscoffee.domain.impl;
 import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeMissingFieldsException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
 import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
+import de.seuhd.campuscoffee.domain.model.OsmChangeAction;
 import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
 import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
 import de.seuhd.campuscoffee.domain.model.PosType;
 import de.seuhd.campuscoffee.domain.ports.OsmDataService;
+import de.seuhd.campuscoffee.domain.ports.OsmExtractDataService;
+import de.seuhd.campuscoffee.domain.ports.OsmReplicationDataService;
 import de.seuhd.campuscoffee.domain.ports.PosDataService;
 import de.seuhd.campuscoffee.domain.ports.PosService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the POS service that handles business logic related to POS entities.
@@ -26,19 +58,75 @@ import java.util.Objects;
 @Service
 @RequiredArgsConstructor
 public class PosServiceImpl implements PosService {
+    /**
+     * Maximum number of batches whose nodes are fetched concurrently by
+     * {@link #importFromOsmNodes(List, int, BiConsumer)}.
+     */
+    static final int MAX_CONCURRENT_FETCHES = 4;
+    // the amenity values recognized by resolvePosType
+    private static final Set<String> SUPPORTED_AMENITIES = Set.of("canteen", "vending_machine", "cafe");
+
     private final PosDataService posDataService;
     private final OsmDataService osmDataService;
+    private final OsmExtractDataService osmExtractDataService;
+    private final OsmReplicationDataService osmReplicationDataService;
+    private final PosNameIndex posNameIndex;
+
+    // imports of single nodes that are running, so that concurrent imports of the same node share one import
+    private final ConcurrentHashMap<Long, CompletableFuture<Pos>> runningImports = new ConcurrentHashMap<>();
+    // held while replication diffs are applied, so that two replications never apply the same diffs
+    private final ReentrantLock replicationLock = new ReentrantLock();
 
     @Override
     public void clear() {
         log.warn("Clearing all POS data");
         posDataService.clear();
+        posNameIndex.clear();
+    }
+
+    @Override
+    public @NonNull CursorPage<Pos> getPage(@Nullable Long after, int limit, @NonNull PosFilter filter, @NonNull Set<PosField> fields) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("The page size must be positive.");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        log.debug("Retrieving up to {} POS after ID {} matching {} with fields {}", pageSize, after, filter, fields);
+        return posDataService.getPage(after, pageSize, filter, withId(fields));
+    }
+
+    @Override
+    public @NonNull CursorPage<Pos> search(@NonNull String query, long offset, int limit) {
+        if (query.isBlank()) {
+            throw new IllegalArgumentException("The search query must not be blank.");
+        }
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("The offset must not be negative and the page size must be positive.");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        log.debug("Searching up to {} POS matching '{}' from offset {}", pageSize, query, offset);
+        return posDataService.search(query, offset, pageSize);
+    }
+
+    @Override
+    public @NonNull List<Pos> getNearby(double latitude, double longitude, double radius, int limit) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("The latitude must be within [-90, 90] and the longitude within [-180, 180].");
+        }
+        if (!(radius > 0 && radius <= MAX_NEARBY_RADIUS)) {
+            throw new IllegalArgumentException("The radius must be positive and at most " + MAX_NEARBY_RADIUS + " meters.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("The limit must be positive.");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        log.debug("Retrieving up to {} POS within {} m of ({}, {})", pageSize, radius, latitude, longitude);
+        return posDataService.getNearby(latitude, longitude, radius, pageSize);
     }
 
     @Override
-    public @NonNull List<Pos> getAll() {
-        log.debug("Retrieving all POS");
-        return posDataService.getAll();
+    public @NonNull Stream<Pos> streamAll() {
+        log.debug("Streaming all POS");
+        return posDataService.streamAll();
     }
 
     @Override
@@ -47,6 +135,24 @@ public class PosServiceImpl implements PosService {
         return posDataService.getById(id);
     }
 
+    @Override
+    public @NonNull Pos getById(@NonNull Long id, @NonNull Set<PosField> fields) throws PosNotFoundException {
+        log.debug("Retrieving fields {} of POS with ID: {}", fields, id);
+        return posDataService.getById(id, withId(fields));
+    }
+
+    @Override
+    public @NonNull PosVersion getVersion(@NonNull Long id) throws PosNotFoundException {
+        log.debug("Retrieving version of POS with ID: {}", id);
+        return posDataService.getVersion(id);
+    }
+
+    @Override
+    public @NonNull PosCollectionVersion getCollectionVersion() {
+        log.debug("Retrieving POS collection version");
+        return posDataService.getCollectionVersion();
+    }
+
     @Override
     public @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException {
         if (pos.id() == null) {
@@ -54,34 +160,429 @@ public class PosServiceImpl implements PosService {
             log.info("Creating new POS: {}", pos.name());
             return performUpsert(pos);
         } else {
-            // Update existing POS
+            // Update existing POS; the data service reports a missing POS, so it is not read before the update
             log.info("Updating POS with ID: {}", pos.id());
-            // POS ID must be set
-            Objects.requireNonNull(pos.id());
-            // POS must exist in the database before the update
-            posDataService.getById(pos.id());
             return performUpsert(pos);
         }
     }
 
+    @Override
+    public @NonNull List<PosBatchResult> upsertAll(@NonNull List<Pos> posList) {
+        if (posList.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch must not contain more than " + MAX_BATCH_SIZE + " POS.");
+        }
+        log.info("Upserting batch of {} POS", posList.size());
+
+        // reject names that are used by other POS before writing, so that the batch is not aborted by the constraint
+        Set<String> suspectedNames = posList.stream()
+                .filter(pos -> pos.name() != null && isUsedByOther(posNameIndex.getOwner(pos.name()), pos))
+                .map(Pos::name)
+                .collect(Collectors.toSet());
+        Map<String, Long> owners = suspectedNames.isEmpty() ? Map.of() : posNameIndex.confirm(suspectedNames);
+
+        PosBatchResult[] results = new PosBatchResult[posList.size()];
+        List<Pos> writtenPosList = new ArrayList<>(posList.size());
+        List<Integer> writtenIndices = new ArrayList<>(posList.size());
+        for (int index = 0; index < posList.size(); index++) {
+            Pos pos = posList.get(index);
+            if (pos.name() != null && isUsedByOther(owners.get(pos.name()), pos)) {
+                results[index] = PosBatchResult.builder()
+                        .index(index)
+                        .outcome(BatchOutcome.DUPLICATE_NAME)
+                        .message(new DuplicatePosNameException(pos.name()).getMessage())
+                        .build();
+                continue;
+            }
+            writtenPosList.add(pos);
+            writtenIndices.add(index);
+        }
+
+        // map the indices of the written POS back to the indices of the batch
+        List<PosBatchResult> writtenResults = writtenPosList.isEmpty() ? List.of() : posDataService.upsertAll(writtenPosList);
+        for (PosBatchResult result : writtenResults) {
+            int index = writtenIndices.get(result.index());
+            results[index] = result.toBuilder().index(index).build();
+            if (result.pos() != null) {
+                posNameIndex.add(result.pos());
+            }
+        }
+        long failed = Arrays.stream(results)
+                .filter(result -> !result.outcome().isSuccess())
+                .count();
+        log.info("Upserted batch of {} POS ({} failed)", posList.size(), failed);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public @NonNull PosBulkLoadResult bulkLoad(@NonNull String fileName) {
+        if (fileName.isBlank()) {
+            throw new IllegalArgumentException("The name of the bulk-load file must not be blank.");
+        }
+        log.info("Bulk loading POS from {}...", fileName);
+        try {
+            PosBulkLoadResult result = posDataService.bulkLoad(fileName);
+            log.info("Bulk loaded {} rows from {} in {} ms: {} created, {} updated, {} unchanged, {} failed",
+                    result.rows(), fileName, result.durationMillis(), result.created(), result.updated(),
+                    result.unchanged(), result.failed());
+            return result;
+        } finally {
+            // the names have been written without the index
+            posNameIndex.invalidate();
+        }
+    }
+
     @Override
     public @NonNull Pos importFromOsmNode(@NonNull Long nodeId) throws OsmNodeNotFoundException {
+        // single flight: concurrent imports of the same node wait for the running import and share its outcome,
+        // instead of fetching the node again and failing with a duplicate name when they write it
+        CompletableFuture<Pos> runningImport = new CompletableFuture<>();
+        CompletableFuture<Pos> sharedImport = runningImports.putIfAbsent(nodeId, runningImport);
+        if (sharedImport != null) {
+            log.info("Waiting for the running import of OpenStreetMap node {}", nodeId);
+            return await(sharedImport, "importing OpenStreetMap node " + nodeId);
+        }
+        try {
+            Pos importedPos = importOsmNode(nodeId);
+            runningImport.complete(importedPos);
+            return importedPos;
+        } catch (Throwable e) {
+            // complete the shared import on errors as well, so that the waiting callers never block forever
+            runningImport.completeExceptionally(e);
+            throw e;
+        } finally {
+            runningImports.remove(nodeId, runningImport);
+        }
+    }
+
+    /**
+     * Fetches, converts, and persists a single node (the import shared by concurrent callers).
+     */
+    private Pos importOsmNode(Long nodeId) {
         log.info("Importing POS from OpenStreetMap node {}...", nodeId);
 
         // Fetch the OSM node data using the port
         OsmNode osmNode = osmDataService.fetchNode(nodeId);
 
+        // a re-import of a node that has not changed since the last import is skipped without converting or writing
+        Pos importedPos = posDataService.getByOsmNodeIds(List.of(nodeId)).get(nodeId);
+        if (isCurrent(importedPos, osmNode)) {
+            log.info("OSM node {} is unchanged since POS '{}' was imported from it", nodeId, importedPos.name());
+            return importedPos;
+        }
+
     // Convert OSM node to POS domain object and upsert it
-        Pos savedPos = upsert(convertOsmNodeToPos(osmNode));
+        Pos savedPos = upsert(convertOsmNodeToPos(osmNode, importedPos));
         log.info("Successfully imported POS '{}' from OSM node {}", savedPos.name(), nodeId);
 
         return savedPos;
     }
 
+    @Override
+    public @NonNull List<PosBatchResult> importFromOsmNodes(@NonNull List<Long> nodeIds) {
+        if (nodeIds.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("An import must not contain more than " + MAX_BATCH_SIZE + " nodes.");
+        }
+        if (nodeIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("The OpenStreetMap node IDs must not be null.");
+        }
+        log.info("Importing POS from {} OpenStreetMap nodes...", nodeIds.size());
+
+        Map<Long, OsmNode> osmNodes = osmDataService.fetchNodes(nodeIds);
+        List<PosBatchResult> results = importOsmNodes(nodeIds, osmNodes);
+        long imported = results.stream()
+                .filter(result -> result.outcome().isSuccess())
+                .count();
+        log.info("Successfully imported POS from {} of {} OpenStreetMap nodes", imported, nodeIds.size());
+        return results;
+    }
+
+    @Override
+    public void importFromOsmNodes(@NonNull List<Long> nodeIds, int batchSize,
+                                   @NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("The batch size must be between 1 and " + MAX_BATCH_SIZE + ".");
+        }
+        if (nodeIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("The OpenStreetMap node IDs must not be null.");
+        }
+        log.info("Importing POS from {} OpenStreetMap nodes in batches of {}...", nodeIds.size(), batchSize);
+
+        // the fetches of the next batches are in flight while the current batch is written; they do not occupy
+        // any thread until their responses arrive
+        Deque<CompletableFuture<Map<Long, OsmNode>>> fetches = new ArrayDeque<>();
+        int nextFetch = 0;
+        long imported = 0;
+        try {
+            for (int from = 0; from < nodeIds.size(); from += batchSize) {
+                while (nextFetch < nodeIds.size() && fetches.size() < MAX_CONCURRENT_FETCHES) {
+                    fetches.add(osmDataService.fetchNodesAsync(
+                            nodeIds.subList(nextFetch, Math.min(nextFetch + batchSize, nodeIds.size()))));
+                    nextFetch += batchSize;
+                }
+                List<Long> batch = nodeIds.subList(from, Math.min(from + batchSize, nodeIds.size()));
+                List<PosBatchResult> results =
+                        importOsmNodes(batch, await(fetches.remove(), "fetching OpenStreetMap nodes"));
+                imported += results.stream()
+                        .filter(result -> result.outcome().isSuccess())
+                        .count();
+                batchListener.accept(batch, results);
+            }
+        } finally {
+            // only left over if the import has been aborted
+            fetches.forEach(fetch -> fetch.cancel(true));
+        }
+        log.info("Successfully imported POS from {} of {} OpenStreetMap nodes", imported, nodeIds.size());
+    }
+
+    @Override
+    public long importFromOsmExtract(@NonNull String extractName,
+                                     @NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        log.info("Importing POS from OpenStreetMap extract {}...", extractName);
+
+        // the nodes are collected while the extract is read and imported whenever a batch is full
+        List<OsmNode> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long[] supportedNodes = {0};
+        long[] importedNodes = {0};
+        long taggedNodes = osmExtractDataService.readNodes(extractName, osmNode -> {
+            if (!isSupportedPosType(osmNode.amenity(), osmNode.shop())) {
+                return;
+            }
+            supportedNodes[0]++;
+            batch.add(osmNode);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                importedNodes[0] += importOsmNodeBatch(batch, batchListener);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            importedNodes[0] += importOsmNodeBatch(batch, batchListener);
+        }
+        log.info("Successfully imported POS from {} of {} matching nodes ({} tagged nodes) of OpenStreetMap extract {}",
+                importedNodes[0], supportedNodes[0], taggedNodes, extractName);
+        return supportedNodes[0];
+    }
+
+    @Override
+    public long replicateOsmChanges(@NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        replicationLock.lock();
+        try {
+            Long checkpoint = osmReplicationDataService.getCheckpoint();
+            List<Long> sequenceNumbers = contiguousSequenceNumbers(checkpoint,
+                    osmReplicationDataService.getSequenceNumbers(checkpoint));
+            if (sequenceNumbers.isEmpty()) {
+                log.info("No OpenStreetMap replication diffs to apply after sequence number {}", checkpoint);
+                return 0;
+            }
+            log.info("Applying {} OpenStreetMap replication diffs after sequence number {}...",
+                    sequenceNumbers.size(), checkpoint);
+
+            // loaded once, so that filtering the changes does not need a query per node; nodes imported while
+            // applying the diffs are added
+            Set<Long> importedNodeIds = new HashSet<>(posDataService.getOsmNodeIds());
+            for (Long sequenceNumber : sequenceNumbers) {
+                applyOsmChanges(sequenceNumber, importedNodeIds, batchListener);
+                osmReplicationDataService.saveCheckpoint(sequenceNumber);
+            }
+            log.info("Applied OpenStreetMap replication diffs up to sequence number {}", sequenceNumbers.getLast());
+            return sequenceNumbers.size();
+        } finally {
+            replicationLock.unlock();
+        }
+    }
+
+    /**
+     * Selects the diffs that directly follow the checkpoint without a gap, because a missing diff would lose its
+     * changes for good once a later checkpoint has been saved. The diffs after a gap are applied once the missing
+     * diff is available.
+     *
+     * @param checkpoint the sequence number of the last applied diff; null if no diff has been applied yet, in which
+     *                   case the replication starts with the first available diff
+     * @param sequenceNumbers the sequence numbers of the available diffs after the checkpoint, in ascending order
+     * @return the longest prefix of the sequence numbers that continues the checkpoint without a gap
+     */
+    private static List<Long> contiguousSequenceNumbers(@Nullable Long checkpoint, List<Long> sequenceNumbers) {
+        int count = 0;
+        Long expected = checkpoint == null ? null : checkpoint + 1;
+        for (Long sequenceNumber : sequenceNumbers) {
+            if (expected != null && !expected.equals(sequenceNumber)) {
+                log.warn("OpenStreetMap replication diff {} is missing; the diffs from {} on are not applied until it "
+                        + "is available", expected, sequenceNumber);
+                break;
+            }
+            count++;
+            expected = sequenceNumber + 1;
+        }
+        return sequenceNumbers.subList(0, count);
+    }
+
+    /**
+     * Streams a replication diff and applies its relevant changes in batches.
+     *
+     * @param sequenceNumber the sequence number of the diff
+     * @param importedNodeIds the IDs of the nodes that POS have been imported from; updated with the imported nodes
+     * @param batchListener receives the node IDs and results of every persisted batch
+     */
+    private void applyOsmChanges(long sequenceNumber, Set<Long> importedNodeIds,
+                                 BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        // the last change of every node of the batch, in the order of these changes
+        Map<Long, OsmNodeChange> batch = new LinkedHashMap<>();
+        long[] relevantChanges = {0};
+        long changes = osmReplicationDataService.readChanges(sequenceNumber, change -> {
+            OsmNode osmNode = change.node();
+            if (!importedNodeIds.contains(osmNode.nodeId())
+                    && (change.action() == OsmChangeAction.DELETE || !isSupportedPosType(osmNode.amenity(), osmNode.shop()))) {
+                return;
+            }
+            relevantChanges[0]++;
+            batch.remove(osmNode.nodeId());
+            batch.put(osmNode.nodeId(), change);
+            if (batch.size() == MAX_BATCH_SIZE) {
+                applyOsmChangeBatch(batch.values(), importedNodeIds, batchListener);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            applyOsmChangeBatch(batch.values(), importedNodeIds, batchListener);
+        }
+        log.info("Applied {} relevant of {} node changes of OpenStreetMap replication diff {}",
+                relevantChanges[0], changes, sequenceNumber);
+    }
+
+    /**
+     * Imports the created and modified nodes of a batch of changes and passes the results to the listener.
+     */
+    private void applyOsmChangeBatch(Collection<OsmNodeChange> changes, Set<Long> importedNodeIds,
+                                     BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        List<OsmNode> osmNodes = new ArrayList<>(changes.size());
+        for (OsmNodeChange change : changes) {
+            if (change.action() == OsmChangeAction.DELETE) {
+                // POS are curated and never removed automatically (e.g., a moved node may be re-created with a new ID)
+                log.warn("OpenStreetMap node {} of an imported POS has been deleted", change.node().nodeId());
+            } else {
+                osmNodes.add(change.node());
+            }
+        }
+        if (osmNodes.isEmpty()) {
+            return;
+        }
+        importOsmNodeBatch(osmNodes, (nodeIds, results) -> {
+            for (PosBatchResult result : results) {
+                if (result.outcome().isSuccess()) {
+                    importedNodeIds.add(nodeIds.get(result.index()));
+                }
+            }
+            batchListener.accept(nodeIds, results);
+        });
+    }
+
+    /**
+     * Imports a batch of nodes read from an extract and passes the results to the listener.
+     *
+     * @return the number of successfully imported nodes
+     */
+    private long importOsmNodeBatch(List<OsmNode> batch, BiConsumer<List<Long>, List<PosBatchResult>> batchListener) {
+        List<Long> nodeIds = new ArrayList<>(batch.size());
+        Map<Long, OsmNode> osmNodes = new HashMap<>(batch.size() * 2);
+        for (OsmNode osmNode : batch) {
+            nodeIds.add(osmNode.nodeId());
+            osmNodes.put(osmNode.nodeId(), osmNode);
+        }
+        List<PosBatchResult> results = importOsmNodes(nodeIds, osmNodes);
+        batchListener.accept(nodeIds, results);
+        return results.stream()
+                .filter(result -> result.outcome().isSuccess())
+                .count();
+    }
+
+    /**
+     * Converts the fetched nodes and persists them as one batch.
+     *
+     * @param nodeIds the IDs of the nodes to import, at most {@link #MAX_BATCH_SIZE}
+     * @param osmNodes the fetched nodes keyed by their node ID; nodes that do not exist are missing
+     * @return one result per node ID, in the same order as the given list
+     */
+    private List<PosBatchResult> importOsmNodes(List<Long> nodeIds, Map<Long, OsmNode> osmNodes) {
+        Map<Long, Pos> importedPosByNodeId = osmNodes.isEmpty() ? Map.of() : posDataService.getByOsmNodeIds(osmNodes.keySet());
+        PosBatchResult[] results = new PosBatchResult[nodeIds.size()];
+        List<Pos> posList = new ArrayList<>(osmNodes.size());
+        List<Integer> posIndices = new ArrayList<>(osmNodes.size());
+        for (int index = 0; index < nodeIds.size(); index++) {
+            Long nodeId = nodeIds.get(index);
+            OsmNode osmNode = osmNodes.get(nodeId);
+            if (osmNode == null) {
+                results[index] = PosBatchResult.builder()
+                        .index(index)
+                        .outcome(BatchOutcome.NOT_FOUND)
+                        .message(new OsmNodeNotFoundException(nodeId).getMessage())
+                        .build();
+                continue;
+            }
+            Pos importedPos = importedPosByNodeId.get(nodeId);
+            if (isCurrent(importedPos, osmNode)) {
+                results[index] = PosBatchResult.builder()
+                        .index(index)
+                        .outcome(BatchOutcome.UNCHANGED)
+                        .pos(importedPos)
+                        .build();
+                continue;
+            }
+            try {
+                posList.add(convertOsmNodeToPos(osmNode, importedPos));
+                posIndices.add(index);
+            } catch (OsmNodeMissingFieldsException e) {
+                results[index] = PosBatchResult.builder()
+                        .index(index)
+                        .outcome(BatchOutcome.INVALID)
+                        .message(e.getMessage())
+                        .build();
+            }
+        }
+
+        // map the indices of the converted POS back to the indices of the node IDs
+        for (PosBatchResult result : upsertAll(posList)) {
+            int index = posIndices.get(result.index());
+            results[index] = result.toBuilder().index(index).build();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Waits for a fetch or a shared import and rethrows its failure unwrapped.
+     *
+     * @param future the future to wait for
+     * @param description what the future does, for error messages (e.g., "fetching OpenStreetMap nodes")
+     */
+    private static <T> T await(CompletableFuture<T> future, String description) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while " + description, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException("Failed while " + description, e.getCause());
+        }
+    }
+
+    /**
+     * Adds the ID to the requested fields, because it identifies the POS (and serves as the pagination cursor).
+     */
+    private static Set<PosField> withId(Set<PosField> fields) {
+        Set<PosField> fieldsWithId = EnumSet.of(PosField.ID);
+        fieldsWithId.addAll(fields);
+        return fieldsWithId;
+    }
+
     /**
      * Converts an OSM node to a POS domain object.
+     * If a POS has been imported from the node before, the converted POS updates it.
      */
-    private @NonNull Pos convertOsmNodeToPos(@NonNull OsmNode osmNode) {
+    private @NonNull Pos convertOsmNodeToPos(@NonNull OsmNode osmNode, @Nullable Pos importedPos) {
     String amenity = osmNode.amenity();
     String shop = osmNode.shop();
 
@@ -110,6 +611,8 @@ public class PosServiceImpl implements PosService {
         CampusType campus = resolveCampus(postalCode);
 
         return Pos.builder()
+                // a node that has been imported before updates its POS
+                .id(importedPos == null ? null : importedPos.id())
                 .name(name)
                 .description(description)
                 .type(posType)
@@ -118,9 +621,37 @@ public class PosServiceImpl implements PosService {
                 .houseNumber(houseNumber)
                 .postalCode(postalCode)
                 .city(city)
+                .latitude(osmNode.latitude())
+                .longitude(osmNode.longitude())
+                .osmNodeId(osmNode.nodeId())
+                .osmVersion(osmNode.version())
                 .build();
     }
 
+    /**
+     * Checks whether a POS has been imported from the current version of a node, so that importing it again
+     * would not change anything.
+     *
+     * @param importedPos the POS imported from the node before; may be null
+     * @param osmNode the current node
+     */
+    private static boolean isCurrent(@Nullable Pos importedPos, OsmNode osmNode) {
+        return importedPos != null && osmNode.version() != null && osmNode.version().equals(importedPos.osmVersion());
+    }
+
+    /**
+     * Checks whether a node is tagged as one of the POS types that {@link #resolvePosType(String, String)} recognizes,
+     * as opposed to the fallback for other nodes.
+     */
+    private static boolean isSupportedPosType(String amenity, String shop) {
+        String normalizedAmenity = normalize(amenity);
+        if (normalizedAmenity != null && SUPPORTED_AMENITIES.contains(normalizedAmenity.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        String normalizedShop = normalize(shop);
+        return normalizedShop != null && "bakery".equalsIgnoreCase(normalizedShop);
+    }
+
     private static PosType resolvePosType(String amenity, String shop) {
         String normalizedAmenity = normalize(amenity);
         if (normalizedAmenity != null) {
@@ -170,9 +701,17 @@ public class PosServiceImpl implements PosService {
         return normalized;
     }
 
+    /**
+     * Checks whether a name owned by the given POS ID can not be used by the given POS.
+     */
+    private static boolean isUsedByOther(@Nullable Long owner, @NonNull Pos pos) {
+        return owner != null && !owner.equals(pos.id());
+    }
+
     /**
      * Performs the actual upsert operation with consistent error handling and logging.
-     * Database constraint enforces name uniqueness - data layer will throw DuplicatePosNameException if violated.
+     * Duplicate names are rejected using the name index before writing; the database constraint remains the final
+     * guard - data layer will throw DuplicatePosNameException if violated.
      * JPA lifecycle callbacks (@PrePersist/@PreUpdate) set timestamps automatically.
      *
      * @param pos the POS to upsert
@@ -181,7 +720,11 @@ public class PosServiceImpl implements PosService {
      */
     private @NonNull Pos performUpsert(@NonNull Pos pos) throws DuplicatePosNameException {
         try {
+            if (pos.name() != null && posNameIndex.findOtherOwner(pos.name(), pos.id()) != null) {
+                throw new DuplicatePosNameException(pos.name());
+            }
             Pos upsertedPos = posDataService.upsert(pos);
+            posNameIndex.add(upsertedPos);
             log.info("Successfully upserted POS with ID: {}", upsertedPos.id());
             return upsertedPos;
         } catch (DuplicatePosNameException e) {
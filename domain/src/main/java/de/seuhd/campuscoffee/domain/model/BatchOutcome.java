@@ -0,0 +1,22 @@
+package de.seuhd.campuscoffee.domain.model;
+
+/**
+ * Enum for the outcome of a single item of a batch operation.
+ */
+public enum BatchOutcome {
+    CREATED,
+    UPDATED,
+    UNCHANGED, // the POS already had the same content, so nothing was written
+    NOT_FOUND, // e.g., update of a POS that does not exist
+    DUPLICATE_NAME,
+    DUPLICATE_OSM_NODE, // another POS has already been imported from the same OpenStreetMap node
+    VERSION_CONFLICT, // the POS has been updated since the version the update is based on
+    INVALID; // e.g., missing or malformed fields
+
+    /**
+     * @return true if the item was persisted (or already had the same content)
+     */
+    public boolean isSuccess() {
+        return this == CREATED || this == UPDATED || this == UNCHANGED;
+    }
+}
@@ -0,0 +1,24 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+
+/**
+ * Snapshot of the counters of a cache since the application started.
+ *
+ * @param hits          the number of lookups answered from the cache, including cached "not found" results
+ * @param notFoundHits  the number of lookups answered with a cached "not found" result
+ * @param misses        the number of lookups that were not answered from the cache
+ * @param loads         the number of lookups that were forwarded to the underlying data store; lower than
+ *                      {@code misses} if concurrent misses of the same key were coalesced into one load
+ * @param evictions     the number of entries removed because the cache was full or the entry had expired
+ * @param size          the current number of entries
+ */
+@Builder
+public record CacheStatistics(
+        long hits,
+        long notFoundHits,
+        long misses,
+        long loads,
+        long evictions,
+        int size
+) {}
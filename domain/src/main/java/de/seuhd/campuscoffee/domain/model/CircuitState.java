@@ -0,0 +1,19 @@
+package de.seuhd.campuscoffee.domain.model;
+
+/**
+ * State of a circuit breaker guarding calls to an external service.
+ */
+public enum CircuitState {
+    /**
+     * Calls are passed on; consecutive failures are counted.
+     */
+    CLOSED,
+    /**
+     * Calls fail fast without reaching the service until the open duration has passed.
+     */
+    OPEN,
+    /**
+     * A single trial call is passed on; its outcome decides whether the circuit is closed or opened again.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,36 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+
+/**
+ * Snapshot of the state of the database connection pool and of how long connections are held.
+ * A connection is held from the moment it is taken from the pool until it is returned, i.e., for a transaction
+ * or, outside of transactions, for a single statement. The counters are collected since the application started.
+ *
+ * @param activeConnections  the number of connections currently held
+ * @param idleConnections    the number of connections currently waiting in the pool
+ * @param maxConnections     the maximum size of the pool
+ * @param pendingThreads     the number of threads currently waiting for a connection
+ * @param checkouts          the number of times a connection was held and returned
+ * @param holdTimeMeanMillis the mean time a connection was held; 0 if there were no checkouts
+ * @param holdTimeP99Millis  an upper bound of the 99th percentile of the hold times (rounded up to the next power
+ *                           of two minus one); 0 if there were no checkouts
+ * @param holdTimeMaxMillis  the longest time a connection was held
+ * @param waitTimeMeanMillis the mean time threads waited for a connection; 0 if no connection was acquired
+ * @param waitTimeMaxMillis  the longest time a thread waited for a connection
+ * @param timeouts           the number of threads that gave up waiting for a connection
+ */
+@Builder
+public record ConnectionPoolStatistics(
+        int activeConnections,
+        int idleConnections,
+        int maxConnections,
+        int pendingThreads,
+        long checkouts,
+        double holdTimeMeanMillis,
+        long holdTimeP99Millis,
+        long holdTimeMaxMillis,
+        double waitTimeMeanMillis,
+        double waitTimeMaxMillis,
+        long timeouts
+) {}
@@ -0,0 +1,20 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A single page of a keyset-paginated (cursor-based) result.
+ * In contrast to offset pagination, the cost of retrieving a page does not depend on its position,
+ * because the data store can seek directly to the cursor using an index.
+ *
+ * @param items      the items on this page, ordered by ascending cursor
+ * @param nextCursor the cursor to pass as {@code after} to retrieve the next page; null if this is the last page
+ * @param <T>        the item type
+ */
+public record CursorPage<T>(
+        @NonNull List<T> items,
+        @Nullable Long nextCursor
+) {}
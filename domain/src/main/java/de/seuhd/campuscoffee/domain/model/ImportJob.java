@@ -0,0 +1,41 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Snapshot of the state of an asynchronous OpenStreetMap import job.
+ *
+ * @param id              the unique identifier of the job
+ * @param status          the lifecycle state of the job
+ * @param totalNodes      the number of nodes to import; for extract imports, the number of matching nodes found so far
+ * @param processedNodes  the number of nodes processed so far (imported or failed)
+ * @param importedNodes   the number of nodes successfully imported so far
+ * @param failedNodes     the number of nodes that could not be imported so far
+ * @param failures        details of the failed nodes (capped, see {@code failedNodes} for the total number)
+ * @param nodesPerSecond  the average throughput since the job started; 0 if the job has not started yet
+ * @param submittedAt     timestamp of the submission
+ * @param startedAt       timestamp of the start of the processing; null if the job is still queued
+ * @param finishedAt      timestamp of the end of the processing; null if the job has not finished yet
+ * @param error           the error that aborted the job; null unless the status is {@link ImportJobStatus#FAILED}
+ */
+@Builder
+public record ImportJob(
+        @NonNull UUID id,
+        @NonNull ImportJobStatus status,
+        int totalNodes,
+        int processedNodes,
+        int importedNodes,
+        int failedNodes,
+        @NonNull List<ImportJobFailure> failures,
+        double nodesPerSecond,
+        @NonNull LocalDateTime submittedAt,
+        @Nullable LocalDateTime startedAt,
+        @Nullable LocalDateTime finishedAt,
+        @Nullable String error
+) {}
@@ -0,0 +1,19 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A single OpenStreetMap node that could not be imported by an import job.
+ *
+ * @param nodeId  the OpenStreetMap node ID
+ * @param outcome the reason why the node was not imported
+ * @param message a human-readable description of the failure
+ */
+@Builder
+public record ImportJobFailure(
+        @NonNull Long nodeId,
+        @NonNull BatchOutcome outcome,
+        @Nullable String message
+) {}
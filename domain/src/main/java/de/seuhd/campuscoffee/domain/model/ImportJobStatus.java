@@ -0,0 +1,11 @@
+package de.seuhd.campuscoffee.domain.model;
+
+/**
+ * Enum for the lifecycle states of an import job.
+ */
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED // the job was aborted by an unexpected error; failures of single nodes do not fail the job
+}
@@ -0,0 +1,10 @@
+package de.seuhd.campuscoffee.domain.model;
+
+/**
+ * Enum for the actions of an OpenStreetMap change (the sections of an osmChange document).
+ */
+public enum OsmChangeAction {
+    CREATE,
+    MODIFY,
+    DELETE
+}
@@ -0,0 +1,35 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+
+/**
+ * Snapshot of the state and the counters of the resilience layer in front of the OpenStreetMap API.
+ * The counters are collected since the application started.
+ *
+ * @param circuitState         the current state of the circuit breaker
+ * @param calls                the number of calls of the {@code OsmDataService} port
+ * @param attempts             the number of attempts passed on to the API client, including retries
+ * @param retries              the number of attempts that repeated a failed attempt
+ * @param transientFailures    the number of attempts that failed with a server error, a 429 response,
+ *                             or a network error
+ * @param requests             the number of HTTP requests sent to the API; an attempt sends one request per chunk
+ *                             of a multi-fetch, and none if all nodes are cached
+ * @param circuitRejections    the number of requests that failed fast because the circuit breaker was open
+ * @param rateLimitDelays      the number of requests that were delayed by the rate limiter
+ * @param rateLimitRejections  the number of requests that were rejected because the rate limiter would have
+ *                             delayed them for longer than the maximum wait
+ * @param availableTokens      the number of requests that can currently be sent without delay
+ */
+@Builder
+public record OsmClientStatistics(
+        CircuitState circuitState,
+        long calls,
+        long attempts,
+        long retries,
+        long transientFailures,
+        long requests,
+        long circuitRejections,
+        long rateLimitDelays,
+        long rateLimitRejections,
+        double availableTokens
+) {}
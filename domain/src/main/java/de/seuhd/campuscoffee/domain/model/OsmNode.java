@@ -9,10 +9,12 @@ import org.jspecify.annotations.Nullable;
  * This is the domain model for OSM data before it is converted to a POS object.
  *
  * @param nodeId The OpenStreetMap node ID.
+ * @param version The version of the node, which OpenStreetMap increments on every edit; null if unknown.
  */
 @Builder
 public record OsmNode(
         @NonNull Long nodeId,
+        @Nullable Long version,
         @Nullable String name,
         @Nullable String amenity,
         @Nullable String description,
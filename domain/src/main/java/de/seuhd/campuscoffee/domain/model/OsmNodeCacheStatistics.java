@@ -0,0 +1,29 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+
+/**
+ * Snapshot of the counters of the persistent cache of OpenStreetMap nodes.
+ * The counters are collected since the application started; the size covers all cached nodes on disk.
+ *
+ * @param hits           the number of nodes served from the cache without any request to the OSM API
+ * @param revalidations  the number of expired entries that were checked with the OSM API
+ * @param notModified    the number of revalidated entries that were still current
+ *                       (answered with 304 Not Modified or with an unchanged node version)
+ * @param misses         the number of nodes that were not cached
+ * @param hitRate        the share of lookups served from the cache without any request; 0 if there were no lookups
+ * @param bytesSaved     the number of response bytes that were not downloaded thanks to hits and 304 responses
+ * @param size           the current number of cached nodes
+ * @param diskBytes      the current size of the cache files in bytes
+ */
+@Builder
+public record OsmNodeCacheStatistics(
+        long hits,
+        long revalidations,
+        long notModified,
+        long misses,
+        double hitRate,
+        long bytesSaved,
+        int size,
+        long diskBytes
+) {}
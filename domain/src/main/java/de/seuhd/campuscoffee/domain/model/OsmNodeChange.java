@@ -0,0 +1,16 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Represents a change of an OpenStreetMap node read from a replication diff (osmChange).
+ *
+ * @param action the action that was applied to the node
+ * @param node the node after the change; for deletions, usually only the node ID and the version are known
+ */
+@Builder
+public record OsmNodeChange(
+        @NonNull OsmChangeAction action,
+        @NonNull OsmNode node
+) {}
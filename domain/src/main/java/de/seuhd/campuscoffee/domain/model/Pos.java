@@ -1,7 +1,6 @@
 package de.seuhd.campuscoffee.domain.model;
 
 import lombok.Builder;
-import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import java.io.Serial;
@@ -12,32 +11,49 @@ import java.time.LocalDateTime;
  * Domain record that stores the POS (Point of Sale) metadata.
  * This is an immutable value object - use the builder or toBuilder() to create modified copies.
  * Records provide automatic implementations of equals(), hashCode(), toString(), and accessors.
+ * <p>
+ * The name, description, type, campus, and address are required: they are set for every POS that is created or
+ * updated and for every POS that is read with all fields. They are only null in POS that have been read with a
+ * subset of the fields (see {@link PosField}), which is why they are declared nullable.
  *
  * @param id          the unique identifier; null when the POS has not been created yet
  * @param createdAt   timestamp set on POS creation
  * @param updatedAt   timestamp set on POS creation and update
- * @param name        the name of the POS
- * @param description a description of the POS
- * @param type        the type of POS (cafe, bakery, etc.)
- * @param campus      the campus location
- * @param street      street name
- * @param houseNumber house number (may include suffix such as "21a")
- * @param postalCode  postal code
- * @param city        city name
+ * @param name        the name of the POS; required (null only if not requested)
+ * @param description a description of the POS; required (null only if not requested)
+ * @param type        the type of POS (cafe, bakery, etc.); required (null only if not requested)
+ * @param campus      the campus location; required (null only if not requested)
+ * @param street      street name; required (null only if not requested)
+ * @param houseNumber house number (may include suffix such as "21a"); required (null only if not requested)
+ * @param postalCode  postal code; required (null only if not requested)
+ * @param city        city name; required (null only if not requested)
+ * @param latitude    latitude in degrees (WGS 84); null if the location is unknown
+ * @param longitude   longitude in degrees (WGS 84); null if the location is unknown
+ * @param version     the version of the POS, incremented on every update; when updating, the version the update
+ *                    is based on (the update fails if the POS has been updated since), or null to update unconditionally
+ * @param osmNodeId   the ID of the OpenStreetMap node the POS has been imported from; null if it was not imported
+ *                    (when updating, null keeps the stored node ID)
+ * @param osmVersion  the version of the OpenStreetMap node the POS has been imported from; null if unknown
+ *                    (when updating, null keeps the stored node version)
  */
 @Builder(toBuilder = true)
 public record Pos(
         @Nullable Long id,
         @Nullable LocalDateTime createdAt,
         @Nullable LocalDateTime updatedAt,
-        @NonNull String name,
-        @NonNull String description,
-        @NonNull PosType type,
-        @NonNull CampusType campus,
-        @NonNull String street,
-        @NonNull String houseNumber,
-        @NonNull Integer postalCode,
-        @NonNull String city
+        @Nullable String name,
+        @Nullable String description,
+        @Nullable PosType type,
+        @Nullable CampusType campus,
+        @Nullable String street,
+        @Nullable String houseNumber,
+        @Nullable Integer postalCode,
+        @Nullable String city,
+        @Nullable Double latitude,
+        @Nullable Double longitude,
+        @Nullable Long version,
+        @Nullable Long osmNodeId,
+        @Nullable Long osmVersion
 ) implements Serializable { // serializable to allow cloning (see TestFixtures class).
     @Serial
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,21 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Result of a single item of a batch upsert.
+ *
+ * @param index   the position of the item in the batch
+ * @param outcome the outcome for this item
+ * @param pos     the persisted POS; null if the item was not persisted
+ * @param message a human-readable reason if the item was not persisted; null otherwise
+ */
+@Builder(toBuilder = true)
+public record PosBatchResult(
+        int index,
+        @NonNull BatchOutcome outcome,
+        @Nullable Pos pos,
+        @Nullable String message
+) {}
@@ -0,0 +1,19 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A single row of a bulk-load file that could not be loaded.
+ *
+ * @param line    the line of the file where the row starts, counted from 1
+ * @param outcome the reason why the row was not loaded
+ * @param message a human-readable description of the failure
+ */
+@Builder
+public record PosBulkLoadFailure(
+        long line,
+        @NonNull BatchOutcome outcome,
+        @Nullable String message
+) {}
@@ -0,0 +1,28 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk load of POS from a file.
+ *
+ * @param rows           the number of rows read from the file
+ * @param created        the number of rows that created a POS
+ * @param updated        the number of rows that updated an existing POS
+ * @param unchanged      the number of rows whose POS already had the same content
+ * @param failed         the number of rows that could not be loaded (e.g., invalid rows or duplicate names)
+ * @param failures       details of the failed rows, ordered by line (capped, see {@code failed} for the total number)
+ * @param durationMillis the duration of the load in milliseconds
+ */
+@Builder
+public record PosBulkLoadResult(
+        long rows,
+        long created,
+        long updated,
+        long unchanged,
+        long failed,
+        @NonNull List<PosBulkLoadFailure> failures,
+        long durationMillis
+) {}
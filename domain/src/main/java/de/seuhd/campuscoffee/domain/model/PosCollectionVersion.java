@@ -0,0 +1,22 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of the POS collection as a whole, used to detect whether any POS has changed
+ * without reading the POS themselves (e.g., for conditional HTTP requests).
+ * Creating or updating a POS changes the change counter; removing POS changes the deletion counter.
+ * The counters change when the write commits, whereas the last modification timestamp is taken when the write is
+ * prepared and is therefore only a hint (e.g., a write that commits after a later-stamped one does not raise it).
+ *
+ * @param changes      the number of times POS have been created or updated
+ * @param deletions    the number of times POS have been removed from the collection
+ * @param lastModified the latest update timestamp of all POS; null if the collection is empty
+ */
+public record PosCollectionVersion(
+        long changes,
+        long deletions,
+        @Nullable LocalDateTime lastModified
+) {}
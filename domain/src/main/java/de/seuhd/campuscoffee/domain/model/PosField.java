@@ -0,0 +1,69 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enum for the fields of a POS that can be requested individually (sparse fieldsets).
+ * Data stores only read the requested fields; all other fields of the returned POS are null, which is why the
+ * required components of {@link Pos} are declared nullable. Callers that request a subset of the fields must
+ * therefore only access the requested components.
+ */
+public enum PosField {
+    ID("id"),
+    CREATED_AT("createdAt"),
+    UPDATED_AT("updatedAt"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    TYPE("type"),
+    CAMPUS("campus"),
+    STREET("street"),
+    HOUSE_NUMBER("houseNumber"),
+    POSTAL_CODE("postalCode"),
+    CITY("city"),
+    LATITUDE("latitude"),
+    LONGITUDE("longitude");
+
+    private final String propertyName;
+
+    PosField(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * @return the name of the corresponding property of {@link Pos}
+     */
+    public @NonNull String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * @return a set containing all fields
+     */
+    public static @NonNull Set<PosField> all() {
+        return EnumSet.allOf(PosField.class);
+    }
+
+    /**
+     * Resolves fields by their property names. The ID is always included, because it identifies the POS.
+     *
+     * @param propertyNames the property names of the requested fields (e.g., "name", "houseNumber")
+     * @return the requested fields including {@link #ID}
+     * @throws IllegalArgumentException if a property name is unknown
+     */
+    public static @NonNull Set<PosField> fromPropertyNames(@NonNull Collection<String> propertyNames) {
+        Set<PosField> fields = EnumSet.of(ID);
+        for (String propertyName : propertyNames) {
+            String trimmed = propertyName.trim();
+            fields.add(Arrays.stream(values())
+                    .filter(field -> field.propertyName.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown POS field '" + trimmed + "'.")));
+        }
+        return fields;
+    }
+}
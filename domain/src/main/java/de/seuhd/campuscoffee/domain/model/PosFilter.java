@@ -0,0 +1,36 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import lombok.Builder;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Criteria for filtering POS lists. All criteria are optional and combined with AND;
+ * a filter without criteria matches all POS.
+ *
+ * @param campus     the campus the POS must be located at; null to match all campuses
+ * @param type       the type the POS must have; null to match all types
+ * @param city       the city the POS must be located in (exact match); null to match all cities
+ * @param postalCode the postal code the POS must have; null to match all postal codes
+ */
+@Builder(toBuilder = true)
+public record PosFilter(
+        @Nullable CampusType campus,
+        @Nullable PosType type,
+        @Nullable String city,
+        @Nullable Integer postalCode
+) {
+    /**
+     * @return a filter that matches all POS
+     */
+    public static @NonNull PosFilter none() {
+        return new PosFilter(null, null, null, null);
+    }
+
+    /**
+     * @return true if this filter has no criteria, i.e., matches all POS
+     */
+    public boolean isEmpty() {
+        return campus == null && type == null && city == null && postalCode == null;
+    }
+}
@@ -0,0 +1,17 @@
+package de.seuhd.campuscoffee.domain.model;
+
+import org.jspecify.annotations.NonNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version of a single POS, used to detect whether the POS has changed without reading the POS itself
+ * (e.g., for conditional HTTP requests and optimistic concurrency control).
+ *
+ * @param version      the version of the POS; incremented on every update
+ * @param lastModified the update timestamp of the POS
+ */
+public record PosVersion(
+        long version,
+        @NonNull LocalDateTime lastModified
+) {}
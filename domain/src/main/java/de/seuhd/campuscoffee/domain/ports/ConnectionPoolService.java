@@ -0,0 +1,18 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.ConnectionPoolStatistics;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Service interface for observing the pool of database connections used by the {@link PosDataService} port.
+ * This is a port in the hexagonal architecture pattern, implemented by the data layer
+ * and consumed by the API layer.
+ */
+public interface ConnectionPoolService {
+    /**
+     * Retrieves the state of the connection pool and the hold and wait times of its connections.
+     *
+     * @return a snapshot of the pool state and counters; never null
+     */
+    @NonNull ConnectionPoolStatistics getStatistics();
+}
@@ -0,0 +1,71 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobRejectedException;
+import de.seuhd.campuscoffee.domain.model.ImportJob;
+import org.jspecify.annotations.NonNull;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Service interface for asynchronous OpenStreetMap import jobs.
+ * Jobs are processed on a dedicated, bounded worker pool, so that long-running imports neither block
+ * the caller nor compete with request threads. The progress of a job can be polled using its ID.
+ * This is a port in the hexagonal architecture pattern, implemented by the domain layer
+ * and consumed by the API layer. Imports are delegated to the {@link PosService} port.
+ */
+public interface ImportJobService {
+    /**
+     * Maximum number of OpenStreetMap nodes per import job.
+     */
+    int MAX_JOB_SIZE = 100_000;
+
+    /**
+     * Submits a job that imports Points of Sale from the given OpenStreetMap nodes.
+     * The job is queued and processed asynchronously; the method returns immediately.
+     *
+     * @param nodeIds the OpenStreetMap node IDs to import; must not be null and contain at most
+     *                {@link #MAX_JOB_SIZE} items
+     * @return the initial state of the submitted job; never null
+     * @throws ImportJobRejectedException if the import queue is full
+     * @throws IllegalArgumentException if the job is empty or too large
+     */
+    @NonNull ImportJob submitOsmImport(@NonNull List<Long> nodeIds) throws ImportJobRejectedException;
+
+    /**
+     * Submits a job that imports Points of Sale from a local OpenStreetMap extract
+     * (see {@link PosService#importFromOsmExtract(String, BiConsumer)}).
+     * The job is queued and processed asynchronously; the method returns immediately.
+     * Since the matching nodes are only known once the extract has been read, the total number of nodes
+     * of the job grows with every imported batch until the job has finished.
+     *
+     * @param extractName the file name of the extract in the extract directory; must not be blank
+     * @return the initial state of the submitted job; never null
+     * @throws ImportJobRejectedException if the import queue is full
+     * @throws IllegalArgumentException if the extract name is blank
+     */
+    @NonNull ImportJob submitOsmExtractImport(@NonNull String extractName) throws ImportJobRejectedException;
+
+    /**
+     * Submits a job that applies the pending OpenStreetMap replication diffs
+     * (see {@link PosService#replicateOsmChanges(BiConsumer)}).
+     * The job is queued and processed asynchronously; the method returns immediately.
+     * Like for extract imports, the total number of nodes of the job grows with every applied batch.
+     *
+     * @return the initial state of the submitted job; never null
+     * @throws ImportJobRejectedException if the import queue is full
+     */
+    @NonNull ImportJob submitOsmReplication() throws ImportJobRejectedException;
+
+    /**
+     * Retrieves the current state of an import job.
+     * Finished jobs are only retained for a limited time.
+     *
+     * @param jobId the unique identifier of the job; must not be null
+     * @return the current state of the job; never null
+     * @throws ImportJobNotFoundException if no job exists with the given ID
+     */
+    @NonNull ImportJob getJob(@NonNull UUID jobId) throws ImportJobNotFoundException;
+}
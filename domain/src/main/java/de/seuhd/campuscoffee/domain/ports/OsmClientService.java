@@ -0,0 +1,19 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.OsmClientStatistics;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Service interface for observing the resilience layer (retries, circuit breaker, and rate limiter)
+ * in front of the OpenStreetMap API that is accessed by the {@link OsmDataService} port.
+ * This is a port in the hexagonal architecture pattern, implemented by the data layer
+ * and consumed by the API layer.
+ */
+public interface OsmClientService {
+    /**
+     * Retrieves the circuit breaker state and the counters of the resilience layer.
+     *
+     * @return a snapshot of the state and the counters; never null
+     */
+    @NonNull OsmClientStatistics getStatistics();
+}
@@ -1,21 +1,63 @@
 package de.seuhd.campuscoffee.domain.ports;
 
 import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiException;
+import de.seuhd.campuscoffee.domain.exceptions.OsmApiUnavailableException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
 import org.jspecify.annotations.NonNull;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Port for importing Point of Sale data from OpenStreetMap.
  * This interface defines the contract for fetching OSM node data.
  * Implementations should handle the external API communication.
  */
 public interface OsmDataService {
+    /**
+     * Qualifier of the adapter that accesses the OpenStreetMap API, as opposed to decorators of this port
+     * (such as the resilience layer), which are injected by default.
+     */
+    String API = "osmApi";
+
     /**
      * Fetches an OpenStreetMap node by its ID.
      *
      * @param nodeId the OpenStreetMap node ID to fetch
      * @return the OSM node data with tags
      * @throws OsmNodeNotFoundException if the node doesn't exist or can't be fetched
+     * @throws OsmApiException if the API answers with an unexpected status or cannot be reached
+     * @throws OsmApiUnavailableException if the request is not sent because the API is considered unavailable
      */
     @NonNull OsmNode fetchNode(@NonNull Long nodeId) throws OsmNodeNotFoundException;
+
+    /**
+     * Fetches multiple OpenStreetMap nodes using as few requests as possible.
+     * Nodes that do not exist are not contained in the result.
+     *
+     * @param nodeIds the OpenStreetMap node IDs to fetch; duplicates are ignored
+     * @return the fetched nodes keyed by their node ID; never null
+     */
+    @NonNull Map<Long, OsmNode> fetchNodes(@NonNull Collection<Long> nodeIds);
+
+    /**
+     * Fetches an OpenStreetMap node without blocking the calling thread.
+     * Implementations must not occupy a thread while the request is in flight, so that many nodes can be
+     * fetched concurrently with few threads.
+     *
+     * @param nodeId the OpenStreetMap node ID to fetch
+     * @return a future of the OSM node data with tags, which fails with {@link OsmNodeNotFoundException}
+     *         if the node doesn't exist, or with the exceptions of {@link #fetchNode(Long)}; never null
+     */
+    @NonNull CompletableFuture<OsmNode> fetchNodeAsync(@NonNull Long nodeId);
+
+    /**
+     * Fetches multiple OpenStreetMap nodes like {@link #fetchNodes(Collection)}, but without blocking the calling thread.
+     *
+     * @param nodeIds the OpenStreetMap node IDs to fetch; duplicates are ignored
+     * @return a future of the fetched nodes keyed by their node ID; never null
+     */
+    @NonNull CompletableFuture<Map<Long, OsmNode>> fetchNodesAsync(@NonNull Collection<Long> nodeIds);
 }
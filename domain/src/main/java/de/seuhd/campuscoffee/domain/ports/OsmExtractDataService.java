@@ -0,0 +1,27 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.OsmNode;
+import org.jspecify.annotations.NonNull;
+
+import java.util.function.Consumer;
+
+/**
+ * Port for reading Point of Sale data from local OpenStreetMap extracts (e.g., regional extracts in the
+ * {@code .osm} XML or {@code .osm.pbf} format), as an alternative to fetching single nodes from the OSM API.
+ * Implementations should handle locating and decoding the extract files.
+ */
+public interface OsmExtractDataService {
+    /**
+     * Reads all tagged nodes of an extract in file order and passes them to the consumer while the extract is read.
+     * Implementations must stream the extract, so that the memory use does not depend on its size.
+     * Nodes without any tag that can be mapped to {@link OsmNode} fields (e.g., nodes that only define the
+     * geometry of ways) are skipped.
+     *
+     * @param extractName the file name of the extract in the configured extract directory; must not be null
+     * @param consumer receives the tagged nodes of the extract
+     * @return the number of nodes passed to the consumer
+     * @throws IllegalArgumentException if the name does not denote an extract in the extract directory
+     *                                  or its format is not supported
+     */
+    long readNodes(@NonNull String extractName, @NonNull Consumer<OsmNode> consumer);
+}
@@ -0,0 +1,18 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.OsmNodeCacheStatistics;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Service interface for observing the persistent cache of the nodes fetched by the {@link OsmDataService} port.
+ * This is a port in the hexagonal architecture pattern, implemented by the data layer
+ * and consumed by the API layer.
+ */
+public interface OsmNodeCacheService {
+    /**
+     * Retrieves the counters and the size of the OSM node cache.
+     *
+     * @return a snapshot of the cache counters; never null
+     */
+    @NonNull OsmNodeCacheStatistics getStatistics();
+}
@@ -0,0 +1,49 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Port for reading OpenStreetMap replication diffs (osmChange files, {@code .osc} or {@code .osc.gz}) and for
+ * persisting the sequence number of the last applied diff (the checkpoint), so that the replication can be resumed.
+ * Implementations should handle locating and decoding the diff files.
+ */
+public interface OsmReplicationDataService {
+    /**
+     * Lists the sequence numbers of the available diffs after the given one.
+     *
+     * @param after the sequence number after which to list diffs (exclusive); null to list all diffs
+     * @return the sequence numbers in ascending order; never null, but may be empty
+     */
+    @NonNull List<Long> getSequenceNumbers(@Nullable Long after);
+
+    /**
+     * Reads all node changes of a diff in file order and passes them to the consumer while the diff is read.
+     * Implementations must stream the diff, so that the memory use does not depend on its size.
+     * Changes of ways and relations are skipped.
+     *
+     * @param sequenceNumber the sequence number of the diff
+     * @param consumer receives the node changes of the diff
+     * @return the number of changes passed to the consumer
+     * @throws IllegalArgumentException if no diff exists with the given sequence number
+     */
+    long readChanges(long sequenceNumber, @NonNull Consumer<OsmNodeChange> consumer);
+
+    /**
+     * Retrieves the persisted checkpoint.
+     *
+     * @return the sequence number of the last applied diff; null if no diff has been applied yet
+     */
+    @Nullable Long getCheckpoint();
+
+    /**
+     * Persists the checkpoint after a diff has been applied completely.
+     *
+     * @param sequenceNumber the sequence number of the applied diff
+     */
+    void saveCheckpoint(long sequenceNumber);
+}
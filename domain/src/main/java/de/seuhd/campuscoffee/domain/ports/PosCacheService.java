@@ -0,0 +1,18 @@
+package de.seuhd.campuscoffee.domain.ports;
+
+import de.seuhd.campuscoffee.domain.model.CacheStatistics;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Service interface for observing the POS cache that decorates the {@link PosDataService} port.
+ * This is a port in the hexagonal architecture pattern, implemented by the domain layer
+ * and consumed by the API layer.
+ */
+public interface PosCacheService {
+    /**
+     * Retrieves the counters of the POS cache.
+     *
+     * @return a snapshot of the cache counters; never null
+     */
+    @NonNull CacheStatistics getStatistics();
+}
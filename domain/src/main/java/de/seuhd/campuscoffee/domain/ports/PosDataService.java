@@ -1,10 +1,25 @@
 package de.seuhd.campuscoffee.domain.ports;
 
+import de.seuhd.campuscoffee.domain.model.CursorPage;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
+import de.seuhd.campuscoffee.domain.exceptions.DuplicateOsmNodeException;
+import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
 import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.PosVersionConflictException;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Port interface for POS data operations.
@@ -14,6 +29,12 @@ import java.util.List;
  * and the infrastructure layer provides the adapter implementation.
  */
 public interface PosDataService {
+    /**
+     * Qualifier of the adapter that accesses the data store, as opposed to decorators of this port
+     * (such as the POS cache), which are injected by default.
+     */
+    String DATA_STORE = "posDataStore";
+
     /**
      * Clears all POS data from the data store.
      * This is typically used for testing or administrative purposes.
@@ -22,11 +43,54 @@ public interface PosDataService {
     void clear();
 
     /**
-     * Retrieves all POS entities from the data store.
+     * Retrieves one page of POS entities that match the filter, ordered by ascending ID.
+     * Implementations must seek to the cursor and evaluate the filter using an index
+     * ({@code WHERE ... AND id > ? ORDER BY id LIMIT ?}) so that the cost per page stays constant
+     * regardless of the size of the data store and only the returned rows are read.
+     * Only the requested fields are read from the data store; all other fields of the returned POS are null.
+     *
+     * @param after the ID after which the page starts (exclusive); null to start with the first POS
+     * @param limit the maximum number of POS entities on the page; must be positive
+     * @param filter the criteria the POS on the page must match
+     * @param fields the fields to read; must contain {@link PosField#ID}
+     * @return the requested page with the cursor of the next page; never null, but may be empty
+     */
+    @NonNull CursorPage<Pos> getPage(@Nullable Long after, int limit, @NonNull PosFilter filter, @NonNull Set<PosField> fields);
+
+    /**
+     * Searches POS entities by name and description using a full-text index.
+     * All search terms must match (as a prefix of a word); results are ordered by descending relevance.
      *
-     * @return a list of all POS entities; never null, but may be empty
+     * @param query the search terms; must not be null
+     * @param offset the number of results to skip; must not be negative
+     * @param limit the maximum number of POS entities on the page; must be positive
+     * @return the requested page of results; the next cursor is the offset of the next page, or null if there is none
      */
-    @NonNull List<Pos> getAll();
+    @NonNull CursorPage<Pos> search(@NonNull String query, long offset, int limit);
+
+    /**
+     * Retrieves the POS entities closest to a location, ordered by ascending (great-circle) distance.
+     * Implementations must use a spatial index, so that the cost depends on the number of returned POS
+     * rather than on the size of the data store.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @param radius the maximum distance from the location in meters
+     * @param limit the maximum number of POS entities to return; must be positive
+     * @return the nearest POS entities within the radius, closest first; never null, but may be empty
+     */
+    @NonNull List<Pos> getNearby(double latitude, double longitude, double radius, int limit);
+
+    /**
+     * Streams all POS entities from the data store ordered by ascending ID.
+     * Implementations must read the rows incrementally (e.g., using a server-side cursor) and must not
+     * retain already consumed rows, so that the memory use is independent of the size of the data store.
+     * The returned stream holds database resources and must be closed by the caller
+     * (e.g., using try-with-resources) on the same thread that opened it.
+     *
+     * @return a stream of all POS entities; never null, but may be empty
+     */
+    @NonNull Stream<Pos> streamAll();
 
     /**
      * Retrieves a single POS entity by its unique identifier.
@@ -37,14 +101,112 @@ public interface PosDataService {
      */
     @NonNull Pos getById(@NonNull Long id) throws PosNotFoundException;
 
+    /**
+     * Retrieves the requested fields of a single POS entity by its unique identifier.
+     * Only the requested fields are read from the data store; all other fields of the returned POS are null.
+     *
+     * @param id the unique identifier of the POS to retrieve; must not be null
+     * @param fields the fields to read; must contain {@link PosField#ID}
+     * @return the POS with the requested fields; never null
+     * @throws PosNotFoundException if no POS exists with the given ID
+     */
+    @NonNull Pos getById(@NonNull Long id, @NonNull Set<PosField> fields) throws PosNotFoundException;
+
+    /**
+     * Retrieves the version and last modification timestamp of a single POS entity without loading the entity itself.
+     *
+     * @param id the unique identifier of the POS; must not be null
+     * @return the current version of the POS; never null
+     * @throws PosNotFoundException if no POS exists with the given ID
+     */
+    @NonNull PosVersion getVersion(@NonNull Long id) throws PosNotFoundException;
+
+    /**
+     * Retrieves the version of the POS collection (change and deletion counters and latest update timestamp)
+     * without loading any POS and without scanning the collection, i.e., at constant cost.
+     *
+     * @return the current version of the POS collection; never null
+     */
+    @NonNull PosCollectionVersion getCollectionVersion();
+
+    /**
+     * Retrieves the names of all POS with the IDs of the POS using them, without loading any POS entity.
+     *
+     * @return a map from POS name to POS ID; never null, but may be empty
+     */
+    @NonNull Map<String, Long> getIdsByName();
+
+    /**
+     * Retrieves the IDs of the POS using the given names (an exact lookup using the unique index on the name).
+     *
+     * @param names the names to look up; must not be null
+     * @return a map from POS name to POS ID containing only the names that are in use; never null
+     */
+    @NonNull Map<String, Long> getIdsByName(@NonNull Collection<String> names);
+
+    /**
+     * Retrieves the POS that have been imported from the given OpenStreetMap nodes (an exact lookup using the
+     * unique index on the node ID).
+     *
+     * @param osmNodeIds the OpenStreetMap node IDs to look up; must not be null
+     * @return a map from node ID to POS containing only the nodes that have been imported; never null
+     */
+    @NonNull Map<Long, Pos> getByOsmNodeIds(@NonNull Collection<Long> osmNodeIds);
+
+    /**
+     * Retrieves the IDs of all OpenStreetMap nodes that POS have been imported from, without loading any POS entity.
+     *
+     * @return the node IDs; never null, but may be empty
+     */
+    @NonNull Set<Long> getOsmNodeIds();
+
     /**
      * Creates a new POS or updates an existing one.
      * If the POS has an ID and exists in the data store, it will be updated.
      * If the POS has no ID (null), a new POS will be created.
+     * If the POS to update has a version, it is only updated if the stored version matches; the check and the
+     * update must be atomic (e.g., {@code UPDATE ... WHERE version = ?}) instead of locking the row.
+     * Every update increments the version.
+     * <p>
+     * Updates that would not change the content of the POS (compared by a hash of the content fields that is stored
+     * with the POS) are skipped without writing, so that neither the version nor the update timestamp changes.
      *
      * @param pos the POS entity to create or update; must not be null
-     * @return the persisted POS entity with updated timestamps and ID; never null
+     * @return the persisted POS entity with updated timestamps and ID (the stored POS if nothing was written);
+     *         never null
      * @throws PosNotFoundException if attempting to update a POS that does not exist
+     * @throws DuplicatePosNameException if another POS already has the same name
+     * @throws DuplicateOsmNodeException if another POS has already been imported from the same OpenStreetMap node
+     * @throws PosVersionConflictException if the stored POS does not have the expected version
+     */
+    @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException, DuplicatePosNameException, DuplicateOsmNodeException, PosVersionConflictException;
+
+    /**
+     * Creates or updates a batch of POS using as few database round-trips as possible
+     * (bulk lookups of existing POS and names, JDBC batch inserts and updates).
+     * In contrast to {@link #upsert(Pos)}, failures of single items do not abort the batch; instead,
+     * the outcome of every item is reported (e.g., duplicate names, version conflicts, or updates of non-existing POS).
+     * Like in {@link #upsert(Pos)}, updates that would not change the content are skipped and reported as
+     * {@link de.seuhd.campuscoffee.domain.model.BatchOutcome#UNCHANGED}.
+     *
+     * @param posList the POS entities to create or update; must not be null
+     * @return one result per item, in the same order as the given list; never null
+     */
+    @NonNull List<PosBatchResult> upsertAll(@NonNull List<Pos> posList);
+
+    /**
+     * Loads POS from a CSV or NDJSON file in the configured bulk-load directory in a single transaction.
+     * Rows with an ID update the POS with this ID, rows without an ID create a new POS. Invalid rows, rows with
+     * duplicate IDs or the ID of a POS that does not exist, and rows whose name is used by another POS or by a
+     * previous row are skipped and reported; all other rows are loaded. Like {@link #upsert(Pos)}, updates that would not change the content
+     * of a POS are skipped.
+     * Implementations must stream the file, so that the memory use does not depend on its size.
+     *
+     * @param fileName the name of the file in the bulk-load directory; its extension determines the format
+     *                 ({@code .csv}, {@code .ndjson}, or {@code .jsonl})
+     * @return the summary of the load; never null
+     * @throws IllegalArgumentException if the name does not denote a file in the bulk-load directory, its format is
+     *                                  not supported, or the CSV header lacks required columns
      */
-    @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException;
+    @NonNull PosBulkLoadResult bulkLoad(@NonNull String fileName);
 }
@@ -1,14 +1,28 @@
 package de.seuhd.campuscoffee.domain.ports;
 
 
+import de.seuhd.campuscoffee.domain.exceptions.DuplicateOsmNodeException;
 import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeMissingFieldsException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeNotFoundException;
 import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.PosVersionConflictException;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosCollectionVersion;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * Service interface for POS (Point of Sale) operations.
@@ -18,6 +32,26 @@ import java.util.List;
  * data operations through the {@link PosDataService} port.
  */
 public interface PosService {
+    /**
+     * Page size used if the client does not request a specific one.
+     */
+    int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Upper bound for the page size; larger requested page sizes are capped to this value.
+     */
+    int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Maximum number of POS that can be upserted in a single batch.
+     */
+    int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Upper bound for the radius of nearby searches in meters.
+     */
+    double MAX_NEARBY_RADIUS = 50_000;
+
     /**
      * Clears all POS data.
      * This operation removes all Points of Sale from the system.
@@ -27,11 +61,54 @@ public interface PosService {
     void clear();
 
     /**
-     * Retrieves all Points of Sale in the system.
+     * Retrieves one page of Points of Sale that match the filter, ordered by ascending ID (keyset pagination).
+     * The page contains the matching POS with the smallest IDs greater than {@code after}.
+     * Page sizes above {@link #MAX_PAGE_SIZE} are capped.
+     *
+     * @param after the ID after which the page starts (exclusive); null to start with the first POS
+     * @param limit the maximum number of POS on the page; must be positive
+     * @param filter the criteria the POS on the page must match; use {@link PosFilter#none()} for all POS
+     * @param fields the fields to retrieve; all other fields of the returned POS are null (the ID is always retrieved)
+     * @return the requested page with the cursor of the next page; never null, but may be empty
+     * @throws IllegalArgumentException if the limit is not positive
+     */
+    @NonNull CursorPage<Pos> getPage(@Nullable Long after, int limit, @NonNull PosFilter filter, @NonNull Set<PosField> fields);
+
+    /**
+     * Searches Points of Sale by name and description, ordered by descending relevance.
+     * Every search term must match the beginning of a word (e.g., "botan" matches "Botanik").
+     * Page sizes above {@link #MAX_PAGE_SIZE} are capped.
      *
-     * @return a list of all POS entities; never null, but may be empty if no POSs exist
+     * @param query the search terms; must not be blank
+     * @param offset the number of results to skip; must not be negative
+     * @param limit the maximum number of POS on the page; must be positive
+     * @return the requested page of results; the next cursor is the offset of the next page, or null if there is none
+     * @throws IllegalArgumentException if the query is blank or the offset or limit is out of range
      */
-    @NonNull List<Pos> getAll();
+    @NonNull CursorPage<Pos> search(@NonNull String query, long offset, int limit);
+
+    /**
+     * Retrieves the Points of Sale closest to a location, ordered by ascending distance.
+     * POS without a known location are never returned. Result sizes above {@link #MAX_PAGE_SIZE} are capped.
+     *
+     * @param latitude the latitude of the location in degrees
+     * @param longitude the longitude of the location in degrees
+     * @param radius the maximum distance from the location in meters; at most {@link #MAX_NEARBY_RADIUS}
+     * @param limit the maximum number of POS to return; must be positive
+     * @return the nearest POS within the radius, closest first; never null, but may be empty
+     * @throws IllegalArgumentException if the location, radius, or limit is out of range
+     */
+    @NonNull List<Pos> getNearby(double latitude, double longitude, double radius, int limit);
+
+    /**
+     * Streams all Points of Sale in the system ordered by ascending ID, e.g., for exporting the full catalogue.
+     * The POS are read incrementally from the data store, so the memory use does not depend on the number of POS.
+     * The returned stream holds database resources and must be closed by the caller
+     * (e.g., using try-with-resources) on the same thread that opened it.
+     *
+     * @return a stream of all POS entities; never null, but may be empty if no POSs exist
+     */
+    @NonNull Stream<Pos> streamAll();
 
     /**
      * Retrieves a specific Point of Sale by its unique identifier.
@@ -42,6 +119,36 @@ public interface PosService {
      */
     @NonNull Pos getById(@NonNull Long id) throws PosNotFoundException;
 
+    /**
+     * Retrieves the requested fields of a single POS by its unique identifier.
+     * Only the requested fields are read; all other fields of the returned POS are null.
+     *
+     * @param id the unique identifier of the POS to retrieve; must not be null
+     * @param fields the fields to retrieve (the ID is always retrieved)
+     * @return the POS with the requested fields; never null
+     * @throws PosNotFoundException if no POS exists with the given ID
+     */
+    @NonNull Pos getById(@NonNull Long id, @NonNull Set<PosField> fields) throws PosNotFoundException;
+
+    /**
+     * Retrieves the version and last modification timestamp of a specific Point of Sale.
+     * This is much cheaper than {@link #getById(Long)} and intended for validating client-side caches.
+     *
+     * @param id the unique identifier of the POS; must not be null
+     * @return the current version of the POS; never null
+     * @throws PosNotFoundException if no POS exists with the given ID
+     */
+    @NonNull PosVersion getVersion(@NonNull Long id) throws PosNotFoundException;
+
+    /**
+     * Retrieves the version of the POS collection as a whole.
+     * The version changes whenever a POS is created, updated, or removed and is intended
+     * for validating client-side caches of POS lists.
+     *
+     * @return the current version of the POS collection; never null
+     */
+    @NonNull PosCollectionVersion getCollectionVersion();
+
     /**
      * Creates a new POS or updates an existing one.
      * This method performs an "upsert" operation:
@@ -49,6 +156,8 @@ public interface PosService {
      *   <li>If the POS has no ID (null), a new POS is created</li>
      *   <li>If the POS has an ID, and it exists, the existing POS is updated</li>
      * </ul>
+     * If the POS to update has a version, the update is only applied if the stored POS still has this version
+     * (optimistic concurrency control); no lock is held between reading and updating a POS.
      * <p>
      * Business rules enforced:
      * <ul>
@@ -61,13 +170,41 @@ public interface PosService {
      * @return the persisted POS entity with populated ID and timestamps; never null
      * @throws PosNotFoundException if attempting to update a POS that does not exist
      * @throws DuplicatePosNameException if a POS with the same name already exists
+     * @throws DuplicateOsmNodeException if another POS has already been imported from the same OpenStreetMap node
+     * @throws PosVersionConflictException if the POS has been updated since the given version
+     */
+    @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException, DuplicatePosNameException, DuplicateOsmNodeException, PosVersionConflictException;
+
+    /**
+     * Creates or updates a batch of Points of Sale.
+     * Each item is handled like in {@link #upsert(Pos)}, but failing items (e.g., because of duplicate names)
+     * do not abort the batch; instead, the outcome of every item is reported.
+     *
+     * @param posList the POS entities to create or update; must not be null and contain at most
+     *                {@link #MAX_BATCH_SIZE} items
+     * @return one result per item, in the same order as the given list; never null
+     * @throws IllegalArgumentException if the batch is too large
+     */
+    @NonNull List<PosBatchResult> upsertAll(@NonNull List<Pos> posList);
+
+    /**
+     * Loads Points of Sale from a CSV or NDJSON file in the bulk-load directory, e.g., for seeding a new environment
+     * from an export (see {@link PosDataService#bulkLoad(String)}).
+     * The file is loaded in a single transaction with set-based statements instead of one write per POS;
+     * failing rows (e.g., because of duplicate names) do not abort the load but are reported.
+     *
+     * @param fileName the name of the file in the bulk-load directory ({@code .csv}, {@code .ndjson}, or {@code .jsonl})
+     * @return the summary of the load; never null
+     * @throws IllegalArgumentException if the file does not exist, its format is not supported,
+     *                                  or the CSV header lacks required columns
      */
-    @NonNull Pos upsert(@NonNull Pos pos) throws PosNotFoundException, DuplicatePosNameException;
+    @NonNull PosBulkLoadResult bulkLoad(@NonNull String fileName);
 
     /**
      * Imports a Point of Sale from an OpenStreetMap node.
      * Fetches POS data from OpenStreetMap using the {@link OsmDataService}, converts it to a POS entity,
-     * and saves it to the system. If a POS with the same name already exists, it will be updated.
+     * and saves it to the system. If a POS has been imported from the same node before, it will be updated;
+     * if the node has the same version as at the last import, nothing is written and the POS is returned as is.
      * <p>
      * The import process:
      * <ol>
@@ -76,12 +213,84 @@ public interface PosService {
      *   <li>Maps OSM data to the POS domain model </li>
      *   <li>Persists the POS entity using the upsert method</li>
      * </ol>
+     * Concurrent imports of the same node are coalesced: only one import runs, and the other callers wait for it
+     * and receive its result (or its exception).
      *
      * @param nodeId the OpenStreetMap node ID to import; must not be null
      * @return the created or updated POS entity; never null
      * @throws OsmNodeNotFoundException if the OSM node with the given ID doesn't exist or cannot be fetched
      * @throws OsmNodeMissingFieldsException if the OSM node lacks required fields for creating a valid POS
      * @throws DuplicatePosNameException if a POS with the same name already exists
+     * @throws DuplicateOsmNodeException if the node has been imported concurrently by another instance
+     */
+    @NonNull Pos importFromOsmNode(@NonNull Long nodeId) throws OsmNodeNotFoundException, OsmNodeMissingFieldsException, DuplicatePosNameException, DuplicateOsmNodeException;
+
+    /**
+     * Imports multiple Points of Sale from OpenStreetMap nodes.
+     * All nodes are fetched with as few requests as possible using the {@link OsmDataService}, converted
+     * like in {@link #importFromOsmNode(Long)}, and persisted as one batch using {@link #upsertAll(List)}.
+     * Failing nodes (e.g., nodes that do not exist or lack required fields) do not abort the import;
+     * instead, the outcome of every node is reported. Nodes that have not changed since their last import are
+     * reported as {@link de.seuhd.campuscoffee.domain.model.BatchOutcome#UNCHANGED} without writing them.
+     *
+     * @param nodeIds the OpenStreetMap node IDs to import; must not be null and contain at most
+     *                {@link #MAX_BATCH_SIZE} items
+     * @return one result per node ID, in the same order as the given list; never null
+     * @throws IllegalArgumentException if too many nodes are requested
+     */
+    @NonNull List<PosBatchResult> importFromOsmNodes(@NonNull List<Long> nodeIds);
+
+    /**
+     * Imports Points of Sale from any number of OpenStreetMap nodes in consecutive batches.
+     * Every batch is imported like in {@link #importFromOsmNodes(List)}, but the nodes of the following batches
+     * are fetched concurrently and asynchronously (see {@link OsmDataService#fetchNodesAsync(Collection)}) while
+     * the current batch is persisted, so that the import does not wait for one request after the other.
+     * Failing nodes do not abort the import; instead, the outcome of every node is passed to the batch listener.
+     *
+     * @param nodeIds the OpenStreetMap node IDs to import; must not be null
+     * @param batchSize the number of nodes per batch; must be between 1 and {@link #MAX_BATCH_SIZE}
+     * @param batchListener receives the node IDs of every persisted batch and one result per node ID, in the same
+     *                      order; called on the calling thread, batch after batch
+     * @throws IllegalArgumentException if the batch size is out of range or a node ID is null
+     */
+    void importFromOsmNodes(@NonNull List<Long> nodeIds, int batchSize,
+                            @NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener);
+
+    /**
+     * Imports Points of Sale from a local OpenStreetMap extract (e.g., a regional {@code .osm} or {@code .osm.pbf} file).
+     * The extract is streamed using the {@link OsmExtractDataService}; only nodes tagged as a supported POS type
+     * (cafés, canteens, vending machines, and bakeries) are converted like in {@link #importFromOsmNode(Long)} and
+     * persisted in batches of at most {@link #MAX_BATCH_SIZE} nodes using {@link #upsertAll(List)}, so that the
+     * memory use does not depend on the size of the extract.
+     * Failing nodes do not abort the import; instead, the outcome of every node is passed to the batch listener.
+     *
+     * @param extractName the file name of the extract in the extract directory; must not be null
+     * @param batchListener receives the node IDs of every persisted batch and one result per node ID, in the same order
+     * @return the number of nodes tagged as a supported POS type
+     * @throws IllegalArgumentException if the extract does not exist or its format is not supported
+     */
+    long importFromOsmExtract(@NonNull String extractName,
+                              @NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener);
+
+    /**
+     * Applies the pending OpenStreetMap replication diffs (osmChange files) in the order of their sequence numbers,
+     * starting after the checkpoint persisted by the {@link OsmReplicationDataService}.
+     * Every diff is streamed, and only the changes of nodes that POS have been imported from, or that are tagged as a
+     * supported POS type (like in {@link #importFromOsmExtract(String, BiConsumer)}), are applied: created and modified
+     * nodes are converted like in {@link #importFromOsmNode(Long)} and persisted in batches of at most
+     * {@link #MAX_BATCH_SIZE} nodes using {@link #upsertAll(List)}. If a node changes several times within a batch,
+     * only its last change is applied. Deleted nodes are logged, but their POS are kept.
+     * <p>
+     * Diffs are applied in the order of their sequence numbers, starting directly after the checkpoint (or with the
+     * first available diff if there is no checkpoint); the replication stops before a missing sequence number, so
+     * that no diff is skipped.
+     * The checkpoint is saved after every completely applied diff. An interrupted replication resumes with the diff
+     * it was applying; the changes that had already been applied are then reported as
+     * {@link de.seuhd.campuscoffee.domain.model.BatchOutcome#UNCHANGED}. Replications do not run concurrently;
+     * a replication that is started while another one is running waits for it.
+     *
+     * @param batchListener receives the node IDs of every persisted batch and one result per node ID, in the same order
+     * @return the number of applied diffs
      */
-    @NonNull Pos importFromOsmNode(@NonNull Long nodeId) throws OsmNodeNotFoundException, OsmNodeMissingFieldsException, DuplicatePosNameException;
+    long replicateOsmChanges(@NonNull BiConsumer<List<Long>, List<PosBatchResult>> batchListener);
 }
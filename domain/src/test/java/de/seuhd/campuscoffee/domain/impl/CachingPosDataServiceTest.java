@@ -0,0 +1,190 @@
+package de.seuhd.campuscoffee.domain.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.PosNotFoundException;
+import de.seuhd.campuscoffee.domain.model.CacheStatistics;
+import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosVersion;
+import de.seuhd.campuscoffee.domain.ports.PosDataService;
+import de.seuhd.campuscoffee.domain.tests.TestFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPosDataServiceTest {
+
+    @Mock
+    private PosDataService delegate;
+
+    private final AtomicLong nanoClock = new AtomicLong();
+
+    private CachingPosDataService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CachingPosDataService(delegate, 2, Duration.ofSeconds(60), Duration.ofSeconds(5), nanoClock::get);
+    }
+
+    @Test
+    void getByIdLoadsOnceUntilExpiry() {
+        Pos pos = TestFixtures.getPosList().getFirst();
+        when(delegate.getById(1L)).thenReturn(pos);
+
+        assertThat(cache.getById(1L)).isEqualTo(pos);
+        assertThat(cache.getById(1L)).isEqualTo(pos);
+        verify(delegate, times(1)).getById(1L);
+
+        nanoClock.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertThat(cache.getById(1L)).isEqualTo(pos);
+        verify(delegate, times(2)).getById(1L);
+
+        CacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.hits()).isEqualTo(1);
+        assertThat(statistics.misses()).isEqualTo(2);
+        assertThat(statistics.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void getByIdCachesNotFoundBriefly() {
+        when(delegate.getById(99L)).thenThrow(new PosNotFoundException(99L));
+
+        assertThatThrownBy(() -> cache.getById(99L)).isInstanceOf(PosNotFoundException.class);
+        assertThatThrownBy(() -> cache.getById(99L)).isInstanceOf(PosNotFoundException.class);
+        verify(delegate, times(1)).getById(99L);
+        assertThat(cache.getStatistics().notFoundHits()).isEqualTo(1);
+
+        nanoClock.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertThatThrownBy(() -> cache.getById(99L)).isInstanceOf(PosNotFoundException.class);
+        verify(delegate, times(2)).getById(99L);
+    }
+
+    @Test
+    void upsertInvalidatesEntry() {
+        Pos pos = TestFixtures.getPosList().getFirst();
+        Pos updated = pos.toBuilder().description("Changed").build();
+        when(delegate.getById(pos.id())).thenReturn(pos, updated);
+        when(delegate.upsert(updated)).thenReturn(updated);
+
+        cache.getById(pos.id());
+        cache.upsert(updated);
+
+        assertThat(cache.getById(pos.id())).isEqualTo(updated);
+        verify(delegate, times(2)).getById(pos.id());
+    }
+
+    @Test
+    void upsertKeepsEntryIfNothingWasWritten() {
+        Pos pos = TestFixtures.getPosList().getFirst().toBuilder().version(3L).build();
+        when(delegate.getById(pos.id())).thenReturn(pos);
+        // the data store skips the update and returns the stored POS with the same version
+        when(delegate.upsert(pos)).thenReturn(pos);
+
+        cache.getById(pos.id());
+        cache.upsert(pos);
+
+        assertThat(cache.getById(pos.id())).isEqualTo(pos);
+        verify(delegate, times(1)).getById(pos.id());
+    }
+
+    @Test
+    void getVersionIsAlwaysDelegated() {
+        Pos pos = TestFixtures.getPosList().getFirst().toBuilder().version(3L).build();
+        PosVersion version = new PosVersion(4L, LocalDateTime.of(2025, 1, 1, 12, 0));
+        when(delegate.getById(pos.id())).thenReturn(pos);
+        // the POS has been updated by another instance after it was cached
+        when(delegate.getVersion(pos.id())).thenReturn(version);
+
+        cache.getById(pos.id());
+
+        assertThat(cache.getVersion(pos.id())).isEqualTo(version);
+        verify(delegate, times(1)).getVersion(pos.id());
+    }
+
+    @Test
+    void evictsOldestEntryIfFull() {
+        for (long id = 1; id <= 3; id++) {
+            when(delegate.getById(id)).thenReturn(TestFixtures.getPosList().getFirst().toBuilder().id(id).build());
+            cache.getById(id);
+        }
+
+        assertThat(cache.getStatistics().size()).isEqualTo(2);
+        assertThat(cache.getStatistics().evictions()).isEqualTo(1);
+        cache.getById(1L);
+        verify(delegate, times(2)).getById(1L);
+    }
+
+    @Test
+    void reloadedEntryIsEvictedLast() {
+        for (long id = 1; id <= 3; id++) {
+            when(delegate.getById(id)).thenReturn(TestFixtures.getPosList().getFirst().toBuilder().id(id).build());
+        }
+        Pos first = cache.getById(1L);
+        cache.getById(2L);
+        when(delegate.upsert(first)).thenReturn(first.toBuilder().version(1L).build());
+        cache.upsert(first);
+        cache.getById(1L);
+
+        // the entry of ID 1 has been reloaded after the one of ID 2, so ID 2 is evicted
+        cache.getById(3L);
+        cache.getById(1L);
+        cache.getById(2L);
+
+        verify(delegate, times(2)).getById(1L);
+        verify(delegate, times(2)).getById(2L);
+        assertThat(cache.getStatistics().size()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentMissesAreLoadedOnce() throws Exception {
+        Pos pos = TestFixtures.getPosList().getFirst();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            release.await();
+            return pos;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Pos>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.getById(1L)));
+            assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.getById(1L)));
+            }
+            // wait until the other threads are blocked on the running load
+            while (cache.getStatistics().misses() < 8) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<Pos> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(pos);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(delegate, times(1)).getById(1L);
+        assertThat(cache.getStatistics().loads()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,160 @@
+package de.seuhd.campuscoffee.domain.impl;
+
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobNotFoundException;
+import de.seuhd.campuscoffee.domain.exceptions.ImportJobRejectedException;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
+import de.seuhd.campuscoffee.domain.model.ImportJob;
+import de.seuhd.campuscoffee.domain.model.ImportJobStatus;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.ports.PosService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceImplTest {
+
+    @Mock
+    private PosService posService;
+
+    private ImportJobServiceImpl importJobService;
+
+    @AfterEach
+    void tearDown() {
+        importJobService.shutdown();
+    }
+
+    @Test
+    void submitOsmImportProcessesNodesInChunksAndReportsProgress() throws Exception {
+        importJobService = new ImportJobServiceImpl(posService, 1, 1);
+        doAnswer(invocation -> {
+            List<Long> nodeIds = invocation.getArgument(0);
+            int batchSize = invocation.getArgument(1);
+            BiConsumer<List<Long>, List<PosBatchResult>> batchListener = invocation.getArgument(2);
+            for (int from = 0; from < nodeIds.size(); from += batchSize) {
+                List<Long> chunk = nodeIds.subList(from, Math.min(from + batchSize, nodeIds.size()));
+                batchListener.accept(chunk, IntStream.range(0, chunk.size())
+                        .mapToObj(index -> PosBatchResult.builder()
+                                .index(index)
+                                .outcome(chunk.get(index) % 2 == 0 ? BatchOutcome.CREATED : BatchOutcome.NOT_FOUND)
+                                .message(chunk.get(index) % 2 == 0 ? null : "not found")
+                                .build())
+                        .toList());
+            }
+            return null;
+        }).when(posService).importFromOsmNodes(anyList(), eq(ImportJobServiceImpl.CHUNK_SIZE), any());
+        List<Long> nodeIds = LongStream.rangeClosed(1, ImportJobServiceImpl.CHUNK_SIZE + 10).boxed().toList();
+
+        ImportJob submitted = importJobService.submitOsmImport(nodeIds);
+        ImportJob finished = awaitFinished(submitted.id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.totalNodes()).isEqualTo(nodeIds.size());
+        assertThat(finished.processedNodes()).isEqualTo(nodeIds.size());
+        assertThat(finished.importedNodes()).isEqualTo(nodeIds.size() / 2);
+        assertThat(finished.failedNodes()).isEqualTo(nodeIds.size() / 2);
+        assertThat(finished.failures()).first()
+                .satisfies(failure -> assertThat(failure.nodeId()).isEqualTo(1L));
+        verify(posService, times(1)).importFromOsmNodes(eq(nodeIds), eq(ImportJobServiceImpl.CHUNK_SIZE), any());
+    }
+
+    @Test
+    void submitOsmImportRejectsJobsIfQueueIsFull() throws Exception {
+        importJobService = new ImportJobServiceImpl(posService, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return null;
+        }).when(posService).importFromOsmNodes(anyList(), anyInt(), any());
+
+        importJobService.submitOsmImport(List.of(1L)); // occupies the worker
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        ImportJob queued = importJobService.submitOsmImport(List.of(2L)); // occupies the queue
+
+        assertThat(queued.status()).isEqualTo(ImportJobStatus.QUEUED);
+        assertThatThrownBy(() -> importJobService.submitOsmImport(List.of(3L)))
+                .isInstanceOf(ImportJobRejectedException.class);
+        release.countDown();
+    }
+
+    @Test
+    void submitOsmExtractImportCountsMatchingNodesWhileReading() throws Exception {
+        importJobService = new ImportJobServiceImpl(posService, 1, 1);
+        when(posService.importFromOsmExtract(eq("heidelberg.osm.pbf"), any())).thenAnswer(invocation -> {
+            BiConsumer<List<Long>, List<PosBatchResult>> batchListener = invocation.getArgument(1);
+            batchListener.accept(List.of(1L, 2L), List.of(
+                    PosBatchResult.builder().index(0).outcome(BatchOutcome.CREATED).build(),
+                    PosBatchResult.builder().index(1).outcome(BatchOutcome.INVALID).message("missing addr:street").build()));
+            batchListener.accept(List.of(3L), List.of(
+                    PosBatchResult.builder().index(0).outcome(BatchOutcome.CREATED).build()));
+            return 3L;
+        });
+
+        ImportJob submitted = importJobService.submitOsmExtractImport("heidelberg.osm.pbf");
+        ImportJob finished = awaitFinished(submitted.id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.totalNodes()).isEqualTo(3);
+        assertThat(finished.processedNodes()).isEqualTo(3);
+        assertThat(finished.importedNodes()).isEqualTo(2);
+        assertThat(finished.failures()).singleElement()
+                .satisfies(failure -> assertThat(failure.nodeId()).isEqualTo(2L));
+    }
+
+    @Test
+    void submitOsmImportFailsJobOnError() throws Exception {
+        importJobService = new ImportJobServiceImpl(posService, 1, 1);
+        doAnswer(invocation -> {
+            throw new StackOverflowError("too deep");
+        }).when(posService).importFromOsmNodes(anyList(), anyInt(), any());
+
+        ImportJob submitted = importJobService.submitOsmImport(List.of(1L));
+        ImportJob finished = awaitFinished(submitted.id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(finished.finishedAt()).isNotNull();
+        assertThat(finished.error()).isEqualTo("too deep");
+    }
+
+    @Test
+    void getJobThrowsForUnknownJob() {
+        importJobService = new ImportJobServiceImpl(posService, 1, 1);
+
+        assertThatThrownBy(() -> importJobService.getJob(UUID.randomUUID()))
+                .isInstanceOf(ImportJobNotFoundException.class);
+    }
+
+    private ImportJob awaitFinished(UUID jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            ImportJob job = importJobService.getJob(jobId);
+            if (job.status() == ImportJobStatus.COMPLETED || job.status() == ImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Import job did not finish in time");
+    }
+}
@@ -1,24 +1,60 @@
 package de.seuhd.campuscoffee.domain.impl;
 
+import de.seuhd.campuscoffee.domain.exceptions.DuplicatePosNameException;
 import de.seuhd.campuscoffee.domain.exceptions.OsmNodeMissingFieldsException;
+import de.seuhd.campuscoffee.domain.model.BatchOutcome;
 import de.seuhd.campuscoffee.domain.model.CampusType;
+import de.seuhd.campuscoffee.domain.model.CursorPage;
+import de.seuhd.campuscoffee.domain.model.OsmChangeAction;
 import de.seuhd.campuscoffee.domain.model.OsmNode;
+import de.seuhd.campuscoffee.domain.model.OsmNodeChange;
 import de.seuhd.campuscoffee.domain.model.Pos;
+import de.seuhd.campuscoffee.domain.model.PosBatchResult;
+import de.seuhd.campuscoffee.domain.model.PosBulkLoadResult;
+import de.seuhd.campuscoffee.domain.model.PosField;
+import de.seuhd.campuscoffee.domain.model.PosFilter;
 import de.seuhd.campuscoffee.domain.model.PosType;
 import de.seuhd.campuscoffee.domain.ports.OsmDataService;
+import de.seuhd.campuscoffee.domain.ports.OsmExtractDataService;
+import de.seuhd.campuscoffee.domain.ports.OsmReplicationDataService;
 import de.seuhd.campuscoffee.domain.ports.PosDataService;
+import de.seuhd.campuscoffee.domain.ports.PosService;
+import de.seuhd.campuscoffee.domain.tests.TestFixtures;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,14 +67,24 @@ class PosServiceImplTest {
     @Mock
     private OsmDataService osmDataService;
 
+    @Mock
+    private OsmExtractDataService osmExtractDataService;
+
+    @Mock
+    private OsmReplicationDataService osmReplicationDataService;
+
     @Captor
     private ArgumentCaptor<Pos> posCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Pos>> posListCaptor;
+
     private PosServiceImpl posService;
 
     @BeforeEach
     void setUp() {
-	posService = new PosServiceImpl(posDataService, osmDataService);
+	posService = new PosServiceImpl(posDataService, osmDataService, osmExtractDataService, osmReplicationDataService,
+		new PosNameIndex(posDataService));
     }
 
     @Test
@@ -86,6 +132,8 @@ class PosServiceImplTest {
 	assertThat(mapped.houseNumber()).isEqualTo("21");
 	assertThat(mapped.postalCode()).isEqualTo(69117);
 	assertThat(mapped.city()).isEqualTo("Heidelberg");
+	assertThat(mapped.latitude()).isEqualTo(49.4122362);
+	assertThat(mapped.longitude()).isEqualTo(8.7077883);
 
 	assertThat(result).isEqualTo(persisted);
     }
@@ -183,4 +231,483 @@ class PosServiceImplTest {
 
 	assertThat(result).isEqualTo(persisted);
     }
+
+    @Test
+    void importFromOsmNodeCoalescesConcurrentImportsOfSameNode() throws Exception {
+	Long nodeId = 5589879349L;
+	OsmNode osmNode = OsmNode.builder()
+		.nodeId(nodeId)
+		.name("Rada Coffee & Rösterei")
+		.amenity("cafe")
+		.street("Untere Straße")
+		.houseNumber("21")
+		.postalCode("69117")
+		.city("Heidelberg")
+		.build();
+	CountDownLatch fetchStarted = new CountDownLatch(1);
+	CountDownLatch fetchReleased = new CountDownLatch(1);
+	when(osmDataService.fetchNode(nodeId)).thenAnswer(invocation -> {
+		fetchStarted.countDown();
+		fetchReleased.await();
+		return osmNode;
+	});
+	Pos persisted = Pos.builder()
+		.id(42L)
+		.name("Rada Coffee & Rösterei")
+		.build();
+	when(posDataService.upsert(any(Pos.class))).thenReturn(persisted);
+
+	FutureTask<Pos> firstImport = new FutureTask<>(() -> posService.importFromOsmNode(nodeId));
+	FutureTask<Pos> secondImport = new FutureTask<>(() -> posService.importFromOsmNode(nodeId));
+	new Thread(firstImport).start();
+	fetchStarted.await();
+	Thread secondThread = new Thread(secondImport);
+	secondThread.start();
+	// the second import waits for the first one instead of fetching the node itself
+	while (secondThread.getState() != Thread.State.WAITING) {
+		assertThat(secondThread.isAlive()).isTrue();
+		Thread.onSpinWait();
+	}
+	fetchReleased.countDown();
+
+	assertThat(firstImport.get(5, TimeUnit.SECONDS)).isEqualTo(persisted);
+	assertThat(secondImport.get(5, TimeUnit.SECONDS)).isEqualTo(persisted);
+	verify(osmDataService, times(1)).fetchNode(nodeId);
+	verify(posDataService, times(1)).upsert(any(Pos.class));
+    }
+
+    @Test
+    void importFromOsmNodeCompletesSharedImportWhenLeaderFailsWithError() throws Exception {
+	Long nodeId = 5589879349L;
+	CountDownLatch fetchStarted = new CountDownLatch(1);
+	CountDownLatch fetchReleased = new CountDownLatch(1);
+	when(osmDataService.fetchNode(nodeId)).thenAnswer(invocation -> {
+		fetchStarted.countDown();
+		fetchReleased.await();
+		throw new StackOverflowError();
+	});
+
+	FutureTask<Pos> firstImport = new FutureTask<>(() -> posService.importFromOsmNode(nodeId));
+	FutureTask<Pos> secondImport = new FutureTask<>(() -> posService.importFromOsmNode(nodeId));
+	new Thread(firstImport).start();
+	fetchStarted.await();
+	Thread secondThread = new Thread(secondImport);
+	secondThread.start();
+	while (secondThread.getState() != Thread.State.WAITING) {
+		assertThat(secondThread.isAlive()).isTrue();
+		Thread.onSpinWait();
+	}
+	fetchReleased.countDown();
+
+	// both callers get the error instead of the waiting one blocking forever
+	assertThatThrownBy(() -> firstImport.get(5, TimeUnit.SECONDS))
+		.hasCauseInstanceOf(StackOverflowError.class);
+	assertThatThrownBy(() -> secondImport.get(5, TimeUnit.SECONDS))
+		.hasCauseInstanceOf(StackOverflowError.class);
+	verify(osmDataService, times(1)).fetchNode(nodeId);
+    }
+
+    @Test
+    void importFromOsmNodeSkipsUnchangedNode() {
+	Long nodeId = 5589879349L;
+	OsmNode osmNode = OsmNode.builder()
+		.nodeId(nodeId)
+		.version(3L)
+		.name("Rada Coffee & Rösterei")
+		.amenity("cafe")
+		.street("Untere Straße")
+		.houseNumber("21")
+		.postalCode("69117")
+		.city("Heidelberg")
+		.build();
+	Pos importedPos = Pos.builder()
+		.id(42L)
+		.name("Rada Coffee & Rösterei")
+		.osmNodeId(nodeId)
+		.osmVersion(3L)
+		.build();
+	when(osmDataService.fetchNode(nodeId)).thenReturn(osmNode);
+	when(posDataService.getByOsmNodeIds(List.of(nodeId))).thenReturn(Map.of(nodeId, importedPos));
+
+	assertThat(posService.importFromOsmNode(nodeId)).isEqualTo(importedPos);
+	verify(posDataService, never()).upsert(any(Pos.class));
+    }
+
+    @Test
+    void importFromOsmNodeUpdatesPreviouslyImportedPos() {
+	Long nodeId = 5589879349L;
+	OsmNode osmNode = OsmNode.builder()
+		.nodeId(nodeId)
+		.version(4L)
+		.name("Rada Coffee & Rösterei")
+		.amenity("cafe")
+		.street("Untere Straße")
+		.houseNumber("21")
+		.postalCode("69117")
+		.city("Heidelberg")
+		.build();
+	Pos importedPos = Pos.builder()
+		.id(42L)
+		.name("Rada Coffee & Rösterei")
+		.osmNodeId(nodeId)
+		.osmVersion(3L)
+		.build();
+	when(osmDataService.fetchNode(nodeId)).thenReturn(osmNode);
+	when(posDataService.getByOsmNodeIds(List.of(nodeId))).thenReturn(Map.of(nodeId, importedPos));
+	when(posDataService.upsert(any(Pos.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+	Pos result = posService.importFromOsmNode(nodeId);
+
+	verify(posDataService).upsert(posCaptor.capture());
+	assertThat(posCaptor.getValue().id()).isEqualTo(42L);
+	assertThat(posCaptor.getValue().osmNodeId()).isEqualTo(nodeId);
+	assertThat(posCaptor.getValue().osmVersion()).isEqualTo(4L);
+	assertThat(result.id()).isEqualTo(42L);
+    }
+
+    @Test
+    void getPageCapsPageSize() {
+	CursorPage<Pos> page = new CursorPage<>(List.of(), null);
+	when(posDataService.getPage(10L, PosService.MAX_PAGE_SIZE, PosFilter.none(), PosField.all())).thenReturn(page);
+
+	assertThat(posService.getPage(10L, PosService.MAX_PAGE_SIZE + 1, PosFilter.none(), PosField.all())).isSameAs(page);
+    }
+
+    @Test
+    void getPageRejectsNonPositivePageSize() {
+	assertThatThrownBy(() -> posService.getPage(null, 0, PosFilter.none(), PosField.all()))
+		.isInstanceOf(IllegalArgumentException.class);
+
+	verify(posDataService, never()).getPage(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void getPageAlwaysRequestsId() {
+	CursorPage<Pos> page = new CursorPage<>(List.of(), null);
+	when(posDataService.getPage(null, 10, PosFilter.none(), Set.of(PosField.ID, PosField.NAME))).thenReturn(page);
+
+	assertThat(posService.getPage(null, 10, PosFilter.none(), Set.of(PosField.NAME))).isSameAs(page);
+    }
+
+    @Test
+    void searchRejectsBlankQuery() {
+	assertThatThrownBy(() -> posService.search(" ", 0, 10))
+		.isInstanceOf(IllegalArgumentException.class);
+
+	verify(posDataService, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getNearbyRejectsInvalidArguments() {
+	assertThatThrownBy(() -> posService.getNearby(91, 8.7, 1000, 10))
+		.isInstanceOf(IllegalArgumentException.class);
+	assertThatThrownBy(() -> posService.getNearby(49.4, 8.7, PosService.MAX_NEARBY_RADIUS + 1, 10))
+		.isInstanceOf(IllegalArgumentException.class);
+	assertThatThrownBy(() -> posService.getNearby(49.4, 8.7, 1000, 0))
+		.isInstanceOf(IllegalArgumentException.class);
+
+	verify(posDataService, never()).getNearby(anyDouble(), anyDouble(), anyDouble(), anyInt());
+    }
+
+    @Test
+    void upsertRejectsNameOfOtherPosWithoutWriting() {
+	Pos pos = TestFixtures.getPosFixturesForInsertion().getFirst();
+	when(posDataService.getIdsByName()).thenReturn(Map.of(pos.name(), 1L));
+	when(posDataService.getIdsByName(List.of(pos.name()))).thenReturn(Map.of(pos.name(), 1L));
+
+	assertThatThrownBy(() -> posService.upsert(pos))
+		.isInstanceOf(DuplicatePosNameException.class);
+	assertThatThrownBy(() -> posService.upsert(pos.toBuilder().id(2L).build()))
+		.isInstanceOf(DuplicatePosNameException.class);
+
+	verify(posDataService, never()).upsert(any(Pos.class));
+    }
+
+    @Test
+    void upsertWritesIfNameIndexIsOutdated() {
+	Pos pos = TestFixtures.getPosFixturesForInsertion().getFirst();
+	Pos persisted = pos.toBuilder().id(2L).build();
+	when(posDataService.getIdsByName()).thenReturn(Map.of(pos.name(), 1L));
+	when(posDataService.getIdsByName(List.of(pos.name()))).thenReturn(Map.of());
+	when(posDataService.upsert(pos)).thenReturn(persisted);
+
+	assertThat(posService.upsert(pos)).isEqualTo(persisted);
+	// the POS keeps its own name and the confirmed entry is not looked up again
+	when(posDataService.upsert(persisted)).thenReturn(persisted);
+	assertThat(posService.upsert(persisted)).isEqualTo(persisted);
+	verify(posDataService, times(1)).getIdsByName(anyCollection());
+    }
+
+    @Test
+    void upsertAllRejectsKnownDuplicateNamesWithoutWritingThem() {
+	List<Pos> posList = TestFixtures.getPosFixturesForInsertion().subList(0, 2);
+	when(posDataService.getIdsByName()).thenReturn(Map.of(posList.getFirst().name(), 1L));
+	when(posDataService.getIdsByName(Set.of(posList.getFirst().name()))).thenReturn(Map.of(posList.getFirst().name(), 1L));
+	when(posDataService.upsertAll(List.of(posList.getLast()))).thenReturn(List.of(PosBatchResult.builder()
+		.index(0)
+		.outcome(BatchOutcome.CREATED)
+		.pos(posList.getLast().toBuilder().id(2L).build())
+		.build()));
+
+	List<PosBatchResult> results = posService.upsertAll(posList);
+
+	assertThat(results).extracting(PosBatchResult::index).containsExactly(0, 1);
+	assertThat(results).extracting(PosBatchResult::outcome)
+		.containsExactly(BatchOutcome.DUPLICATE_NAME, BatchOutcome.CREATED);
+    }
+
+    @Test
+    void bulkLoadReloadsNameIndex() {
+	List<Pos> posList = TestFixtures.getPosFixturesForInsertion().subList(0, 2);
+	Pos loaded = posList.getLast();
+	when(posDataService.getIdsByName()).thenReturn(Map.of(), Map.of(loaded.name(), 2L));
+	when(posDataService.getIdsByName(List.of(loaded.name()))).thenReturn(Map.of(loaded.name(), 2L));
+	when(posDataService.upsert(posList.getFirst())).thenReturn(posList.getFirst().toBuilder().id(1L).build());
+	when(posDataService.bulkLoad("pos.csv")).thenReturn(PosBulkLoadResult.builder()
+		.rows(1)
+		.created(1)
+		.failures(List.of())
+		.build());
+	posService.upsert(posList.getFirst());
+
+	assertThat(posService.bulkLoad("pos.csv").created()).isEqualTo(1);
+	// the name written by the bulk load is known after the index has been reloaded
+	assertThatThrownBy(() -> posService.upsert(loaded))
+		.isInstanceOf(DuplicatePosNameException.class);
+	verify(posDataService, times(2)).getIdsByName();
+	verify(posDataService, never()).upsert(loaded);
+    }
+
+    @Test
+    void bulkLoadRejectsBlankFileName() {
+	assertThatThrownBy(() -> posService.bulkLoad(" "))
+		.isInstanceOf(IllegalArgumentException.class);
+
+	verify(posDataService, never()).bulkLoad(any());
+    }
+
+    @Test
+    void upsertAllRejectsOversizedBatches() {
+	List<Pos> posList = Collections.nCopies(PosService.MAX_BATCH_SIZE + 1, Pos.builder().build());
+
+	assertThatThrownBy(() -> posService.upsertAll(posList))
+		.isInstanceOf(IllegalArgumentException.class);
+
+	verify(posDataService, never()).upsertAll(any());
+    }
+
+    @Test
+    void importFromOsmNodesReportsOutcomePerNode() {
+	OsmNode validNode = OsmNode.builder()
+		.nodeId(1L)
+		.amenity("cafe")
+		.name("Café One")
+		.street("Main Street")
+		.houseNumber("1")
+		.postalCode("69117")
+		.city("Heidelberg")
+		.build();
+	OsmNode incompleteNode = OsmNode.builder()
+		.nodeId(2L)
+		.name("Café Two")
+		.build();
+	when(osmDataService.fetchNodes(List.of(1L, 2L, 3L))).thenReturn(Map.of(1L, validNode, 2L, incompleteNode));
+	when(posDataService.upsertAll(anyList())).thenAnswer(invocation -> List.of(PosBatchResult.builder()
+		.index(0)
+		.outcome(BatchOutcome.CREATED)
+		.pos(invocation.<List<Pos>>getArgument(0).getFirst().toBuilder().id(10L).build())
+		.build()));
+
+	List<PosBatchResult> results = posService.importFromOsmNodes(List.of(1L, 2L, 3L));
+
+	assertThat(results).extracting(PosBatchResult::index).containsExactly(0, 1, 2);
+	assertThat(results).extracting(PosBatchResult::outcome)
+		.containsExactly(BatchOutcome.CREATED, BatchOutcome.INVALID, BatchOutcome.NOT_FOUND);
+	assertThat(results.getFirst().pos()).isNotNull();
+	assertThat(results.getFirst().pos().name()).isEqualTo("Café One");
+    }
+
+    @Test
+    void importFromOsmExtractImportsSupportedNodesInBatches() {
+	int nodeCount = PosService.MAX_BATCH_SIZE + 1;
+	when(osmExtractDataService.readNodes(eq("heidelberg.osm.pbf"), any())).thenAnswer(invocation -> {
+		Consumer<OsmNode> consumer = invocation.getArgument(1);
+		consumer.accept(OsmNode.builder().nodeId(0L).name("Restaurant").amenity("restaurant").build());
+		for (long nodeId = 1; nodeId <= nodeCount; nodeId++) {
+			consumer.accept(OsmNode.builder()
+				.nodeId(nodeId)
+				.amenity(nodeId % 2 == 0 ? "cafe" : null)
+				.shop(nodeId % 2 == 0 ? null : "bakery")
+				.name("POS " + nodeId)
+				.street("Main Street")
+				.houseNumber(String.valueOf(nodeId))
+				.postalCode("69117")
+				.city("Heidelberg")
+				.build());
+		}
+		return nodeCount + 1L;
+	});
+	when(posDataService.upsertAll(anyList())).thenAnswer(invocation -> {
+		List<Pos> posList = invocation.getArgument(0);
+		return IntStream.range(0, posList.size())
+			.mapToObj(index -> PosBatchResult.builder()
+				.index(index)
+				.outcome(BatchOutcome.CREATED)
+				.pos(posList.get(index).toBuilder().id((long) index + 1).build())
+				.build())
+			.toList();
+	});
+	List<List<Long>> batches = new ArrayList<>();
+
+	long supportedNodes = posService.importFromOsmExtract("heidelberg.osm.pbf", (nodeIds, results) -> {
+		assertThat(results).hasSameSizeAs(nodeIds)
+			.allSatisfy(result -> assertThat(result.outcome()).isEqualTo(BatchOutcome.CREATED));
+		batches.add(nodeIds);
+	});
+
+	assertThat(supportedNodes).isEqualTo(nodeCount);
+	assertThat(batches).extracting(List::size).containsExactly(PosService.MAX_BATCH_SIZE, 1);
+	assertThat(batches.getFirst()).first().isEqualTo(1L);
+	verify(posDataService, times(2)).upsertAll(anyList());
+    }
+
+    @Test
+    void replicateOsmChangesAppliesRelevantChangesAndSavesCheckpoints() {
+	when(osmReplicationDataService.getCheckpoint()).thenReturn(40L);
+	when(osmReplicationDataService.getSequenceNumbers(40L)).thenReturn(List.of(41L, 42L));
+	when(posDataService.getOsmNodeIds()).thenReturn(Set.of(100L));
+	when(osmReplicationDataService.readChanges(eq(41L), any())).thenAnswer(invocation -> {
+		Consumer<OsmNodeChange> consumer = invocation.getArgument(1);
+		consumer.accept(new OsmNodeChange(OsmChangeAction.CREATE, replicatedNode(1L, 1L, "cafe")));
+		// neither imported nor a supported POS type
+		consumer.accept(new OsmNodeChange(OsmChangeAction.CREATE, replicatedNode(2L, 1L, "restaurant")));
+		consumer.accept(new OsmNodeChange(OsmChangeAction.DELETE, OsmNode.builder().nodeId(3L).version(2L).build()));
+		// imported before, so it is applied although it is no longer tagged as a supported POS type
+		consumer.accept(new OsmNodeChange(OsmChangeAction.MODIFY, replicatedNode(100L, 5L, null)));
+		// only the last change of a node within a batch is applied
+		consumer.accept(new OsmNodeChange(OsmChangeAction.MODIFY, replicatedNode(1L, 2L, "cafe")));
+		return 5L;
+	});
+	when(osmReplicationDataService.readChanges(eq(42L), any())).thenAnswer(invocation -> {
+		Consumer<OsmNodeChange> consumer = invocation.getArgument(1);
+		consumer.accept(new OsmNodeChange(OsmChangeAction.DELETE, OsmNode.builder().nodeId(100L).version(6L).build()));
+		return 1L;
+	});
+	when(posDataService.getByOsmNodeIds(anyCollection())).thenReturn(Map.of());
+	when(posDataService.upsertAll(anyList())).thenAnswer(invocation -> {
+		List<Pos> posList = invocation.getArgument(0);
+		return IntStream.range(0, posList.size())
+			.mapToObj(index -> PosBatchResult.builder()
+				.index(index)
+				.outcome(BatchOutcome.CREATED)
+				.pos(posList.get(index).toBuilder().id((long) index + 1).build())
+				.build())
+			.toList();
+	});
+	List<List<Long>> batches = new ArrayList<>();
+
+	long appliedDiffs = posService.replicateOsmChanges((nodeIds, results) -> batches.add(nodeIds));
+
+	assertThat(appliedDiffs).isEqualTo(2);
+	assertThat(batches).containsExactly(List.of(100L, 1L));
+	verify(posDataService).upsertAll(posListCaptor.capture());
+	assertThat(posListCaptor.getValue()).extracting(Pos::osmVersion).containsExactly(5L, 2L);
+	InOrder inOrder = inOrder(osmReplicationDataService);
+	inOrder.verify(osmReplicationDataService).saveCheckpoint(41L);
+	inOrder.verify(osmReplicationDataService).saveCheckpoint(42L);
+    }
+
+    @Test
+    void replicateOsmChangesStopsAtMissingDiff() {
+	when(osmReplicationDataService.getCheckpoint()).thenReturn(40L);
+	// diff 42 is missing
+	when(osmReplicationDataService.getSequenceNumbers(40L)).thenReturn(List.of(41L, 43L, 44L));
+	when(osmReplicationDataService.readChanges(eq(41L), any())).thenReturn(0L);
+
+	assertThat(posService.replicateOsmChanges((nodeIds, results) -> {})).isEqualTo(1);
+	verify(osmReplicationDataService).saveCheckpoint(41L);
+	verify(osmReplicationDataService, never()).readChanges(eq(43L), any());
+	verify(osmReplicationDataService, never()).saveCheckpoint(43L);
+    }
+
+    @Test
+    void replicateOsmChangesAppliesNothingIfNextDiffIsMissing() {
+	when(osmReplicationDataService.getCheckpoint()).thenReturn(40L);
+	when(osmReplicationDataService.getSequenceNumbers(40L)).thenReturn(List.of(42L, 43L));
+
+	assertThat(posService.replicateOsmChanges((nodeIds, results) -> {})).isZero();
+	verify(osmReplicationDataService, never()).readChanges(anyLong(), any());
+	verify(osmReplicationDataService, never()).saveCheckpoint(anyLong());
+    }
+
+    @Test
+    void replicateOsmChangesStartsWithFirstDiffWithoutCheckpoint() {
+	when(osmReplicationDataService.getCheckpoint()).thenReturn(null);
+	when(osmReplicationDataService.getSequenceNumbers(null)).thenReturn(List.of(7L, 8L, 10L));
+	when(osmReplicationDataService.readChanges(anyLong(), any())).thenReturn(0L);
+
+	assertThat(posService.replicateOsmChanges((nodeIds, results) -> {})).isEqualTo(2);
+	InOrder inOrder = inOrder(osmReplicationDataService);
+	inOrder.verify(osmReplicationDataService).saveCheckpoint(7L);
+	inOrder.verify(osmReplicationDataService).saveCheckpoint(8L);
+	verify(osmReplicationDataService, never()).saveCheckpoint(10L);
+    }
+
+    @Test
+    void replicateOsmChangesDoesNothingWithoutPendingDiffs() {
+	when(osmReplicationDataService.getCheckpoint()).thenReturn(42L);
+	when(osmReplicationDataService.getSequenceNumbers(42L)).thenReturn(List.of());
+
+	assertThat(posService.replicateOsmChanges((nodeIds, results) -> {})).isZero();
+	verify(osmReplicationDataService, never()).saveCheckpoint(anyLong());
+	verify(posDataService, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void importFromOsmNodesFetchesNextBatchesWhileWriting() {
+	when(osmDataService.fetchNodesAsync(anyList())).thenAnswer(invocation -> {
+		List<Long> nodeIds = invocation.getArgument(0);
+		return CompletableFuture.completedFuture(nodeIds.stream().collect(Collectors.toMap(nodeId -> nodeId, nodeId -> OsmNode.builder()
+			.nodeId(nodeId)
+			.amenity("cafe")
+			.name("Café " + nodeId)
+			.street("Main Street")
+			.houseNumber("1")
+			.postalCode("69117")
+			.city("Heidelberg")
+			.build())));
+	});
+	when(posDataService.upsertAll(anyList())).thenAnswer(invocation -> List.of(PosBatchResult.builder()
+		.index(0)
+		.outcome(BatchOutcome.CREATED)
+		.pos(invocation.<List<Pos>>getArgument(0).getFirst().toBuilder().id(10L).build())
+		.build()));
+	List<Long> nodeIds = LongStream.rangeClosed(1, PosServiceImpl.MAX_CONCURRENT_FETCHES + 2).boxed().toList();
+	List<List<Long>> batches = new ArrayList<>();
+
+	posService.importFromOsmNodes(nodeIds, 1, (batch, results) -> {
+		assertThat(results).singleElement()
+			.satisfies(result -> assertThat(result.outcome()).isEqualTo(BatchOutcome.CREATED));
+		batches.add(batch);
+	});
+
+	assertThat(batches).flatExtracting(batch -> batch).isEqualTo(nodeIds);
+	InOrder inOrder = inOrder(osmDataService, posDataService);
+	inOrder.verify(osmDataService, times(PosServiceImpl.MAX_CONCURRENT_FETCHES)).fetchNodesAsync(anyList());
+	inOrder.verify(posDataService).upsertAll(anyList());
+	inOrder.verify(osmDataService).fetchNodesAsync(List.of(PosServiceImpl.MAX_CONCURRENT_FETCHES + 1L));
+    }
+
+    private static OsmNode replicatedNode(Long nodeId, Long version, String amenity) {
+	return OsmNode.builder()
+		.nodeId(nodeId)
+		.version(version)
+		.amenity(amenity)
+		.name("POS " + nodeId)
+		.street("Main Street")
+		.houseNumber(String.valueOf(nodeId))
+		.postalCode("69117")
+		.city("Heidelberg")
+		.build();
+    }
 }